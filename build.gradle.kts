@@ -2,6 +2,7 @@ plugins {
     id("org.springframework.boot") version "3.3.2"
     id("io.spring.dependency-management") version "1.1.0"
     java
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -23,6 +24,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security:3.3.2")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server:3.3.2")
     implementation("org.springframework.boot:spring-boot-starter-jdbc:3.3.2")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
 
     implementation ("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
 
@@ -30,6 +33,12 @@ dependencies {
     implementation("org.projectlombok:lombok:1.18.38")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.mapstruct:mapstruct:1.5.5.Final")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    // --- Resilience (HTTP-клиент AI-сервиса) ---
+    implementation("io.github.resilience4j:resilience4j-circuitbreaker:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-retry:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-micrometer:2.2.0")
     annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
 
     compileOnly("org.projectlombok:lombok:1.18.38")
@@ -40,6 +49,10 @@ dependencies {
     implementation("org.flywaydb:flyway-database-postgresql:11.10.0")
     runtimeOnly("org.postgresql:postgresql:42.7.4")
 
+    // --- Metrics ---
+    implementation("org.hibernate.orm:hibernate-micrometer")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+
     // --- JWT / JOSE ---
     implementation("com.nimbusds:nimbus-jose-jwt:9.37.3")
 
@@ -60,4 +73,16 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Микробенчмарки горячих in-memory путей: ./gradlew jmh (-PjmhIncludes=<regex> для выборочного запуска)
+// Результат в JSON: build/reports/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
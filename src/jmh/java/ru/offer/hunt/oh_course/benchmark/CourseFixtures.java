@@ -0,0 +1,165 @@
+package ru.offer.hunt.oh_course.benchmark;
+
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.entity.QuestionOption;
+import ru.offer.hunt.oh_course.model.entity.QuestionTestCase;
+import ru.offer.hunt.oh_course.model.enums.AccessType;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import ru.offer.hunt.oh_course.service.CourseStructureAssembler;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Синтетический курс заданного размера (по числу страниц), форма близка к реальным курсам:
+ * 10 страниц на урок, чередование THEORY / TEST (3 вопроса x 4 опции) / CODE_TASK (1 вопрос x 3 тест-кейса).
+ */
+final class CourseFixtures {
+
+    static final int PAGES_PER_LESSON = 10;
+
+    private static final String MARKDOWN = "## Раздел\n\n" + "Текст методического материала. ".repeat(60);
+
+    final Course course;
+    final List<Lesson> lessons = new ArrayList<>();
+    final List<LessonPage> pages = new ArrayList<>();
+    final List<MethodicalPageContent> methodical = new ArrayList<>();
+    final List<Question> questions = new ArrayList<>();
+    final List<QuestionOption> options = new ArrayList<>();
+    final List<QuestionTestCase> testCases = new ArrayList<>();
+
+    private CourseFixtures(int pageCount) {
+        OffsetDateTime now = OffsetDateTime.now();
+        course = course(0, now);
+
+        int lessonCount = Math.max(1, pageCount / PAGES_PER_LESSON);
+        for (int l = 0; l < lessonCount; l++) {
+            Lesson lesson = lesson(course, l, now);
+            lessons.add(lesson);
+
+            int pagesInLesson = Math.min(PAGES_PER_LESSON, pageCount - l * PAGES_PER_LESSON);
+            for (int p = 0; p < pagesInLesson; p++) {
+                addPage(lesson, p, now);
+            }
+        }
+    }
+
+    static CourseFixtures ofPages(int pageCount) {
+        return new CourseFixtures(pageCount);
+    }
+
+    CourseStructureAssembler assembler() {
+        return new CourseStructureAssembler(pages, methodical, questions, options, testCases);
+    }
+
+    static Course course(int i, OffsetDateTime now) {
+        Course course = Course.builder()
+                .id(UUID.randomUUID())
+                .authorId(UUID.randomUUID())
+                .title("Курс " + i)
+                .slug("course-" + i)
+                .description("Описание курса " + i)
+                .language("java")
+                .level("MIDDLE")
+                .estimatedDurationMin(600)
+                .status(CourseStatus.PUBLISHED)
+                .accessType(AccessType.PUBLIC)
+                .version(1)
+                .publishedAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        course.setTagRefs(new ArrayList<>());
+        return course;
+    }
+
+    static Lesson lesson(Course course, int i, OffsetDateTime now) {
+        return Lesson.builder()
+                .id(UUID.randomUUID())
+                .course(course)
+                .title("Урок " + i)
+                .description("Описание урока " + i)
+                .orderIndex(i)
+                .durationMin(45)
+                .demo(i == 0)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private void addPage(Lesson lesson, int i, OffsetDateTime now) {
+        PageType type = switch (i % 3) {
+            case 0 -> PageType.THEORY;
+            case 1 -> PageType.TEST;
+            default -> PageType.CODE_TASK;
+        };
+
+        LessonPage page = new LessonPage();
+        page.setId(UUID.randomUUID());
+        page.setLesson(lesson);
+        page.setTitle("Страница " + i);
+        page.setPageType(type);
+        page.setSortOrder(i);
+        page.setCreatedAt(now);
+        pages.add(page);
+
+        switch (type) {
+            case THEORY -> {
+                MethodicalPageContent mc = new MethodicalPageContent();
+                mc.setPageId(page.getId());
+                mc.setMarkdown(MARKDOWN);
+                mc.setUpdatedAt(now);
+                methodical.add(mc);
+            }
+            case TEST -> {
+                for (int q = 0; q < 3; q++) {
+                    Question question = question(page, QuestionType.SINGLE_CHOICE, q, now);
+                    for (int o = 0; o < 4; o++) {
+                        options.add(QuestionOption.builder()
+                                .id(UUID.randomUUID())
+                                .questionId(question.getId())
+                                .label("Вариант " + o)
+                                .correct(o == 0)
+                                .sortOrder(o)
+                                .build());
+                    }
+                }
+            }
+            case CODE_TASK -> {
+                Question question = question(page, QuestionType.CODE, 0, now);
+                for (int t = 0; t < 3; t++) {
+                    testCases.add(QuestionTestCase.builder()
+                            .id(UUID.randomUUID())
+                            .questionId(question.getId())
+                            .inputData("input-" + t)
+                            .expectedOutput("output-" + t)
+                            .timeoutMs(2000)
+                            .memoryLimitMb(256)
+                            .build());
+                }
+            }
+        }
+    }
+
+    private Question question(LessonPage page, QuestionType type, int i, OffsetDateTime now) {
+        Question question = Question.builder()
+                .id(UUID.randomUUID())
+                .pageId(page.getId())
+                .type(type)
+                .text("Вопрос " + i)
+                .points(1)
+                .sortOrder(i)
+                .createdAt(now)
+                .build();
+        questions.add(question);
+        return question;
+    }
+}
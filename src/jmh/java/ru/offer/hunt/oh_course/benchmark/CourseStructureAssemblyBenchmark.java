@@ -0,0 +1,37 @@
+package ru.offer.hunt.oh_course.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Группировка + сборка дерева CourseStructureDto (in-memory часть CourseStructureService).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourseStructureAssemblyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pages;
+
+    private CourseFixtures fixtures;
+
+    @Setup
+    public void setUp() {
+        fixtures = CourseFixtures.ofPages(pages);
+    }
+
+    @Benchmark
+    public CourseStructureDto assemble() {
+        return fixtures.assembler().assemble(fixtures.course, fixtures.lessons);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.offer.hunt.oh_course.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация CourseStructureDto в JSON с настройками, как у Spring Boot по умолчанию (даты строкой).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourseStructureJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pages;
+
+    private ObjectMapper objectMapper;
+    private CourseStructureDto structure;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        CourseFixtures fixtures = CourseFixtures.ofPages(pages);
+        structure = fixtures.assembler().assemble(fixtures.course, fixtures.lessons);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(structure);
+    }
+}
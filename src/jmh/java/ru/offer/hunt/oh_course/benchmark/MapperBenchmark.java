@@ -0,0 +1,64 @@
+package ru.offer.hunt.oh_course.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.dto.LessonDto;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.mapper.CourseMapper;
+import ru.offer.hunt.oh_course.model.mapper.LessonMapper;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сгенерированные MapStruct-маппинги списков: Lesson -> LessonDto и базовые поля Course -> CourseDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private LessonMapper lessonMapper;
+    private CourseMapper courseMapper;
+    private List<Lesson> lessons;
+    private List<Course> courses;
+
+    @Setup
+    public void setUp() {
+        lessonMapper = Mappers.getMapper(LessonMapper.class);
+        courseMapper = Mappers.getMapper(CourseMapper.class);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        courses = new ArrayList<>(size);
+        lessons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Course course = CourseFixtures.course(i, now);
+            courses.add(course);
+            lessons.add(CourseFixtures.lesson(course, i, now));
+        }
+    }
+
+    @Benchmark
+    public List<LessonDto> lessonsToDto() {
+        return lessons.stream().map(lessonMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<CourseDto> coursesToBaseDto() {
+        return courses.stream().map(courseMapper::toBaseDto).toList();
+    }
+}
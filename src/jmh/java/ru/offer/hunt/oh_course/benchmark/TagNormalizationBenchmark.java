@@ -0,0 +1,48 @@
+package ru.offer.hunt.oh_course.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.offer.hunt.oh_course.service.TagService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нормализация тегов из TagService.resolveTagRefs: trim, пропуск пустых, dedupe без учёта регистра.
+ * Вход - половина дублей в другом регистре и с пробелами, плюс пустые значения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagNormalizationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<String> tags;
+
+    @Setup
+    public void setUp() {
+        tags = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            switch (i % 4) {
+                case 0 -> tags.add("Tag" + i);
+                case 1 -> tags.add("  tag" + (i - 1) + "  ");
+                case 2 -> tags.add("   ");
+                default -> tags.add("Spring-" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> normalize() {
+        return TagService.normalizeTagNames(tags);
+    }
+}
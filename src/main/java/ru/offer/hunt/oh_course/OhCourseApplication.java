@@ -12,6 +12,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class OhCourseApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(OhCourseApplication.class, args);
@@ -0,0 +1,173 @@
+package ru.offer.hunt.oh_course.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.offer.hunt.oh_course.model.dto.TextEnhancementRequest.TextEnhancementAction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш улучшений текста: результат детерминирован по (текст, действие, версия модели),
+ * поэтому повторный запуск или тот же фрагмент у соавтора не тратит квоту модели.
+ * Ключ - sha256 нормализованного текста (NFC, переводы строк, trim), сам текст в ключ не входит.
+ * Первый уровень - Caffeine (размер + TTL), второй - таблица ai_enhancement_cache, если включена.
+ * Ошибки второго уровня не ломают запрос: промах и предупреждение в логе.
+ * Метрики: cache_* для Caffeine, oh.course.ai.enhancement.cache{result} и hit_ratio по обоим уровням.
+ */
+@Component
+@Slf4j
+public class AiEnhancementCache implements MeterBinder {
+
+    private static final String SELECT_SQL =
+            "select enhanced_text from course.ai_enhancement_cache where cache_key = ? and expires_at > now()";
+    private static final String UPSERT_SQL = """
+            insert into course.ai_enhancement_cache (cache_key, action, model_version, enhanced_text, expires_at)
+            values (?, ?, ?, ?, ?)
+            on conflict (cache_key) do update
+                set enhanced_text = excluded.enhanced_text,
+                    expires_at    = excluded.expires_at
+            """;
+    private static final String PURGE_SQL = "delete from course.ai_enhancement_cache where expires_at <= now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, String> local;
+    private final boolean persistent;
+    private final Duration persistentTtl;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AiEnhancementCache(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.ai.enhancement-cache.max-size:10000}") long maxSize,
+            @Value("${app.ai.enhancement-cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.ai.enhancement-cache.persistent:false}") boolean persistent,
+            @Value("${app.ai.enhancement-cache.persistent-ttl-hours:168}") long persistentTtlHours
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.persistent = persistent;
+        this.persistentTtl = Duration.ofHours(persistentTtlHours);
+    }
+
+    public String key(String text, TextEnhancementAction action, String modelVersion) {
+        return sha256(normalize(text)) + ":" + action.name() + ":" + modelVersion;
+    }
+
+    public Optional<String> get(String key) {
+        String cached = local.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        if (persistent) {
+            try {
+                Optional<String> stored = jdbcTemplate.queryForList(SELECT_SQL, String.class, key).stream().findFirst();
+                if (stored.isPresent()) {
+                    dbHits.incrementAndGet();
+                    local.put(key, stored.get());
+                    return stored;
+                }
+            } catch (Exception e) {
+                log.warn("AI enhancement cache lookup failed: error={}", e.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, TextEnhancementAction action, String modelVersion, String enhancedText) {
+        local.put(key, enhancedText);
+
+        if (persistent) {
+            try {
+                jdbcTemplate.update(UPSERT_SQL, key, action.name(), modelVersion, enhancedText,
+                        Timestamp.from(Instant.now().plus(persistentTtl)));
+            } catch (Exception e) {
+                log.warn("AI enhancement cache store failed: error={}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.enhancement-cache.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            int deleted = jdbcTemplate.update(PURGE_SQL);
+            if (deleted > 0) {
+                log.debug("AI enhancement cache purged: deleted={}", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("AI enhancement cache purge failed: error={}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, "ai_text_enhancements");
+
+        bindCounter(registry, "hit_memory", memoryHits);
+        bindCounter(registry, "hit_db", dbHits);
+        bindCounter(registry, "miss", misses);
+
+        Gauge.builder("oh.course.ai.enhancement.cache.hit_ratio", this, AiEnhancementCache::hitRatio)
+                .description("Доля запросов улучшения текста, обслуженных из кэша (оба уровня)")
+                .register(registry);
+    }
+
+    private static void bindCounter(MeterRegistry registry, String result, AtomicLong value) {
+        FunctionCounter.builder("oh.course.ai.enhancement.cache", value, AtomicLong::doubleValue)
+                .description("Обращения к кэшу улучшений текста")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    double hitRatio() {
+        long hits = memoryHits.get() + dbHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    // NFC + единые переводы строк + trim: визуально одинаковый текст даёт один ключ
+    static String normalize(String text) {
+        String nfc = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFC);
+        return nfc.replace("\r\n", "\n").replace('\r', '\n').strip();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.offer.hunt.oh_course.ai;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatusCode;
+import ru.offer.hunt.oh_course.model.dto.AiJobDto;
+import ru.offer.hunt.oh_course.model.enums.AiJobStatus;
+import ru.offer.hunt.oh_course.model.enums.AiJobType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Состояние одной AI-задачи в памяти. Переходы синхронизированы: в терминальный статус
+ * задача попадает ровно один раз (успех, ошибка, таймаут или отмена - кто первый).
+ */
+public class AiJob {
+
+    @Getter
+    private final UUID id;
+    @Getter
+    private final AiJobType type;
+    @Getter
+    private final UUID ownerId;
+    @Getter
+    private final String provider;
+    private final OffsetDateTime createdAt;
+
+    // завершается при переходе в терминальный статус; на нём ждут await и long-poll
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private AiJobStatus status = AiJobStatus.PENDING;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private Object result;
+    private HttpStatusCode errorStatus;
+    private String errorMessage;
+    private Future<?> worker;
+    // prepare() пройден: поток можно прерывать, он больше не работает с БД
+    private boolean calling;
+
+    AiJob(UUID id, AiJobType type, UUID ownerId, String provider) {
+        this.id = id;
+        this.type = type;
+        this.ownerId = ownerId;
+        this.provider = provider;
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    public synchronized AiJobStatus getStatus() {
+        return status;
+    }
+
+    public synchronized Object getResult() {
+        return result;
+    }
+
+    public synchronized HttpStatusCode getErrorStatus() {
+        return errorStatus;
+    }
+
+    public synchronized String getErrorMessage() {
+        return errorMessage;
+    }
+
+    synchronized OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    synchronized void attach(Future<?> worker) {
+        this.worker = worker;
+    }
+
+    synchronized boolean start() {
+        if (status != AiJobStatus.PENDING) return false;
+        status = AiJobStatus.RUNNING;
+        startedAt = OffsetDateTime.now();
+        return true;
+    }
+
+    /**
+     * Переход к вызову модели; false - задачу уже отменили или она истекла, пока шёл prepare().
+     */
+    synchronized boolean markCalling() {
+        if (status.isTerminal()) return false;
+        calling = true;
+        return true;
+    }
+
+    boolean succeed(Object value) {
+        return finish(AiJobStatus.SUCCEEDED, value, null, null);
+    }
+
+    boolean fail(AiJobStatus terminal, HttpStatusCode status, String message) {
+        return finish(terminal, null, status, message);
+    }
+
+    /**
+     * Прерывает поток выполнения (ожидание семафора или вызов модели). Вызывается после fail(...).
+     * Во время prepare() не прерывает: прерывание виртуального потока в сокетном I/O закрывает соединение с БД.
+     */
+    void interruptWorker() {
+        Future<?> w;
+        synchronized (this) {
+            w = calling ? worker : null;
+        }
+        if (w != null) {
+            w.cancel(true);
+        }
+    }
+
+    private boolean finish(AiJobStatus terminal, Object value, HttpStatusCode errStatus, String errMessage) {
+        synchronized (this) {
+            if (status.isTerminal()) return false;
+            status = terminal;
+            finishedAt = OffsetDateTime.now();
+            result = value;
+            errorStatus = errStatus;
+            errorMessage = errMessage;
+        }
+        completion.complete(null);
+        return true;
+    }
+
+    public synchronized AiJobDto toDto() {
+        return new AiJobDto(
+                id,
+                type,
+                status,
+                createdAt,
+                startedAt,
+                finishedAt,
+                result,
+                errorStatus == null ? null : errorStatus.value(),
+                errorMessage);
+    }
+}
@@ -0,0 +1,240 @@
+package ru.offer.hunt.oh_course.ai;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.model.enums.AiJobStatus;
+import ru.offer.hunt.oh_course.model.enums.AiJobType;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Исполнитель AI-задач: каждая задача - отдельный виртуальный поток.
+ * prepare() идёт в короткой read-only транзакции, вызов модели - вне её, так что медленный
+ * AI-бэкенд держит только виртуальные потоки и permit своего провайдера, но не соединения Hikari.
+ * Одновременных вызовов на провайдера не больше max-concurrent-per-provider, остальные ждут permit.
+ * Таймаут считается от конца prepare() (ожидание permit + вызов) и прерывает поток.
+ * Шаг после успеха (AiJobTask.withCompletion) идёт уже после перехода в SUCCEEDED и не прерывается.
+ * Незавершённых задач не больше max-active: слот резервируется до постановки в очередь
+ * и освобождается при переходе задачи в терминальный статус.
+ * Задачи живут в памяти инстанса и удаляются через retention после завершения.
+ */
+@Component
+@Slf4j
+public class AiJobRunner {
+
+    static final String UNAVAILABLE_MESSAGE = "AI-ассистент временно недоступен. Пожалуйста, попробуйте позже";
+
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService timer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("ai-job-timeout").factory());
+
+    private final Map<UUID, AiJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Semaphore activeSlots;
+
+    private final int maxConcurrentPerProvider;
+    private final Map<AiJobType, Duration> timeouts;
+    private final Duration maxWait;
+    private final Duration retention;
+
+    public AiJobRunner(
+            PlatformTransactionManager transactionManager,
+            @Value("${app.ai.jobs.max-concurrent-per-provider:4}") int maxConcurrentPerProvider,
+            @Value("${app.ai.jobs.max-active:200}") int maxActive,
+            @Value("${app.ai.jobs.timeout-ms.enhance-text:30000}") long enhanceTextTimeoutMs,
+            @Value("${app.ai.jobs.timeout-ms.generate-test:60000}") long generateTestTimeoutMs,
+            @Value("${app.ai.jobs.timeout-ms.generate-code-task:60000}") long generateCodeTaskTimeoutMs,
+            @Value("${app.ai.jobs.max-wait-ms:25000}") long maxWaitMs,
+            @Value("${app.ai.jobs.retention-minutes:30}") long retentionMinutes
+    ) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxConcurrentPerProvider = maxConcurrentPerProvider;
+        this.activeSlots = new Semaphore(maxActive);
+        this.timeouts = Map.of(
+                AiJobType.ENHANCE_TEXT, Duration.ofMillis(enhanceTextTimeoutMs),
+                AiJobType.GENERATE_TEST, Duration.ofMillis(generateTestTimeoutMs),
+                AiJobType.GENERATE_CODE_TASK, Duration.ofMillis(generateCodeTaskTimeoutMs));
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public <T> AiJob submit(AiJobType type, UUID ownerId, String provider, AiJobTask<T> task) {
+        if (!activeSlots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Слишком много запросов к AI-ассистенту. Пожалуйста, попробуйте позже");
+        }
+
+        AiJob job = new AiJob(UUID.randomUUID(), type, ownerId, provider);
+        // completion завершается ровно один раз - слот освобождается тоже один раз
+        job.completion().whenComplete((ignored, error) -> activeSlots.release());
+        jobs.put(job.getId(), job);
+        try {
+            job.attach(executor.submit(() -> run(job, task)));
+        } catch (RuntimeException e) {
+            job.fail(AiJobStatus.FAILED, HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE_MESSAGE);
+            throw e;
+        }
+
+        log.debug("AI job submitted: jobId={}, type={}, provider={}", job.getId(), type, provider);
+        return job;
+    }
+
+    /**
+     * Задача пользователя; чужая или уже удалённая - 404.
+     */
+    public AiJob get(UUID jobId, UUID userId) {
+        AiJob job = jobs.get(jobId);
+        if (job == null || !job.getOwnerId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Задача не найдена");
+        }
+        return job;
+    }
+
+    public AiJob cancel(UUID jobId, UUID userId) {
+        AiJob job = get(jobId, userId);
+        if (job.fail(AiJobStatus.CANCELLED, HttpStatus.CONFLICT, "Задача отменена")) {
+            job.interruptWorker();
+            log.info("AI job cancelled: jobId={}, type={}", jobId, job.getType());
+        }
+        return job;
+    }
+
+    /**
+     * Ограничение long-poll ожидания сверху (чтобы не упираться в таймаут async-запроса).
+     */
+    public Duration clampWait(Long waitMs) {
+        if (waitMs == null || waitMs <= 0) return Duration.ZERO;
+        Duration wait = Duration.ofMillis(waitMs);
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    /**
+     * Синхронное ожидание результата: как будто вызов модели шёл прямо в запросе.
+     * Ошибки задачи пробрасываются тем же ResponseStatusException, что вернул бы синхронный код.
+     */
+    public <T> T await(AiJob job, Class<T> resultType) {
+        // сверху таймаута задачи - запас на prepare() и ожидание в очереди виртуальных потоков
+        Duration bound = timeouts.get(job.getType()).plus(maxWait);
+        try {
+            job.completion().get(bound.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelQuietly(job);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE_MESSAGE);
+        } catch (TimeoutException e) {
+            expire(job);
+        } catch (ExecutionException e) {
+            // completion завершается только нормально
+            throw new IllegalStateException(e);
+        }
+
+        if (job.getStatus() == AiJobStatus.SUCCEEDED) {
+            return resultType.cast(job.getResult());
+        }
+        throw new ResponseStatusException(job.getErrorStatus(), job.getErrorMessage());
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.jobs.cleanup-interval-ms:60000}")
+    public void purgeFinished() {
+        OffsetDateTime threshold = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            OffsetDateTime finishedAt = job.getFinishedAt();
+            return finishedAt != null && finishedAt.isBefore(threshold);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private <T> void run(AiJob job, AiJobTask<T> task) {
+        if (!job.start()) return; // отменена до старта
+
+        ScheduledFuture<?> watchdog = null;
+        try {
+            Callable<T> call = readOnlyTx.execute(status -> task.prepare());
+            if (call instanceof AiJobTask.Ready<T> ready) {
+                job.succeed(ready.value());
+                return;
+            }
+            if (!job.markCalling()) return;
+
+            watchdog = timer.schedule(() -> expire(job), timeouts.get(job.getType()).toMillis(), TimeUnit.MILLISECONDS);
+
+            Semaphore semaphore = permits.computeIfAbsent(job.getProvider(),
+                    p -> new Semaphore(maxConcurrentPerProvider, true));
+            T result;
+            semaphore.acquire();
+            try {
+                result = call.call();
+            } finally {
+                semaphore.release();
+            }
+
+            // после succeed() fail() возвращает false, и поток уже никто не прерывает
+            if (job.succeed(result) && call instanceof AiJobTask.WithCompletion<T> completion) {
+                complete(job, completion, result);
+            }
+        } catch (InterruptedException e) {
+            // таймаут или отмена: статус уже выставил тот, кто прервал
+            Thread.currentThread().interrupt();
+        } catch (ResponseStatusException e) {
+            job.fail(AiJobStatus.FAILED, e.getStatusCode(), e.getReason());
+        } catch (Exception e) {
+            if (!job.getStatus().isTerminal()) {
+                log.warn("AI job failed: jobId={}, type={}, error={}", job.getId(), job.getType(), e.getMessage());
+            }
+            job.fail(AiJobStatus.FAILED, HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE_MESSAGE);
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+
+    private <T> void complete(AiJob job, AiJobTask.WithCompletion<T> completion, T result) {
+        try {
+            completion.onSuccess().accept(result);
+        } catch (Exception e) {
+            log.warn("AI job completion step failed: jobId={}, type={}, error={}",
+                    job.getId(), job.getType(), e.getMessage());
+        }
+    }
+
+    private void expire(AiJob job) {
+        if (job.fail(AiJobStatus.TIMED_OUT, HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE_MESSAGE)) {
+            job.interruptWorker();
+            log.warn("AI job timed out: jobId={}, type={}, provider={}", job.getId(), job.getType(), job.getProvider());
+        }
+    }
+
+    private void cancelQuietly(AiJob job) {
+        if (job.fail(AiJobStatus.CANCELLED, HttpStatus.CONFLICT, "Задача отменена")) {
+            job.interruptWorker();
+        }
+    }
+}
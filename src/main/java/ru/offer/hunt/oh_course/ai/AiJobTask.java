@@ -0,0 +1,47 @@
+package ru.offer.hunt.oh_course.ai;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Задача AI в два этапа: prepare() - проверки и сбор входных данных в read-only транзакции,
+ * возвращённый Callable - сам вызов модели, уже без транзакции и соединения с БД.
+ * Callable не должен трогать JPA-сущности и вообще БД: его поток прерывают таймаут и отмена.
+ * Запись результата (например, в кэш) - через withCompletion, после перехода задачи в SUCCEEDED.
+ */
+@FunctionalInterface
+public interface AiJobTask<T> {
+
+    Callable<T> prepare();
+
+    /**
+     * Результат уже известен на этапе prepare() (например, из кэша): модель не вызывается,
+     * permit провайдера не занимается.
+     */
+    static <T> Callable<T> ready(T value) {
+        return new Ready<>(value);
+    }
+
+    record Ready<T>(T value) implements Callable<T> {
+        @Override
+        public T call() {
+            return value;
+        }
+    }
+
+    /**
+     * Вызов модели плюс шаг после успеха. onSuccess выполняется, когда задача уже SUCCEEDED:
+     * таймаут и отмена поток больше не прерывают, так что здесь можно работать с БД.
+     * Ошибка onSuccess на результат задачи не влияет.
+     */
+    static <T> Callable<T> withCompletion(Callable<T> model, Consumer<? super T> onSuccess) {
+        return new WithCompletion<>(model, onSuccess);
+    }
+
+    record WithCompletion<T>(Callable<T> model, Consumer<? super T> onSuccess) implements Callable<T> {
+        @Override
+        public T call() throws Exception {
+            return model.call();
+        }
+    }
+}
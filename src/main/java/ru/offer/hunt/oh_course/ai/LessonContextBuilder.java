@@ -0,0 +1,230 @@
+package ru.offer.hunt.oh_course.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
+import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository.ContentVersion;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Контекст урока для AI-генерации из методических (THEORY) страниц.
+ * Версии страниц - один запрос без markdown; тексты изменённых страниц - один IN-запрос.
+ * Нормализованный и нарезанный на фрагменты текст страницы кэшируется по (pageId, updated_at).
+ * Итог ограничен бюджетом (символы и оценка токенов): если всё не влезает, фрагменты отбираются
+ * по совпадению с темой (без темы - сначала начала страниц) и склеиваются в исходном порядке.
+ */
+@Component
+@Slf4j
+public class LessonContextBuilder implements MeterBinder {
+
+    private static final Pattern IMAGE = Pattern.compile("!\\[[^\\]]*]\\([^)]*\\)");
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]*)]\\([^)]*\\)");
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    private static final Pattern INLINE_SPACES = Pattern.compile("[ \\t\\x0B\\f]+");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern WORD_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final String SEPARATOR = "\n\n";
+
+    private record PageChunks(OffsetDateTime updatedAt, List<String> chunks) {}
+
+    private record Candidate(int order, int indexInPage, String text, double score) {}
+
+    private final MethodicalPageContentRepository methodicalPageContentRepository;
+    private final Cache<UUID, PageChunks> pages;
+    private final int chunkChars;
+    private final int budgetChars;
+
+    public LessonContextBuilder(
+            MethodicalPageContentRepository methodicalPageContentRepository,
+            @Value("${app.ai.context.max-chars:24000}") int maxChars,
+            @Value("${app.ai.context.max-tokens:6000}") int maxTokens,
+            @Value("${app.ai.context.chars-per-token:4}") int charsPerToken,
+            @Value("${app.ai.context.chunk-chars:1200}") int chunkChars,
+            @Value("${app.ai.context.cache-max-chars:20000000}") long cacheMaxChars
+    ) {
+        this.methodicalPageContentRepository = methodicalPageContentRepository;
+        this.chunkChars = chunkChars;
+        this.budgetChars = Math.min(maxChars, maxTokens * charsPerToken);
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxChars)
+                .weigher((UUID id, PageChunks p) -> p.chunks().stream().mapToInt(String::length).sum() + 1)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param topic тема генерации для отбора фрагментов; null - без приоритета по теме
+     */
+    public String build(UUID lessonId, String topic) {
+        List<ContentVersion> versions = methodicalPageContentRepository.findTheoryContentVersions(lessonId);
+        if (versions.isEmpty()) {
+            return "";
+        }
+
+        Map<UUID, PageChunks> chunksByPage = loadChunks(versions);
+
+        Set<String> terms = terms(topic);
+        List<Candidate> candidates = new ArrayList<>();
+        int totalChars = 0;
+        for (ContentVersion version : versions) {
+            List<String> chunks = chunksByPage.get(version.getPageId()).chunks();
+            for (int i = 0; i < chunks.size(); i++) {
+                String text = chunks.get(i);
+                candidates.add(new Candidate(candidates.size(), i, text, score(text, terms)));
+                totalChars += text.length() + SEPARATOR.length();
+            }
+        }
+
+        List<Candidate> selected = totalChars <= budgetChars ? candidates : select(candidates);
+        if (selected.size() < candidates.size()) {
+            log.debug("AI lesson context trimmed: lessonId={}, chunks={}/{}, budgetChars={}",
+                    lessonId, selected.size(), candidates.size(), budgetChars);
+        }
+
+        return selected.stream()
+                .map(Candidate::text)
+                .collect(Collectors.joining(SEPARATOR))
+                .trim();
+    }
+
+    private Map<UUID, PageChunks> loadChunks(List<ContentVersion> versions) {
+        Map<UUID, PageChunks> result = new HashMap<>();
+        List<UUID> stale = new ArrayList<>();
+
+        for (ContentVersion version : versions) {
+            PageChunks cached = pages.getIfPresent(version.getPageId());
+            if (cached != null && cached.updatedAt().isEqual(version.getUpdatedAt())) {
+                result.put(version.getPageId(), cached);
+            } else {
+                stale.add(version.getPageId());
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            Map<UUID, ContentVersion> versionById = versions.stream()
+                    .collect(toMap(ContentVersion::getPageId, v -> v));
+            for (MethodicalPageContent content : methodicalPageContentRepository.findAllById(stale)) {
+                // updated_at из того же чтения, что и markdown: ключ кэша соответствует тексту
+                PageChunks chunks = new PageChunks(content.getUpdatedAt(), chunk(normalize(content.getMarkdown())));
+                pages.put(content.getPageId(), chunks);
+                result.put(content.getPageId(), chunks);
+            }
+            // страница исчезла между запросами - просто без неё
+            stale.stream()
+                    .filter(id -> !result.containsKey(id))
+                    .forEach(id -> result.put(id, new PageChunks(versionById.get(id).getUpdatedAt(), List.of())));
+        }
+
+        return result;
+    }
+
+    // лучшие по score (при равенстве - ближе к началу страницы, затем раньше в уроке), пока влезают; порядок исходный
+    private List<Candidate> select(List<Candidate> candidates) {
+        List<Candidate> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparingInt(Candidate::indexInPage)
+                .thenComparingInt(Candidate::order));
+
+        List<Candidate> selected = new ArrayList<>();
+        int used = 0;
+        for (Candidate candidate : ranked) {
+            int size = candidate.text().length() + SEPARATOR.length();
+            if (used + size > budgetChars) continue;
+            selected.add(candidate);
+            used += size;
+        }
+
+        selected.sort(Comparator.comparingInt(Candidate::order));
+        return selected;
+    }
+
+    static String normalize(String markdown) {
+        if (markdown == null) {
+            return "";
+        }
+        String text = markdown.replace("\r\n", "\n").replace('\r', '\n');
+        text = IMAGE.matcher(text).replaceAll("");
+        text = LINK.matcher(text).replaceAll("$1");
+        text = HTML_TAG.matcher(text).replaceAll("");
+        text = INLINE_SPACES.matcher(text).replaceAll(" ");
+        text = BLANK_LINES.matcher(text).replaceAll("\n\n");
+        return text.strip();
+    }
+
+    // абзацы собираются во фрагменты до chunkChars; слишком длинный абзац режется по пробелам
+    List<String> chunk(String text) {
+        List<String> chunks = new ArrayList<>();
+        if (text.isEmpty()) {
+            return chunks;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : PARAGRAPH_BREAK.split(text)) {
+            String p = paragraph.strip();
+            if (p.isEmpty()) continue;
+
+            if (!current.isEmpty() && current.length() + SEPARATOR.length() + p.length() > chunkChars) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            while (p.length() > chunkChars) {
+                int cut = p.lastIndexOf(' ', chunkChars);
+                if (cut <= 0) cut = chunkChars;
+                chunks.add(p.substring(0, cut).strip());
+                p = p.substring(cut).strip();
+            }
+            if (!current.isEmpty()) current.append(SEPARATOR);
+            current.append(p);
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    private static Set<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        return WORD_SPLIT.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(t -> t.length() >= MIN_TERM_LENGTH)
+                .collect(Collectors.toSet());
+    }
+
+    // доля слов темы, встретившихся во фрагменте
+    private static double score(String chunk, Set<String> terms) {
+        if (terms.isEmpty()) {
+            return 0;
+        }
+        Set<String> words = terms(chunk);
+        long hits = terms.stream().filter(words::contains).count();
+        return (double) hits / terms.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, "ai_lesson_context_pages");
+    }
+}
@@ -0,0 +1,21 @@
+package ru.offer.hunt.oh_course.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.offer.hunt.oh_course.metrics.StatementCountingInspector;
+
+/**
+ * Метрики поверх автоконфигурации actuator: пул Hikari, статистика Hibernate (hibernate-micrometer)
+ * и тайминги репозиториев (spring.data.repository.invocations) Spring Boot подключает сам.
+ * Здесь - только счётчик SQL на запрос (см. RequestStatementMetricsFilter).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer statementCountingInspector() {
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+}
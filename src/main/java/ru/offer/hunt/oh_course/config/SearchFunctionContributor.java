@@ -0,0 +1,41 @@
+package ru.offer.hunt.oh_course.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Postgres-функции для criteria каталога (CourseCatalogSpecification): полнотекстовый поиск и фильтр по тегам.
+ * Операторы @@ и && нельзя вызвать как обычную функцию без потери GIN-индекса, поэтому они рендерятся шаблоном.
+ * Каждый аргумент входит в шаблон ровно один раз: поисковая строка передаётся отдельными параметрами.
+ * Регистрируется через META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        // (document, title, query, query, prefixPattern)
+        registry.registerPattern(
+                "course_search_match",
+                "(?1 @@ websearch_to_tsquery('russian', ?3) or ?4 <% ?2 or ?2 ilike ?5)",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+
+        // (document, title, query, query) - то же выражение, что в CourseSearchDocumentRepository.findSearchHits.
+        // real округляется до numeric: курсор сравнивает ранг на равенство, а real -> float8 точного сравнения не даёт
+        registry.registerPattern(
+                "course_search_rank",
+                "round((ts_rank_cd(?1, websearch_to_tsquery('russian', ?3)) + word_similarity(?4, ?2))::numeric, 6)",
+                types.resolve(StandardBasicTypes.BIG_DECIMAL));
+
+        // (tag_keys, ключи через chr(31)) - массив параметром не передать переносимо, поэтому строкой
+        registry.registerPattern(
+                "catalog_tags_overlap",
+                "(?1 && string_to_array(?2, chr(31)))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
@@ -51,6 +51,9 @@ public class SecurityConfig {
                                         // actuator
                                         .requestMatchers("/actuator/health", "/actuator/info")
                                         .permitAll()
+                                        // метрики - только скрейперу с токеном metrics.read
+                                        .requestMatchers("/actuator/prometheus")
+                                        .hasAuthority("SCOPE_metrics.read")
                                         // swagger
                                         .requestMatchers(
                                                 "/v3/api-docs/**",
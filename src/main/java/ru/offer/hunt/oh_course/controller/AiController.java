@@ -1,6 +1,7 @@
 package ru.offer.hunt.oh_course.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import ru.offer.hunt.oh_course.model.dto.AiJobDto;
 import ru.offer.hunt.oh_course.model.dto.CodeTaskGenerationRequest;
 import ru.offer.hunt.oh_course.model.dto.CodeTaskGenerationResponse;
 import ru.offer.hunt.oh_course.model.dto.TestGenerationRequest;
@@ -18,6 +20,7 @@ import ru.offer.hunt.oh_course.security.SecurityUtils;
 import ru.offer.hunt.oh_course.service.AiService;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -83,5 +86,93 @@ public class AiController {
                 lessonId, userId, request.getLanguage());
         return aiService.generateCodeTask(lessonId, userId, request);
     }
-}
 
+    @Operation(
+            summary = "Асинхронное улучшение текста урока",
+            description = """
+                    То же, что POST /pages/{pageId}/ai/enhance-text, но сразу возвращает задачу (202). \
+                    Результат - через GET /ai/jobs/{jobId}."""
+    )
+    @PostMapping("/pages/{pageId}/ai/enhance-text/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public AiJobDto submitEnhanceText(
+            @PathVariable UUID pageId,
+            @Valid @RequestBody TextEnhancementRequest request,
+            JwtAuthenticationToken authentication
+    ) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        log.debug("AI text enhancement job request: pageId={}, userId={}, action={}", pageId, userId, request.getAction());
+        return aiService.submitEnhanceText(pageId, userId, request);
+    }
+
+    @Operation(
+            summary = "Асинхронная генерация тестовых вопросов",
+            description = """
+                    То же, что POST /lessons/{lessonId}/ai/generate-test, но сразу возвращает задачу (202). \
+                    Результат - через GET /ai/jobs/{jobId}."""
+    )
+    @PostMapping("/lessons/{lessonId}/ai/generate-test/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public AiJobDto submitGenerateTestQuestions(
+            @PathVariable UUID lessonId,
+            @Valid @RequestBody TestGenerationRequest request,
+            JwtAuthenticationToken authentication
+    ) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        log.debug("AI test generation job request: lessonId={}, userId={}, questionCount={}",
+                lessonId, userId, request.getQuestionCount());
+        return aiService.submitGenerateTestQuestions(lessonId, userId, request);
+    }
+
+    @Operation(
+            summary = "Асинхронная генерация кодового задания",
+            description = """
+                    То же, что POST /lessons/{lessonId}/ai/generate-code-task, но сразу возвращает задачу (202). \
+                    Результат - через GET /ai/jobs/{jobId}."""
+    )
+    @PostMapping("/lessons/{lessonId}/ai/generate-code-task/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public AiJobDto submitGenerateCodeTask(
+            @PathVariable UUID lessonId,
+            @Valid @RequestBody CodeTaskGenerationRequest request,
+            JwtAuthenticationToken authentication
+    ) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        log.debug("AI code task generation job request: lessonId={}, userId={}, language={}",
+                lessonId, userId, request.getLanguage());
+        return aiService.submitGenerateCodeTask(lessonId, userId, request);
+    }
+
+    @Operation(
+            summary = "Состояние AI-задачи",
+            description = """
+                    Возвращает статус задачи и, после SUCCEEDED, результат. \
+                    С waitMs работает как long-poll: ответ приходит при завершении задачи, но не позже waitMs \
+                    (ограничено настройкой app.ai.jobs.max-wait-ms). \
+                    Ошибки задачи - в errorStatus/errorMessage, с теми же кодами, что у синхронных эндпоинтов."""
+    )
+    @GetMapping("/ai/jobs/{jobId}")
+    public CompletableFuture<AiJobDto> getJob(
+            @PathVariable UUID jobId,
+            @Parameter(description = "Сколько ждать завершения, мс (long-poll)")
+            @RequestParam(value = "waitMs", required = false) Long waitMs,
+            JwtAuthenticationToken authentication
+    ) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        return aiService.getJob(jobId, userId, waitMs);
+    }
+
+    @Operation(
+            summary = "Отмена AI-задачи",
+            description = "Прерывает ожидание и вызов модели. Завершённую задачу не меняет."
+    )
+    @DeleteMapping("/ai/jobs/{jobId}")
+    public AiJobDto cancelJob(
+            @PathVariable UUID jobId,
+            JwtAuthenticationToken authentication
+    ) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        log.debug("AI job cancel request: jobId={}, userId={}", jobId, userId);
+        return aiService.cancelJob(jobId, userId);
+    }
+}
@@ -13,10 +13,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.offer.hunt.oh_course.model.dto.*;
 import ru.offer.hunt.oh_course.security.SecurityUtils;
 import ru.offer.hunt.oh_course.service.CourseContentService;
+import ru.offer.hunt.oh_course.service.CourseEtagService;
 import ru.offer.hunt.oh_course.service.LessonService;
+import ru.offer.hunt.oh_course.service.PublishedCourseCache;
 
 @RestController
 @RequiredArgsConstructor
@@ -27,21 +30,28 @@ public class CourseContentController {
 
     private final CourseContentService courseContentService;
     private final LessonService lessonService;
+    private final CourseEtagService courseEtagService;
 
     @Operation(
             summary = "Получить структуру курса (outline) для публичной части",
             description = """
                     возвращает список уроков опубликованного курса \
-                    с пометкой demo/locked. Для курсов PRIVATE_LINK требуется корректный inviteCode."""
+                    с пометкой demo/locked. Для курсов PRIVATE_LINK требуется корректный inviteCode. \
+                    Поддерживает ETag/If-None-Match."""
     )
     @GetMapping("/courses/{slug}/outline")
     public CourseOutlineDto getCourseOutline(
             @PathVariable String slug,
             @Parameter(description = "Invite code для PRIVATE_LINK курсов")
-            @RequestParam(value = "inviteCode", required = false) String inviteCode
+            @RequestParam(value = "inviteCode", required = false) String inviteCode,
+            WebRequest webRequest
     ) {
         log.debug("Get course outline: slug={}", slug);
-        return courseContentService.getCourseOutline(slug, inviteCode);
+        PublishedCourseCache.CachedOutline outline = courseContentService.getCourseOutline(slug, inviteCode);
+        if (webRequest.checkNotModified(courseEtagService.outlineEtag(outline))) {
+            return null;
+        }
+        return outline.outline();
     }
     @Operation(
             summary = "Получить список страниц демо-урока",
@@ -63,15 +73,21 @@ public class CourseContentController {
             description = """
                     Сценарий демо-страницы курса: \
                     возвращает теоретический контент или вопросы без правильных ответов, \
-                    только в режиме read-only, плюс CTA на запись на курс."""
+                    только в режиме read-only, плюс CTA на запись на курс. Поддерживает ETag/If-None-Match. \
+                    Один запрос к БД на просмотр; содержимое кэшируется по ревизии контента курса."""
     )
     @GetMapping("/pages/{pageId}/view")
     public PageViewDto getDemoPageView(
             @PathVariable UUID pageId,
-            @RequestParam(value = "inviteCode", required = false) String inviteCode
+            @RequestParam(value = "inviteCode", required = false) String inviteCode,
+            WebRequest webRequest
     ) {
         log.debug("Get demo page view: pageId={}", pageId);
-        return courseContentService.getDemoPageView(pageId, inviteCode);
+        CourseContentService.DemoPage page = courseContentService.resolveDemoPage(pageId, inviteCode);
+        if (webRequest.checkNotModified(courseEtagService.demoPageEtag(page))) {
+            return null;
+        }
+        return courseContentService.getDemoPageView(page);
     }
 
     @Operation(
@@ -10,17 +10,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.offer.hunt.oh_course.model.dto.AddTagsRequest;
+import ru.offer.hunt.oh_course.model.dto.CourseCatalogPageDto;
 import ru.offer.hunt.oh_course.model.dto.CourseDto;
 import ru.offer.hunt.oh_course.model.dto.CoursePreviewDto;
 import ru.offer.hunt.oh_course.model.dto.CourseStatsDto;
 import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
 import ru.offer.hunt.oh_course.model.dto.CourseUpsertRequest;
+import ru.offer.hunt.oh_course.model.enums.CatalogSort;
 import ru.offer.hunt.oh_course.model.enums.CourseStatus;
 import ru.offer.hunt.oh_course.model.search.CourseFilter;
 import ru.offer.hunt.oh_course.security.SecurityUtils;
+import ru.offer.hunt.oh_course.service.CourseEtagService;
 import ru.offer.hunt.oh_course.service.CourseService;
+import ru.offer.hunt.oh_course.service.CourseStructureFields;
 import ru.offer.hunt.oh_course.service.CourseStructureService;
+import ru.offer.hunt.oh_course.service.PublishedCourseCache;
 
 import java.util.List;
 import java.util.UUID;
@@ -34,15 +40,20 @@ import java.util.UUID;
 public class CourseController {
     private final CourseService courseService;
     private final CourseStructureService courseStructureService;
+    private final CourseEtagService courseEtagService;
 
     @Operation(
             summary = "Получить список опубликованных курсов",
             description = """
-                    возвращает список курсов в статусе PUBLISHED \
-                    с поддержкой фильтров по языку, технологиям, уровню, длительности и поисковой строке."""
+                    возвращает страницу курсов в статусе PUBLISHED \
+                    с поддержкой фильтров по языку, технологиям, уровню, длительности и поисковой строке. \
+                    Пагинация keyset: для следующей страницы передайте nextPageToken из ответа в pageToken. \
+                    При поиске курсы дополнительно содержат searchRank, titleHighlight и snippet. \
+                    titleHighlight и snippet - HTML: текст экранирован, совпадения в <b>...</b>. \
+                    Читается из проекции каталога: вместо списка уроков в карточке lessonsCount и lessonsDurationMin."""
     )
     @GetMapping
-    public List<CourseDto> getPublishedCourses(
+    public CourseCatalogPageDto getPublishedCourses(
             @Parameter(description = "Язык программирования")
             @RequestParam(value = "language", required = false) List<String> language,
             @Parameter(description = "Технологии (теги)")
@@ -51,29 +62,41 @@ public class CourseController {
             @RequestParam(value = "level", required = false) List<String> level,
             @Parameter(description = "Длительность в часах (с допуском)")
             @RequestParam(value = "duration", required = false) List<Integer> duration,
-            @Parameter(description = "Поисковый запрос по названию/описанию/тегам")
+            @Parameter(description = "Полнотекстовый поиск по названию/тегам/описанию (с нечётким совпадением по названию)")
             @RequestParam(value = "query", required = false) String query,
             @Parameter(description = "Фильтрация по authorId (опционально)")
-            @RequestParam(value = "authorId", required = false) UUID authorId
+            @RequestParam(value = "authorId", required = false) UUID authorId,
+            @Parameter(description = "Сортировка: PUBLISHED_AT (по умолчанию), RATING или RELEVANCE (по умолчанию при query)")
+            @RequestParam(value = "sort", required = false) CatalogSort sort,
+            @Parameter(description = "Размер страницы (ограничен сверху настройкой app.catalog.max-page-size)")
+            @RequestParam(value = "size", required = false) Integer size,
+            @Parameter(description = "Токен следующей страницы из предыдущего ответа")
+            @RequestParam(value = "pageToken", required = false) String pageToken
     ) {
-        log.debug("Get courses request");
+        log.debug("Get courses request: sort={}, size={}", sort, size);
         CourseFilter filter = new CourseFilter(authorId, language, technologies, level, duration, query);
-        return courseService.getPublishedCourses(filter);
+        return courseService.getPublishedCourses(filter, sort, size, pageToken);
     }
 
     @Operation(
             summary = "Получить опубликованный курс по slug",
             description = """
                     возвращает полное описание опубликованного курса по его slug. \
-                    Для курсов с типом доступа PRIVATE_LINK необходимо передать корректный inviteCode."""
+                    Для курсов с типом доступа PRIVATE_LINK необходимо передать корректный inviteCode. \
+                    Поддерживает ETag/If-None-Match (тег соответствует отдаваемой версии карточки)."""
     )
     @GetMapping("/{slug}")
     public CourseDto getPublishedCourseBySlug(
             @PathVariable String slug,
-            @RequestParam(value = "inviteCode", required = false) String inviteCode
+            @RequestParam(value = "inviteCode", required = false) String inviteCode,
+            WebRequest webRequest
     ) {
         log.debug("Get course by slug request: slug='{}'", slug);
-        return courseService.getPublishedCourseBySlug(slug, inviteCode);
+        PublishedCourseCache.CachedCourse course = courseService.getPublishedCourseBySlug(slug, inviteCode);
+        if (webRequest.checkNotModified(courseEtagService.courseEtag(course))) {
+            return null;
+        }
+        return course.course();
     }
 
     @Operation(
@@ -117,17 +140,18 @@ public class CourseController {
             summary = "Получить несколько курсов по списку идентификаторов",
             description = """
                     Вспомогательный эндпоинт для других сервисов (например, Learning) и фронта. \
-                    По списку id курсов возвращает их полное представление CourseDto."""
+                    По списку id курсов возвращает их структуру CourseStructureDto в порядке запроса. \
+                    Несуществующие id пропускаются, размер батча ограничен настройкой app.courses.batch-max-size. \
+                    Параметр fields - проекция, как у /api/v1/courses/{courseId}/structure."""
     )
     @GetMapping("/batch")
     public List<CourseStructureDto> getCoursesBatch(
-            @RequestParam("ids") List<UUID> ids
+            @RequestParam("ids") List<UUID> ids,
+            @RequestParam(value = "fields", required = false) List<String> fields
     ) {
-        log.debug("Get courses batch: ids={}", ids);
+        log.debug("Get courses batch: size={}", ids.size());
 
-        return ids.stream()
-                .map(courseStructureService::getCourseStructure)
-                .toList();
+        return courseStructureService.getCourseStructures(ids, CourseStructureFields.parse(fields));
     }
 
     @Operation(
@@ -150,14 +174,20 @@ public class CourseController {
             summary = "Получить детали курса по id",
             description = """
                     Внутренний/служебный эндпоинт: возвращает CourseDto по идентификатору курса. \
-                    Удобен для интеграций других сервисов и сценариев, где известен только courseId."""
+                    Удобен для интеграций других сервисов и сценариев, где известен только courseId. \
+                    Поддерживает ETag/If-None-Match."""
     )
     @GetMapping("/{courseId}/details")
     public CourseDto getCourseDetails(
-            @PathVariable UUID courseId
+            @PathVariable UUID courseId,
+            WebRequest webRequest
     ) {
         log.debug("Get course details by id: {}", courseId);
-        return courseService.getCourseDetails(courseId);
+        PublishedCourseCache.CachedCourse course = courseService.getCourseDetails(courseId);
+        if (webRequest.checkNotModified(courseEtagService.courseEtag(course))) {
+            return null;
+        }
+        return course.course();
     }
 
     @Operation(
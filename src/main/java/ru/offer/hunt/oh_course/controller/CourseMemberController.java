@@ -9,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportRequest;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportResult;
 import ru.offer.hunt.oh_course.model.dto.CourseMemberDto;
 import ru.offer.hunt.oh_course.model.dto.CourseMemberUpsertRequest;
 import ru.offer.hunt.oh_course.security.SecurityUtils;
@@ -39,4 +41,21 @@ public class CourseMemberController {
         UUID currentUserId = SecurityUtils.getUserId(authentication);
         return courseMemberService.addCollaborator(courseId, currentUserId, request);
     }
+
+    @Operation(
+            summary = "Пакетно добавить соавторов к курсу",
+            description = """
+                    Добавляет до app.members.import-max-size пользователей по email с указанными ролями. \
+                    Пользователи ищутся одним пакетом, уже состоящие в курсе и ненайденные возвращаются \
+                    отдельными списками и не считаются ошибкой. Инвайты отправляются асинхронно. \
+                    Требует, чтобы текущий пользователь имел роль OWNER/ADMIN в этом курсе."""
+    )
+    @PostMapping("/import")
+    public CourseMemberBulkImportResult importCollaborators(@PathVariable UUID courseId,
+                                                            @Valid @RequestBody CourseMemberBulkImportRequest request,
+                                                            JwtAuthenticationToken authentication) {
+
+        UUID currentUserId = SecurityUtils.getUserId(authentication);
+        return courseMemberService.importCollaborators(courseId, currentUserId, request);
+    }
 }
@@ -2,13 +2,22 @@ package ru.offer.hunt.oh_course.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
+import ru.offer.hunt.oh_course.service.CourseEtagService;
+import ru.offer.hunt.oh_course.service.CourseStructureExportService;
+import ru.offer.hunt.oh_course.service.CourseStructureFields;
 import ru.offer.hunt.oh_course.service.CourseStructureService;
 
 @RestController
@@ -18,10 +27,41 @@ import ru.offer.hunt.oh_course.service.CourseStructureService;
 public class CourseStructureController {
 
     private final CourseStructureService courseStructureService;
+    private final CourseStructureExportService courseStructureExportService;
+    private final CourseEtagService courseEtagService;
 
     @GetMapping("/{courseId}/structure")
-    @Operation(summary = "Получить структуру курса (уроки/страницы/вопросы)")
-    public CourseStructureDto getCourseStructure(@PathVariable UUID courseId) {
-        return courseStructureService.getCourseStructure(courseId);
+    @Operation(
+            summary = "Получить структуру курса (уроки/страницы/вопросы)",
+            description = """
+                    Поддерживает ETag/If-None-Match. Параметр fields задаёт проекцию, например \
+                    fields=lessons.pages.pageId,title - только скелет уроков и страниц: невыбранные разделы \
+                    (methodicalContent, questions, options, testCases) не читаются из БД и приходят null."""
+    )
+    public CourseStructureDto getCourseStructure(
+            @PathVariable UUID courseId,
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            WebRequest webRequest
+    ) {
+        CourseStructureFields projection = CourseStructureFields.parse(fields);
+        if (courseEtagService.structureEtag(courseId, projection).filter(webRequest::checkNotModified).isPresent()) {
+            return null;
+        }
+        return courseStructureService.getCourseStructure(courseId, projection);
+    }
+
+    @GetMapping(value = "/{courseId}/structure/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Потоковая выгрузка полной структуры курса",
+            description = """
+                    Тот же формат, что и /structure, но ответ пишется по мере чтения из БД \
+                    (уроки и страницы отдаются инкрементально), память не зависит от размера курса."""
+    )
+    public ResponseEntity<StreamingResponseBody> exportCourseStructure(@PathVariable UUID courseId) {
+        courseStructureExportService.ensureCourseExists(courseId);
+        StreamingResponseBody body = out -> courseStructureExportService.writeCourseStructure(courseId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
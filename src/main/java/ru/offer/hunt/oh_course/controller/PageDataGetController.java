@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.offer.hunt.oh_course.model.dto.LessonDataDto;
 import ru.offer.hunt.oh_course.model.dto.PageDataDto;
 import ru.offer.hunt.oh_course.security.SecurityUtils;
 import ru.offer.hunt.oh_course.service.PageDataGetService;
@@ -25,4 +26,14 @@ public class PageDataGetController {
         UUID userId = SecurityUtils.getUserId(authentication);
         return pageDataGetService.getPageDataDto(userId, pageId);
     }
+
+    /**
+     * Все страницы урока одним ответом (предзагрузка для навигации без запросов на каждую страницу).
+     * Сжимается gzip, если клиент прислал Accept-Encoding (server.compression).
+     */
+    @GetMapping("/lessons/{lessonId}")
+    public LessonDataDto getLessonData(@PathVariable("lessonId") UUID lessonId, JwtAuthenticationToken authentication) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        return pageDataGetService.getLessonDataDto(userId, lessonId);
+    }
 }
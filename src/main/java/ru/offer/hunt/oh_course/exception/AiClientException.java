@@ -0,0 +1,25 @@
+package ru.offer.hunt.oh_course.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * AI-сервис недоступен или ответил ошибкой. retryable - имеет смысл повторить (5xx, 429, сеть).
+ */
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AiClientException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public AiClientException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public AiClientException(String message, Throwable cause, boolean retryable) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.offer.hunt.oh_course.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Сервис пользователей недоступен, ответил ошибкой или не уложился в таймаут.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UserDirectoryException extends RuntimeException {
+
+    public UserDirectoryException(String message) {
+        super(message);
+    }
+
+    public UserDirectoryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.offer.hunt.oh_course.model.enums.AiJobStatus;
+import ru.offer.hunt.oh_course.model.enums.AiJobType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AiJobDto {
+    private UUID id;
+    private AiJobType type;
+    private AiJobStatus status;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+
+    // ответ AI (TextEnhancementResponse / TestGenerationResponse / CodeTaskGenerationResponse), только для SUCCEEDED
+    private Object result;
+
+    // HTTP-статус и сообщение, которые вернул бы синхронный вызов; для FAILED / TIMED_OUT / CANCELLED
+    private Integer errorStatus;
+    private String errorMessage;
+}
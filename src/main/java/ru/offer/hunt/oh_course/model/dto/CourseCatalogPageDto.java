@@ -0,0 +1,18 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCatalogPageDto {
+    private List<CourseDto> items;
+    private String nextPageToken; // null, если это последняя страница
+    private int size;
+}
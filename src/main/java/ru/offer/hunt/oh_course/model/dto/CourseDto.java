@@ -32,10 +32,21 @@ public class CourseDto {
     private OffsetDateTime archivedAt;
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
+    private Long contentRevision;
     private List<TagRefDto> tags;
     private Integer estimatedDurationHours;
     private Integer membersCount;
     private BigDecimal avgCompletion;
     private BigDecimal avgRating;
     private List<LessonDto> lessons;
+
+    // только в каталоге (там lessons не заполняется)
+    private Integer lessonsCount;
+    private Integer lessonsDurationMin;
+
+    // заполняются только в режиме поиска (query в каталоге)
+    private BigDecimal searchRank;
+    // HTML-фрагменты: текст автора экранирован, совпадения обёрнуты в <b>...</b>; других тегов нет
+    private String titleHighlight;
+    private String snippet;
 }
@@ -0,0 +1,19 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Пакетное добавление соавторов: email и роль для каждого")
+public class CourseMemberBulkImportRequest {
+
+    @NotEmpty(message = "Список участников пуст")
+    @Valid
+    private List<CourseMemberUpsertRequest> members;
+}
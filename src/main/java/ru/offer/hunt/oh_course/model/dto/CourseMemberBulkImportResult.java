@@ -0,0 +1,23 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Результат пакетного добавления соавторов")
+public class CourseMemberBulkImportResult {
+
+    @Schema(description = "Добавленные участники")
+    private List<CourseMemberDto> added = new ArrayList<>();
+
+    @Schema(description = "Email пользователей, которые уже были участниками курса")
+    private List<String> alreadyMembers = new ArrayList<>();
+
+    @Schema(description = "Email, для которых пользователь не найден")
+    private List<String> notFound = new ArrayList<>();
+}
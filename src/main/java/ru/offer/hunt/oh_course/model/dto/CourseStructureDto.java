@@ -10,6 +10,7 @@ public record CourseStructureDto(
         Integer version,
         String status,
         OffsetDateTime updatedAt,
+        Long contentRevision,
         List<LessonDto> lessons
 ) {
 
@@ -0,0 +1,17 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class LessonDataDto {
+    UUID lessonId;
+    UUID courseId;
+    List<LessonPageDataDto> pages;
+}
@@ -0,0 +1,19 @@
+package ru.offer.hunt.oh_course.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class LessonPageDataDto {
+    UUID pageId;
+    String title;
+    PageType pageType;
+    Integer sortOrder;
+    PageDataDto data;
+}
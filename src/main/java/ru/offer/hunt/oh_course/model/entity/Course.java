@@ -18,6 +18,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import ru.offer.hunt.oh_course.model.enums.AccessType;
 import ru.offer.hunt.oh_course.model.enums.CourseStatus;
 
@@ -97,6 +98,11 @@ public class Course {
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
 
+    // пишется только через CourseRevisionCounter
+    @ColumnDefault("0")
+    @Column(name = "content_revision", nullable = false, insertable = false, updatable = false)
+    private long contentRevision;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             schema = "course",
@@ -0,0 +1,124 @@
+package ru.offer.hunt.oh_course.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import ru.offer.hunt.oh_course.model.enums.AccessType;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Строка каталога: опубликованный курс с тегами, числом уроков и статистикой в одной записи.
+ * Заполняется триггерами БД (V6__course_catalog_view.sql), из приложения только читается.
+ */
+@Entity
+@Immutable
+@Table(schema = "course", name = "course_catalog_view")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CourseCatalogEntry {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "course_id", nullable = false)
+    private UUID id;
+
+    @Column(name = "author_id", nullable = false)
+    private UUID authorId;
+
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "slug", nullable = false, length = 255)
+    private String slug;
+
+    @Column(name = "description", columnDefinition = "text")
+    private String description;
+
+    @Column(name = "cover_url", length = 512)
+    private String coverUrl;
+
+    @Column(name = "language", length = 16)
+    private String language;
+
+    @Column(name = "level", length = 32)
+    private String level;
+
+    @Column(name = "estimated_duration_min")
+    private Integer estimatedDurationMin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private CourseStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_type", nullable = false)
+    private AccessType accessType;
+
+    @Column(name = "invite_code", length = 64)
+    private String inviteCode;
+
+    @Column(name = "requires_entitlement", nullable = false)
+    private boolean requiresEntitlement;
+
+    @Column(name = "max_free_enrollments")
+    private Integer maxFreeEnrollments;
+
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    @Column(name = "published_at")
+    private OffsetDateTime publishedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    // tagIds[i] <-> tagNames[i], упорядочены по имени
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tag_ids", nullable = false)
+    private List<UUID> tagIds;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tag_names", nullable = false)
+    private List<String> tagNames;
+
+    // lower(name), только для фильтра technologies
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tag_keys", nullable = false)
+    private List<String> tagKeys;
+
+    @Column(name = "lessons_count", nullable = false)
+    private int lessonsCount;
+
+    @Column(name = "lessons_duration_min", nullable = false)
+    private int lessonsDurationMin;
+
+    @Column(name = "members_count", nullable = false)
+    private int membersCount;
+
+    @Column(name = "avg_completion", precision = 5, scale = 2)
+    private BigDecimal avgCompletion;
+
+    @Column(name = "avg_rating", nullable = false, precision = 3, scale = 2)
+    private BigDecimal avgRating;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private OffsetDateTime refreshedAt;
+}
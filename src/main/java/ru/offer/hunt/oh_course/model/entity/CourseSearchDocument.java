@@ -0,0 +1,40 @@
+package ru.offer.hunt.oh_course.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Поисковый документ курса (tsvector по названию/тегам/описанию).
+ * Заполняется триггерами БД (V3__course_search.sql), из приложения только читается.
+ */
+@Entity
+@Immutable
+@Table(schema = "course", name = "course_search_documents")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CourseSearchDocument {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "document", nullable = false)
+    private String document;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,14 @@
+package ru.offer.hunt.oh_course.model.enums;
+
+public enum AiJobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED,
+    TIMED_OUT;
+
+    public boolean isTerminal() {
+        return this != PENDING && this != RUNNING;
+    }
+}
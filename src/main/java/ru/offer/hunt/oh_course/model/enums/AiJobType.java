@@ -0,0 +1,7 @@
+package ru.offer.hunt.oh_course.model.enums;
+
+public enum AiJobType {
+    ENHANCE_TEXT,
+    GENERATE_TEST,
+    GENERATE_CODE_TASK
+}
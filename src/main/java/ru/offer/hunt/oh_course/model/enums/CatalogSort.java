@@ -0,0 +1,7 @@
+package ru.offer.hunt.oh_course.model.enums;
+
+public enum CatalogSort {
+    PUBLISHED_AT,
+    RATING,
+    RELEVANCE
+}
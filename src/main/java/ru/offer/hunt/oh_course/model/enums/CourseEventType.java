@@ -0,0 +1,9 @@
+package ru.offer.hunt.oh_course.model.enums;
+
+public enum CourseEventType {
+    COURSE_PUBLISHED,
+    COURSE_ARCHIVED,
+    COURSE_VERSION_PUBLISHED,
+    COURSE_DELETED,
+    MEMBER_ADDED
+}
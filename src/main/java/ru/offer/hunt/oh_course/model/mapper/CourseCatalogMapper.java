@@ -0,0 +1,51 @@
+package ru.offer.hunt.oh_course.model.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.dto.TagRefDto;
+import ru.offer.hunt.oh_course.model.entity.CourseCatalogEntry;
+
+/**
+ * Карточка каталога из строки course_catalog_view: без дополнительных запросов,
+ * вместо списка уроков - lessonsCount/lessonsDurationMin.
+ */
+@Mapper(componentModel = "spring")
+public interface CourseCatalogMapper {
+
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "archivedAt", ignore = true)
+    @Mapping(target = "estimatedDurationHours", ignore = true)
+    @Mapping(target = "lessons", ignore = true)
+    @Mapping(target = "contentRevision", ignore = true)
+    @Mapping(target = "searchRank", ignore = true)
+    @Mapping(target = "titleHighlight", ignore = true)
+    @Mapping(target = "snippet", ignore = true)
+    CourseDto toDto(CourseCatalogEntry src);
+
+    List<CourseDto> toDtos(List<CourseCatalogEntry> src);
+
+    @AfterMapping
+    default void enrich(CourseCatalogEntry source, @MappingTarget CourseDto target) {
+        List<UUID> ids = source.getTagIds() == null ? List.of() : source.getTagIds();
+        List<String> names = source.getTagNames() == null ? List.of() : source.getTagNames();
+
+        List<TagRefDto> tags = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size() && i < names.size(); i++) {
+            TagRefDto tag = new TagRefDto();
+            tag.setId(ids.get(i));
+            tag.setName(names.get(i));
+            tags.add(tag);
+        }
+        target.setTags(tags);
+
+        // как в CourseDtoEnricher
+        Integer min = source.getEstimatedDurationMin();
+        target.setEstimatedDurationHours(min != null && min > 0 ? (min + 59) / 60 : null);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.offer.hunt.oh_course.model.mapper;
+
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.dto.LessonDto;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.CourseStats;
+
+import java.util.List;
+
+/**
+ * Общая часть обогащения CourseDto (уроки, статистика, длительность в часах).
+ * Вынесена из CourseMapper, чтобы одиночный и пакетный пути собирали DTO одинаково,
+ * и чтобы MapStruct не принимал эти методы за методы маппинга.
+ */
+final class CourseDtoEnricher {
+
+    private CourseDtoEnricher() {
+    }
+
+    static void apply(Course source, CourseDto target, List<LessonDto> lessons, CourseStats stats) {
+        // Уроки
+        target.setLessons(lessons);
+
+        // Статистика курса
+        if (stats != null) {
+            target.setMembersCount(stats.getEnrollments());
+            target.setAvgCompletion(stats.getAvgCompletion());
+            target.setAvgRating(stats.getAvgRating());
+        } else {
+            // На всякий случай, но вообще строка в course_stats создаётся при создании курса
+            target.setMembersCount(0);
+            target.setAvgCompletion(null);
+            target.setAvgRating(null);
+        }
+
+        // Оценочная длительность в часах
+        Integer min = source.getEstimatedDurationMin();
+        if (min != null && min > 0) {
+            int hours = (min + 59) / 60;
+            target.setEstimatedDurationHours(hours);
+        } else {
+            target.setEstimatedDurationHours(null);
+        }
+    }
+}
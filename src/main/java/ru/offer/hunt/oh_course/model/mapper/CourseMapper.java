@@ -1,6 +1,8 @@
 package ru.offer.hunt.oh_course.model.mapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
@@ -10,14 +12,21 @@ import org.mapstruct.Named;
 import ru.offer.hunt.oh_course.model.dto.CourseDto;
 import ru.offer.hunt.oh_course.model.dto.CourseUpsertRequest;
 import ru.offer.hunt.oh_course.model.dto.LessonDto;
+import ru.offer.hunt.oh_course.model.dto.TagRefDto;
 import ru.offer.hunt.oh_course.model.entity.Course;
 import ru.offer.hunt.oh_course.model.entity.CourseStats;
 import ru.offer.hunt.oh_course.model.entity.Lesson;
 import ru.offer.hunt.oh_course.model.entity.TagRef;
 import ru.offer.hunt.oh_course.model.repository.CourseStatsRepository;
 import ru.offer.hunt.oh_course.model.repository.LessonRepository;
+import ru.offer.hunt.oh_course.model.repository.TagRefRepository;
 import ru.offer.hunt.oh_course.service.TagService;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
 @Mapper(componentModel = "spring", uses = {TagRefMapper.class})
 public interface CourseMapper {
 
@@ -31,6 +40,7 @@ public interface CourseMapper {
     @Mapping(target = "publishedAt", ignore = true)
 
     @Mapping(target = "archivedAt", ignore = true)
+    @Mapping(target = "contentRevision", ignore = true)
     @Mapping(target = "lessons", ignore = true)
 
     @Mapping(target = "tagRefs", source = "tags", qualifiedByName = "mapTags")
@@ -46,6 +56,7 @@ public interface CourseMapper {
     @Mapping(target = "publishedAt", ignore = true)
 
     @Mapping(target = "archivedAt", ignore = true)
+    @Mapping(target = "contentRevision", ignore = true)
     @Mapping(target = "lessons", ignore = true)
 
     @Mapping(target = "tagRefs", source = "tags", qualifiedByName = "mapTags")
@@ -60,8 +71,13 @@ public interface CourseMapper {
     @Mapping(target = "estimatedDurationHours", ignore = true)
     @Mapping(target = "membersCount", ignore = true)
     @Mapping(target = "lessons", ignore = true)
+    @Mapping(target = "lessonsCount", ignore = true)
+    @Mapping(target = "lessonsDurationMin", ignore = true)
     @Mapping(target = "avgCompletion", ignore = true)
     @Mapping(target = "avgRating", ignore = true)
+    @Mapping(target = "searchRank", ignore = true)
+    @Mapping(target = "titleHighlight", ignore = true)
+    @Mapping(target = "snippet", ignore = true)
     CourseDto toDto(
             Course src,
             @Context LessonRepository lessonRepository,
@@ -77,31 +93,76 @@ public interface CourseMapper {
             @Context LessonMapper lessonMapper,
             @Context CourseStatsRepository courseStatsRepository
     ) {
-        // Уроки
         List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(source.getId());
         List<LessonDto> lessonDtos = lessons.stream().map(lessonMapper::toDto).toList();
-        target.setLessons(lessonDtos);
-
-        // Статистика курса
         CourseStats stats = courseStatsRepository.findById(source.getId()).orElse(null);
-        if (stats != null) {
-            target.setMembersCount(stats.getEnrollments());
-            target.setAvgCompletion(stats.getAvgCompletion());
-            target.setAvgRating(stats.getAvgRating());
-        } else {
-            // На всякий случай, но вообще строка в course_stats создаётся при создании курса
-            target.setMembersCount(0);
-            target.setAvgCompletion(null);
-            target.setAvgRating(null);
-        }
 
-        // Оценочная длительность в часах
-        Integer min = source.getEstimatedDurationMin();
-        if (min != null && min > 0) {
-            int hours = (min + 59) / 60;
-            target.setEstimatedDurationHours(hours);
-        } else {
-            target.setEstimatedDurationHours(null);
+        CourseDtoEnricher.apply(source, target, lessonDtos, stats);
+    }
+
+    /**
+     * Базовые поля курса без тегов/уроков/статистики — для пакетного пути, где они подгружаются отдельно.
+     */
+    @Named("toBaseDto")
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "estimatedDurationHours", ignore = true)
+    @Mapping(target = "membersCount", ignore = true)
+    @Mapping(target = "lessons", ignore = true)
+    @Mapping(target = "lessonsCount", ignore = true)
+    @Mapping(target = "lessonsDurationMin", ignore = true)
+    @Mapping(target = "avgCompletion", ignore = true)
+    @Mapping(target = "avgRating", ignore = true)
+    @Mapping(target = "searchRank", ignore = true)
+    @Mapping(target = "titleHighlight", ignore = true)
+    @Mapping(target = "snippet", ignore = true)
+    CourseDto toBaseDto(Course src);
+
+    /**
+     * Пакетный маппинг списка курсов: уроки, статистика и теги грузятся тремя IN-запросами
+     * на весь список (вместо 3 запросов на каждый курс в toDto). Порядок курсов сохраняется.
+     */
+    default List<CourseDto> toDtos(
+            List<Course> courses,
+            @Context LessonRepository lessonRepository,
+            @Context LessonMapper lessonMapper,
+            @Context CourseStatsRepository courseStatsRepository,
+            @Context TagRefRepository tagRefRepository
+    ) {
+        if (courses == null || courses.isEmpty()) {
+            return List.of();
         }
+
+        List<UUID> courseIds = courses.stream().map(Course::getId).toList();
+
+        Map<UUID, List<LessonDto>> lessonsByCourse =
+                lessonRepository.findByCourseIdInOrderByOrderIndexAsc(courseIds).stream()
+                        .collect(groupingBy(l -> l.getCourse().getId(), mapping(lessonMapper::toDto, toList())));
+
+        Map<UUID, CourseStats> statsByCourse =
+                courseStatsRepository.findAllById(courseIds).stream()
+                        .collect(toMap(CourseStats::getCourseId, s -> s));
+
+        Map<UUID, List<TagRefDto>> tagsByCourse =
+                tagRefRepository.findCourseTags(courseIds).stream()
+                        .collect(groupingBy(TagRefRepository.CourseTagRow::getCourseId, mapping(row -> {
+                            TagRefDto tag = new TagRefDto();
+                            tag.setId(row.getTagId());
+                            tag.setName(row.getName());
+                            tag.setCreatedAt(row.getCreatedAt());
+                            return tag;
+                        }, toList())));
+
+        return courses.stream()
+                .map(course -> {
+                    CourseDto dto = toBaseDto(course);
+                    dto.setTags(tagsByCourse.getOrDefault(course.getId(), List.of()));
+                    CourseDtoEnricher.apply(
+                            course,
+                            dto,
+                            lessonsByCourse.getOrDefault(course.getId(), List.of()),
+                            statsByCourse.get(course.getId()));
+                    return dto;
+                })
+                .toList();
     }
 }
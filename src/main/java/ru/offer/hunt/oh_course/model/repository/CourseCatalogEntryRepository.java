@@ -0,0 +1,11 @@
+package ru.offer.hunt.oh_course.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import ru.offer.hunt.oh_course.model.entity.CourseCatalogEntry;
+
+import java.util.UUID;
+
+public interface CourseCatalogEntryRepository
+        extends JpaRepository<CourseCatalogEntry, UUID>, JpaSpecificationExecutor<CourseCatalogEntry> {
+}
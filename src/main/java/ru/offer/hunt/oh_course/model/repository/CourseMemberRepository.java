@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.CourseMember;
 import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
 import ru.offer.hunt.oh_course.model.id.CourseMemberId;
@@ -18,6 +20,12 @@ public interface CourseMemberRepository extends JpaRepository<CourseMember, Cour
 
     List<CourseMember> findByIdCourseId(UUID courseId);
 
+    /**
+     * Кто из userIds уже участник курса - одним запросом по PK.
+     */
+    @Query("select m.id.userId from CourseMember m where m.id.courseId = :courseId and m.id.userId in :userIds")
+    List<UUID> findMemberUserIds(@Param("courseId") UUID courseId, @Param("userIds") Collection<UUID> userIds);
+
     List<CourseMember> findByIdUserId(UUID userId);
 
     int countByIdCourseId(UUID courseId);
@@ -3,8 +3,35 @@ package ru.offer.hunt.oh_course.model.repository;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.CourseQuestion;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
 
 public interface CourseQuestionRepository extends JpaRepository<CourseQuestion, UUID> {
     List<CourseQuestion> findByPageIdOrderBySortOrderAsc(UUID pageId);
+
+    /**
+     * Вопросы страницы вместе с вариантами одним запросом, по строке на вариант
+     * (вопрос без вариантов - одна строка с пустыми полями варианта).
+     * Только поля для read-only просмотра: ни correctAnswer, ни is_correct сюда не попадают.
+     */
+    @Query("""
+        select q.id as questionId, q.type as type, q.text as text,
+               o.id as optionId, o.label as optionLabel, o.sortOrder as optionSortOrder
+        from CourseQuestion q
+        left join CourseQuestionOption o on o.question = q
+        where q.page.id = :pageId
+        order by q.sortOrder asc, q.id asc, o.sortOrder asc
+    """)
+    List<QuestionViewRow> findViewRowsByPageId(@Param("pageId") UUID pageId);
+
+    interface QuestionViewRow {
+        UUID getQuestionId();
+        QuestionType getType();
+        String getText();
+        UUID getOptionId();
+        String getOptionLabel();
+        Integer getOptionSortOrder();
+    }
 }
@@ -1,9 +1,9 @@
 package ru.offer.hunt.oh_course.model.repository;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.Course;
 import ru.offer.hunt.oh_course.model.enums.CourseStatus;
 
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CourseRepository extends JpaRepository<Course, UUID> {
+public interface CourseRepository extends JpaRepository<Course, UUID>, JpaSpecificationExecutor<Course> {
 
     boolean existsBySlug(String slug);
 
@@ -22,4 +22,34 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
     List<Course> findAllByAuthorIdAndTitleAndStatus(UUID authorId, String title, CourseStatus status);
 
     Optional<Course> findBySlugAndStatus(String slug, CourseStatus status);
+
+    /**
+     * Дешёвая "версия" курса без загрузки дерева: ревизия контента (растёт при любом изменении
+     * уроков/страниц/вопросов/тегов/статуса) плюс участники и статистика, которые попадают в CourseDto.
+     */
+    String CONTENT_FINGERPRINT_SELECT = """
+            select concat_ws('|',
+                       c.status, c.version, c.content_revision, coalesce(c.updated_at, c.created_at),
+                       (select count(*) from course.course_members cm where cm.course_id = c.id),
+                       (select s.updated_at from course.course_stats s where s.course_id = c.id)
+                   ) as fingerprint
+            from course.course_courses c
+            """;
+
+    @Query(value = CONTENT_FINGERPRINT_SELECT + " where c.id = :courseId", nativeQuery = true)
+    Optional<String> findContentFingerprintById(@Param("courseId") UUID courseId);
+
+    @Query(value = CONTENT_FINGERPRINT_SELECT + " where c.slug = :slug", nativeQuery = true)
+    Optional<String> findContentFingerprintBySlug(@Param("slug") String slug);
+
+    /**
+     * Статус и ревизия контента без загрузки сущности - ключ кэшей, собранных по ревизии.
+     */
+    @Query("select c.status as status, c.contentRevision as contentRevision from Course c where c.id = :courseId")
+    Optional<RevisionState> findRevisionStateById(@Param("courseId") UUID courseId);
+
+    interface RevisionState {
+        CourseStatus getStatus();
+        long getContentRevision();
+    }
 }
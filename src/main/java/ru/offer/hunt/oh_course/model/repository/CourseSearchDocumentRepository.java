@@ -0,0 +1,40 @@
+package ru.offer.hunt.oh_course.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.offer.hunt.oh_course.model.entity.CourseSearchDocument;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public interface CourseSearchDocumentRepository extends JpaRepository<CourseSearchDocument, UUID> {
+
+    /**
+     * Ранг и подсветка для уже отобранной страницы каталога (только её id, не весь результат поиска).
+     * Выражение ранга совпадает с course_search_rank в CourseCatalogSpecification - на нём держится курсор.
+     * Текст экранируется (course.html_escape) до ts_headline: в подсветке из разметки только <b>...</b>.
+     */
+    @Query(value = """
+        select d.course_id as "courseId",
+               round((ts_rank_cd(d.document, websearch_to_tsquery('russian', :query))
+                    + word_similarity(:query, d.title))::numeric, 6) as "rank",
+               ts_headline('russian', course.html_escape(d.title), websearch_to_tsquery('russian', :query),
+                           'HighlightAll=true') as "titleHighlight",
+               ts_headline('russian', course.html_escape(coalesce(c.description, '')),
+                           websearch_to_tsquery('russian', :query),
+                           'MaxFragments=2, MinWords=5, MaxWords=25') as "snippet"
+        from course.course_search_documents d
+        join course.course_courses c on c.id = d.course_id
+        where d.course_id in (:courseIds)
+    """, nativeQuery = true)
+    List<SearchHit> findSearchHits(@Param("courseIds") List<UUID> courseIds, @Param("query") String query);
+
+    interface SearchHit {
+        UUID getCourseId();
+        BigDecimal getRank();
+        String getTitleHighlight();
+        String getSnippet();
+    }
+}
@@ -1,9 +1,15 @@
 package ru.offer.hunt.oh_course.model.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.enums.AccessType;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+import ru.offer.hunt.oh_course.model.enums.PageType;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface LessonPageRepository extends JpaRepository<LessonPage, UUID> {
@@ -16,4 +22,31 @@ public interface LessonPageRepository extends JpaRepository<LessonPage, UUID> {
     void deleteAllByLessonId(UUID lessonId);
 
     List<LessonPage> findByLessonIdInOrderBySortOrderAsc(List<UUID> lessonIds);
+
+    /**
+     * Страница с признаком demo урока и полями доступа курса одним запросом, без загрузки сущностей.
+     * contentRevision - ключ кэша собранного просмотра.
+     */
+    @Query("""
+        select p.id as pageId, p.title as title, p.pageType as pageType, l.demo as demo,
+               c.id as courseId, c.status as courseStatus, c.accessType as accessType,
+               c.inviteCode as inviteCode, c.contentRevision as contentRevision
+        from LessonPage p
+        join p.lesson l
+        join l.course c
+        where p.id = :pageId
+    """)
+    Optional<DemoPageHeader> findDemoPageHeader(@Param("pageId") UUID pageId);
+
+    interface DemoPageHeader {
+        UUID getPageId();
+        String getTitle();
+        PageType getPageType();
+        boolean isDemo();
+        UUID getCourseId();
+        CourseStatus getCourseStatus();
+        AccessType getAccessType();
+        String getInviteCode();
+        long getContentRevision();
+    }
 }
@@ -10,4 +10,6 @@ public interface LessonRepository extends JpaRepository<Lesson, UUID> {
     List<Lesson> findByCourseId(UUID courseId);
 
     List<Lesson> findByCourseIdOrderByOrderIndexAsc(UUID courseId);
+
+    List<Lesson> findByCourseIdInOrderByOrderIndexAsc(List<UUID> courseIds);
 }
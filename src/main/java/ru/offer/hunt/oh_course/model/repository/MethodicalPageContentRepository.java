@@ -1,9 +1,34 @@
 package ru.offer.hunt.oh_course.model.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface MethodicalPageContentRepository
-        extends JpaRepository<MethodicalPageContent, UUID> {}
+        extends JpaRepository<MethodicalPageContent, UUID> {
+
+    /**
+     * Версии методического контента THEORY-страниц урока в порядке страниц, без самого markdown:
+     * по ним сборщик контекста решает, что можно взять из кэша.
+     */
+    @Query("""
+        select p.id as pageId, p.title as title, m.updatedAt as updatedAt
+        from LessonPage p
+        join MethodicalPageContent m on m.pageId = p.id
+        where p.lesson.id = :lessonId
+          and p.pageType = ru.offer.hunt.oh_course.model.enums.PageType.THEORY
+        order by p.sortOrder asc
+    """)
+    List<ContentVersion> findTheoryContentVersions(@Param("lessonId") UUID lessonId);
+
+    interface ContentVersion {
+        UUID getPageId();
+        String getTitle();
+        OffsetDateTime getUpdatedAt();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.offer.hunt.oh_course.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.offer.hunt.oh_course.model.entity.OutboxEvent;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Готовые к доставке события в порядке id. Событие не берётся, пока у его курса есть
+     * более раннее недоставленное событие в backoff - иначе порядок внутри курса нарушится.
+     */
+    @Query(value = """
+            select e.*
+            from course.course_outbox_events e
+            where e.published_at is null
+              and e.next_attempt_at <= now()
+              and not exists (
+                    select 1
+                    from course.course_outbox_events p
+                    where p.course_id = e.course_id
+                      and p.published_at is null
+                      and p.id < e.id
+                      and p.next_attempt_at > now())
+            order by e.id
+            limit :limit
+            """, nativeQuery = true)
+    List<OutboxEvent> findDueBatch(@Param("limit") int limit);
+
+    /**
+     * Сериализует захват пачки между инстансами: xact-lock снимается сам по завершении транзакции.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    /**
+     * Захват (lease): до leaseUntil события не готовы к доставке, а более поздние события тех же курсов
+     * findDueBatch не выбирает. Если relay упадёт, события снова станут готовыми по истечении lease.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :leaseUntil where e.id in :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt, e.lastError = null where e.id in :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") OffsetDateTime publishedAt);
+
+    @Modifying
+    @Query("""
+            update OutboxEvent e
+            set e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError
+            where e.id in :ids
+            """)
+    int scheduleRetry(@Param("ids") List<Long> ids,
+                      @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") OffsetDateTime before);
+}
@@ -1,8 +1,12 @@
 package ru.offer.hunt.oh_course.model.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.offer.hunt.oh_course.model.entity.TagRef;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +15,21 @@ public interface TagRefRepository extends JpaRepository<TagRef, UUID> {
     Optional<TagRef> findByNameIgnoreCase(String name);
 
     boolean existsByNameIgnoreCase(String name);
+
+    @Query("""
+        select c.id as courseId, t.id as tagId, t.name as name, t.createdAt as createdAt
+        from Course c join c.tagRefs t
+        where c.id in :courseIds
+    """)
+    List<CourseTagRow> findCourseTags(@Param("courseIds") List<UUID> courseIds);
+
+    interface CourseTagRow {
+        UUID getCourseId();
+
+        UUID getTagId();
+
+        String getName();
+
+        OffsetDateTime getCreatedAt();
+    }
 }
@@ -0,0 +1,71 @@
+package ru.offer.hunt.oh_course.model.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.enums.CatalogSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в каталоге для keyset-пагинации: значение ключа сортировки + id последнего курса на странице.
+ * Токен непрозрачен для клиента (base64url), но стабилен: не зависит от offset и вставок новых курсов.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final CatalogSort sort;
+    private final OffsetDateTime publishedAt;
+    private final BigDecimal avgRating;
+    private final BigDecimal searchRank;
+    private final UUID id;
+
+    public static CatalogCursor after(CatalogSort sort, CourseDto last) {
+        BigDecimal rating = last.getAvgRating() == null ? BigDecimal.ZERO : last.getAvgRating();
+        BigDecimal rank = last.getSearchRank() == null ? BigDecimal.ZERO : last.getSearchRank();
+        return new CatalogCursor(sort, last.getPublishedAt(), rating, rank, last.getId());
+    }
+
+    public String encode() {
+        String key = switch (sort) {
+            case RATING -> avgRating.toPlainString();
+            // ранг - numeric с фиксированной шкалой (course_search_rank), строка восстанавливается без потерь
+            case RELEVANCE -> searchRank.toPlainString();
+            case PUBLISHED_AT -> publishedAt.toInstant().toString();
+        };
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если токен повреждён или выдан для другой сортировки
+     */
+    public static CatalogCursor decode(String token, CatalogSort expectedSort) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed page token");
+        }
+
+        CatalogSort sort = CatalogSort.valueOf(parts[0]);
+        if (sort != expectedSort) {
+            throw new IllegalArgumentException("Page token was issued for sort " + sort);
+        }
+
+        UUID id = UUID.fromString(parts[2]);
+        return switch (sort) {
+            case RATING -> new CatalogCursor(sort, null, new BigDecimal(parts[1]), null, id);
+            case RELEVANCE -> new CatalogCursor(sort, null, null, new BigDecimal(parts[1]), id);
+            case PUBLISHED_AT -> new CatalogCursor(sort, Instant.parse(parts[1]).atOffset(ZoneOffset.UTC), null, null, id);
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package ru.offer.hunt.oh_course.model.specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.data.jpa.domain.Specification;
+import ru.offer.hunt.oh_course.model.entity.CourseCatalogEntry;
+import ru.offer.hunt.oh_course.model.entity.CourseSearchDocument;
+import ru.offer.hunt.oh_course.model.enums.CatalogSort;
+import ru.offer.hunt.oh_course.model.search.CatalogCursor;
+
+/**
+ * Фильтры и keyset-страница каталога поверх проекции course_catalog_view.
+ * В проекции только опубликованные курсы, поэтому фильтра по статусу нет.
+ */
+public class CourseCatalogSpecification {
+
+    private static final int DURATION_TOLERANCE_MIN = 120;
+
+    // разделитель элементов массива для catalog_tags_overlap (в именах тегов не встречается)
+    private static final String TAG_SEPARATOR = "\u001f";
+
+    public static Specification<CourseCatalogEntry> withAuthorId(UUID authorId) {
+        return (root, query, cb) ->
+                authorId == null ? null : cb.equal(root.get("authorId"), authorId);
+    }
+
+    public static Specification<CourseCatalogEntry> withLanguages(List<String> langs) {
+        return (root, query, cb) ->
+                langs == null || langs.isEmpty() ? null : root.get("language").in(langs);
+    }
+
+    public static Specification<CourseCatalogEntry> withLevels(List<String> levels) {
+        return (root, query, cb) ->
+                levels == null || levels.isEmpty() ? null : root.get("level").in(levels);
+    }
+
+    /**
+     * technologies = список тегов, курс подходит, если есть хотя бы один.
+     * Пересечение массивов tag_keys && array[...] обслуживается GIN-индексом; сравнение без учёта регистра (теги citext).
+     */
+    public static Specification<CourseCatalogEntry> withTechnologies(List<String> techs) {
+        return (root, query, cb) -> {
+            if (techs == null || techs.isEmpty()) return null;
+
+            String keys = techs.stream()
+                    .filter(Objects::nonNull)
+                    .map(t -> t.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(TAG_SEPARATOR));
+            if (keys.isEmpty()) return null;
+
+            return cb.isTrue(cb.function("catalog_tags_overlap", Boolean.class,
+                    root.get("tagKeys"), cb.literal(keys)));
+        };
+    }
+
+    /**
+     * duration приходит в ЧАСАХ (как в сценариях/макете).
+     * В БД estimated_duration_min в МИНУТАХ.
+     */
+    public static Specification<CourseCatalogEntry> withDurations(List<Integer> durationsHours) {
+        return (root, query, cb) -> {
+            if (durationsHours == null || durationsHours.isEmpty()) return null;
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (Integer h : durationsHours) {
+                if (h == null || h <= 0) continue;
+                int targetMin = h * 60;
+
+                predicates.add(cb.between(
+                        root.get("estimatedDurationMin"),
+                        Math.max(0, targetMin - DURATION_TOLERANCE_MIN),
+                        targetMin + DURATION_TOLERANCE_MIN
+                ));
+            }
+
+            return predicates.isEmpty() ? null : cb.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Полнотекстовый поиск по поисковому документу курса (course_search_documents):
+     * tsvector по названию/тегам/описанию + нечёткое (pg_trgm) и префиксное совпадение по названию.
+     * EXISTS по документу, чтобы не тащить tsvector в выборку каталога; условие обслуживается GIN-индексами.
+     */
+    public static Specification<CourseCatalogEntry> withQuery(String q) {
+        return (root, query, cb) -> {
+            String text = normalizeQuery(q);
+            if (text == null) return null;
+
+            Subquery<Integer> sq = query.subquery(Integer.class);
+            Root<CourseSearchDocument> doc = sq.from(CourseSearchDocument.class);
+
+            sq.select(cb.literal(1));
+            sq.where(
+                    cb.equal(doc.get("courseId"), root.get("id")),
+                    cb.isTrue(cb.function("course_search_match", Boolean.class,
+                            doc.get("document"), doc.get("title"),
+                            cb.literal(text), cb.literal(text), cb.literal(prefixPattern(text))))
+            );
+
+            return cb.exists(sq);
+        };
+    }
+
+    /**
+     * Поисковая строка после trim; null, если искать нечего.
+     */
+    public static String normalizeQuery(String q) {
+        if (q == null) return null;
+        String text = q.trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * Keyset-страница каталога: порядок (ключ DESC, id DESC) и условие "строго после курсора".
+     * Сортировка задаётся прямо в criteria, поэтому запрос нужно выполнять без внешнего Sort.
+     * PUBLISHED_AT и RATING идут по индексам проекции (avg_rating в ней уже not null).
+     * RELEVANCE - ранг поиска по searchQuery (без поисковой строки не применяется).
+     */
+    public static Specification<CourseCatalogEntry> publishedCatalogPage(CatalogSort sort, CatalogCursor after, String searchQuery) {
+        return (root, query, cb) -> {
+            Expression<UUID> id = root.get("id");
+
+            if (sort == CatalogSort.RATING) {
+                Expression<BigDecimal> rating = root.get("avgRating");
+                query.orderBy(cb.desc(rating), cb.desc(id));
+                if (after == null) return null;
+
+                return cb.or(
+                        cb.lessThan(rating, after.getAvgRating()),
+                        cb.and(cb.equal(rating, after.getAvgRating()), cb.lessThan(id, after.getId()))
+                );
+            }
+
+            String text = normalizeQuery(searchQuery);
+            if (sort == CatalogSort.RELEVANCE && text != null) {
+                query.orderBy(cb.desc(searchRank(root, query, cb, text)), cb.desc(id));
+                if (after == null) return null;
+
+                Expression<BigDecimal> rank = searchRank(root, query, cb, text);
+                return cb.or(
+                        cb.lessThan(rank, after.getSearchRank()),
+                        cb.and(cb.equal(rank, after.getSearchRank()), cb.lessThan(id, after.getId()))
+                );
+            }
+
+            Expression<OffsetDateTime> publishedAt = root.get("publishedAt");
+            query.orderBy(cb.desc(publishedAt), cb.desc(id));
+            if (after == null) return null;
+
+            return cb.or(
+                    cb.lessThan(publishedAt, after.getPublishedAt()),
+                    cb.and(cb.equal(publishedAt, after.getPublishedAt()), cb.lessThan(id, after.getId()))
+            );
+        };
+    }
+
+    private static Expression<BigDecimal> searchRank(Root<CourseCatalogEntry> root, CriteriaQuery<?> query,
+                                                CriteriaBuilder cb, String text) {
+        Subquery<BigDecimal> sq = query.subquery(BigDecimal.class);
+        Root<CourseSearchDocument> doc = sq.from(CourseSearchDocument.class);
+        sq.select(cb.function("course_search_rank", BigDecimal.class,
+                doc.get("document"), doc.get("title"), cb.literal(text), cb.literal(text)));
+        sq.where(cb.equal(doc.get("courseId"), root.get("id")));
+        return cb.coalesce(sq, BigDecimal.ZERO);
+    }
+
+    // префиксный ILIKE: спецсимволы шаблона из пользовательской строки экранируются
+    private static String prefixPattern(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
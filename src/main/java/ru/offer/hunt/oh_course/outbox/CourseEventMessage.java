@@ -0,0 +1,19 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import ru.offer.hunt.oh_course.model.enums.CourseEventType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * То, что уходит в sink. id монотонен внутри курса - потребитель может отбрасывать дубли
+ * (доставка at-least-once) по последнему обработанному id.
+ */
+public record CourseEventMessage(
+        long id,
+        UUID courseId,
+        CourseEventType type,
+        OffsetDateTime occurredAt,
+        @JsonRawValue String payload
+) {}
@@ -0,0 +1,36 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+
+import java.util.UUID;
+
+/**
+ * Тело события в outbox. Только идентификаторы и версии: потребителю достаточно понять,
+ * что инвалидировать, а актуальные данные он возьмёт из API.
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CourseEventPayload(
+        UUID courseId,
+        String slug,
+        Integer version,
+        CourseStatus status,
+        Long contentRevision,
+        UUID actorId,
+        UUID memberUserId,
+        CourseMemberRole memberRole
+) {
+
+    public static CourseEventPayloadBuilder forCourse(Course course) {
+        return builder()
+                .courseId(course.getId())
+                .slug(course.getSlug())
+                .version(course.getVersion())
+                .status(course.getStatus())
+                .contentRevision(course.getContentRevision());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.offer.hunt.oh_course.model.entity.OutboxEvent;
+import ru.offer.hunt.oh_course.model.enums.CourseEventType;
+import ru.offer.hunt.oh_course.model.repository.OutboxEventRepository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запись события в outbox. Только внутри транзакции изменения: либо сохраняются оба, либо ничего.
+ * Перед вставкой берётся advisory lock курса до конца транзакции: id (bigserial) выдаётся при вставке,
+ * а не при коммите, и без блокировки транзакция с меньшим id могла бы закоммититься позже и стать видимой
+ * relay уже после доставки более позднего события того же курса.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseOutbox {
+
+    // пространство ключей двухаргументного pg_advisory_xact_lock; не пересекается с bigint-ключом relay
+    private static final int COURSE_LOCK_NAMESPACE = 0x6f68_6f62;
+    private static final String COURSE_LOCK_SQL = "select pg_advisory_xact_lock(?, hashtext(cast(? as text)))";
+
+    private static final String INSERT_SQL = """
+            insert into course.course_outbox_events (course_id, event_type, payload, created_at, attempts, next_attempt_at)
+            values (?, ?, ?, ?, 0, ?)
+            """;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(CourseEventType type, CourseEventPayload payload) {
+        lockCourses(List.of(payload.courseId()));
+        OffsetDateTime now = OffsetDateTime.now();
+
+        OutboxEvent event = new OutboxEvent();
+        event.setCourseId(payload.courseId());
+        event.setEventType(type);
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(now);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+
+        outboxEventRepository.save(event);
+
+        log.debug("Outbox event appended: type={}, courseId={}", type, payload.courseId());
+    }
+
+    /**
+     * Пакет однотипных событий одним JDBC batch: bigserial не даёт Hibernate батчить вставки.
+     * Порядок id совпадает с порядком payloads.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(CourseEventType type, List<CourseEventPayload> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        lockCourses(payloads.stream().map(CourseEventPayload::courseId).toList());
+        OffsetDateTime now = OffsetDateTime.now();
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, payloads, payloads.size(), (ps, payload) -> {
+            ps.setObject(1, payload.courseId());
+            ps.setString(2, type.name());
+            ps.setString(3, toJson(payload));
+            ps.setObject(4, now);
+            ps.setObject(5, now);
+        });
+
+        log.debug("Outbox events appended: type={}, count={}", type, payloads.size());
+    }
+
+    /**
+     * Блокировки в одном порядке для всех транзакций, чтобы пакетные вставки не взаимоблокировались.
+     */
+    private void lockCourses(List<UUID> courseIds) {
+        courseIds.stream().distinct().sorted().forEach(courseId ->
+                jdbcTemplate.query(COURSE_LOCK_SQL, rs -> {}, COURSE_LOCK_NAMESPACE, courseId));
+    }
+
+    private String toJson(CourseEventPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие курса", e);
+        }
+    }
+}
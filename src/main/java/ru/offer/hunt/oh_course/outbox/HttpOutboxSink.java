@@ -0,0 +1,50 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * POST пачки событий JSON-массивом на app.outbox.http.url. Любой не-2xx или таймаут - ретрай в relay.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "http")
+@Slf4j
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+    private final String url;
+
+    public HttpOutboxSink(
+            RestClient.Builder restClientBuilder,
+            @Value("${app.outbox.http.url}") String url,
+            @Value("${app.outbox.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.outbox.http.read-timeout-ms:5000}") int readTimeoutMs
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.url = url;
+    }
+
+    @Override
+    public void publish(List<CourseEventMessage> events) {
+        restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .toBodilessEntity();
+
+        log.debug("Course events delivered over HTTP: count={}, courseId={}",
+                events.size(), events.getFirst().courseId());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Sink по умолчанию для локального запуска и тестов: держит последние N событий в памяти.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<CourseEventMessage> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${app.outbox.memory.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<CourseEventMessage> batch) {
+        for (CourseEventMessage event : batch) {
+            if (events.size() >= capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+            log.info("Course event: id={}, type={}, courseId={}", event.id(), event.type(), event.courseId());
+        }
+    }
+
+    public synchronized List<CourseEventMessage> snapshot() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,188 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.offer.hunt.oh_course.model.entity.OutboxEvent;
+import ru.offer.hunt.oh_course.model.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Фоновая доставка outbox: пачка готовых событий -> группы по курсу (в порядке id) -> sink.
+ * Ошибка группы переводит её в backoff (экспонента с jitter), остальные курсы не задерживаются.
+ * Итерация в три шага, транзакция и соединение не держатся во время вызовов sink:
+ * короткая транзакция захватывает пачку (advisory lock + lease через next_attempt_at),
+ * доставка идёт вне транзакции, вторая короткая транзакция фиксирует результат.
+ * Порядок внутри курса держится выборкой (findDueBatch): пока события курса захвачены,
+ * более поздние события того же курса не выбираются никем.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    // произвольная константа для pg_try_advisory_xact_lock, уникальная в пределах БД
+    private static final long RELAY_LOCK_KEY = 0x6f685f6f7574626fL;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            OutboxSink sink,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.outbox.relay.batch-size:100}") int batchSize,
+            @Value("${app.outbox.relay.lease-ms:60000}") long leaseMs,
+            @Value("${app.outbox.relay.base-backoff-ms:1000}") long baseBackoffMs,
+            @Value("${app.outbox.relay.max-backoff-ms:300000}") long maxBackoffMs,
+            @Value("${app.outbox.relay.retention-hours:72}") long retentionHours
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval-ms:1000}")
+    public void relay() {
+        try {
+            int delivered = relayBatch();
+            if (delivered > 0) {
+                log.debug("Outbox relay: delivered={}", delivered);
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay iteration failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.cleanup-interval-ms:3600000}")
+    public void purgeDelivered() {
+        try {
+            Integer removed = transactionTemplate.execute(status ->
+                    outboxEventRepository.deletePublishedBefore(OffsetDateTime.now().minus(retention)));
+            if (removed != null && removed > 0) {
+                log.info("Outbox cleanup: removed={}", removed);
+            }
+        } catch (Exception e) {
+            log.error("Outbox cleanup failed", e);
+        }
+    }
+
+    /**
+     * Одна итерация: захват, доставка вне транзакции, фиксация результата.
+     * Новые группы не отправляются после половины lease - оставшиеся события станут готовыми,
+     * когда lease истечёт, и не будут доставлены параллельно другим relay.
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, List<OutboxEvent>> byCourse = batch.stream()
+                .collect(groupingBy(OutboxEvent::getCourseId, LinkedHashMap::new, toList()));
+
+        OffsetDateTime deadline = OffsetDateTime.now().plus(lease.dividedBy(2));
+        List<Long> published = new ArrayList<>();
+        Map<UUID, Exception> failed = new LinkedHashMap<>();
+        int attempted = 0;
+        for (Map.Entry<UUID, List<OutboxEvent>> group : byCourse.entrySet()) {
+            if (OffsetDateTime.now().isAfter(deadline)) {
+                log.warn("Outbox relay: lease half-time reached, postponing {} course group(s)",
+                        byCourse.size() - attempted);
+                break;
+            }
+            attempted++;
+            try {
+                sink.publish(group.getValue().stream().map(OutboxRelay::toMessage).toList());
+                group.getValue().forEach(event -> published.add(event.getId()));
+            } catch (Exception e) {
+                failed.put(group.getKey(), e);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            if (!published.isEmpty()) {
+                outboxEventRepository.markPublished(published, now);
+            }
+            failed.forEach((courseId, error) -> scheduleRetry(byCourse.get(courseId), now, error));
+        });
+        return published.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return List.of();
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findDueBatch(batchSize);
+        if (!batch.isEmpty()) {
+            outboxEventRepository.claim(
+                    batch.stream().map(OutboxEvent::getId).toList(), OffsetDateTime.now().plus(lease));
+        }
+        return batch;
+    }
+
+    private void scheduleRetry(List<OutboxEvent> events, OffsetDateTime now, Exception error) {
+        // backoff считается по голове группы - остальные события курса ждут вместе с ней
+        int attempts = events.getFirst().getAttempts() + 1;
+        OffsetDateTime nextAttemptAt = now.plus(backoff(attempts));
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        outboxEventRepository.scheduleRetry(events.stream().map(OutboxEvent::getId).toList(), nextAttemptAt, message);
+
+        log.warn("Outbox delivery failed: courseId={}, events={}, attempt={}, nextAttemptAt={}, error={}",
+                events.getFirst().getCourseId(), events.size(), attempts, nextAttemptAt, message);
+    }
+
+    Duration backoff(int attempts) {
+        long base = baseBackoff.toMillis();
+        long max = maxBackoff.toMillis();
+        int shift = Math.min(attempts - 1, 30);
+        long exp = Math.min(max, base << shift);
+        // jitter в пределах [exp/2, exp], чтобы ретраи разных курсов не шли синхронно
+        long jittered = exp / 2 + ThreadLocalRandom.current().nextLong(exp / 2 + 1);
+        return Duration.ofMillis(jittered);
+    }
+
+    private static CourseEventMessage toMessage(OutboxEvent event) {
+        return new CourseEventMessage(
+                event.getId(),
+                event.getCourseId(),
+                event.getEventType(),
+                event.getCreatedAt(),
+                event.getPayload());
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_ERROR_LENGTH ? s : s.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import java.util.List;
+
+/**
+ * Куда relay доставляет события. Получает события одного курса в порядке id;
+ * исключение = вся пачка будет повторена позже (at-least-once).
+ */
+public interface OutboxSink {
+
+    void publish(List<CourseEventMessage> events) throws Exception;
+}
@@ -4,8 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.ai.AiEnhancementCache;
+import ru.offer.hunt.oh_course.ai.AiJob;
+import ru.offer.hunt.oh_course.ai.AiJobRunner;
+import ru.offer.hunt.oh_course.ai.AiJobTask;
+import ru.offer.hunt.oh_course.ai.LessonContextBuilder;
+import ru.offer.hunt.oh_course.model.dto.AiJobDto;
 import ru.offer.hunt.oh_course.model.dto.CodeTaskGenerationRequest;
 import ru.offer.hunt.oh_course.model.dto.CodeTaskGenerationResponse;
 import ru.offer.hunt.oh_course.model.dto.GeneratedQuestionDto;
@@ -16,6 +21,7 @@ import ru.offer.hunt.oh_course.model.dto.TextEnhancementResponse;
 import ru.offer.hunt.oh_course.model.entity.Lesson;
 import ru.offer.hunt.oh_course.model.entity.LessonPage;
 import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.enums.AiJobType;
 import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
 import ru.offer.hunt.oh_course.model.enums.PageType;
 import ru.offer.hunt.oh_course.model.repository.CourseMemberRepository;
@@ -23,8 +29,12 @@ import ru.offer.hunt.oh_course.model.repository.LessonPageRepository;
 import ru.offer.hunt.oh_course.model.repository.LessonRepository;
 import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -36,12 +46,27 @@ public class AiService {
     private final LessonPageRepository lessonPageRepository;
     private final MethodicalPageContentRepository methodicalPageContentRepository;
     private final CourseMemberRepository courseMemberRepository;
+    private final AiJobRunner aiJobRunner;
+    private final AiEnhancementCache aiEnhancementCache;
+    private final LessonContextBuilder lessonContextBuilder;
 
     /**
      * Сценарий 17: Улучшение текста урока с помощью AI
      */
-    @Transactional(readOnly = true)
     public TextEnhancementResponse enhanceText(UUID pageId, UUID userId, TextEnhancementRequest request) {
+        return aiJobRunner.await(startEnhanceText(pageId, userId, request), TextEnhancementResponse.class);
+    }
+
+    public AiJobDto submitEnhanceText(UUID pageId, UUID userId, TextEnhancementRequest request) {
+        return startEnhanceText(pageId, userId, request).toDto();
+    }
+
+    private AiJob startEnhanceText(UUID pageId, UUID userId, TextEnhancementRequest request) {
+        return aiJobRunner.submit(AiJobType.ENHANCE_TEXT, userId, aiAssistantClient.provider(),
+                () -> prepareEnhanceText(pageId, userId, request));
+    }
+
+    private Callable<TextEnhancementResponse> prepareEnhanceText(UUID pageId, UUID userId, TextEnhancementRequest request) {
         LessonPage page = lessonPageRepository.findById(pageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Страница не найдена"));
 
@@ -57,13 +82,23 @@ public class AiService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Контент страницы не найден"));
 
-        try {
+        UUID lessonId = page.getLesson().getId();
+
+        String modelVersion = aiAssistantClient.modelVersion();
+        String cacheKey = aiEnhancementCache.key(request.getText(), request.getAction(), modelVersion);
+        var cached = aiEnhancementCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("AI text enhancement cache hit: lessonId={}, action={}", lessonId, request.getAction());
+            return AiJobTask.ready(new TextEnhancementResponse(cached.get()));
+        }
+
+        Callable<TextEnhancementResponse> model = () -> {
             var response = aiAssistantClient.enhanceText(request.getText(), request.getAction());
 
             if (response.isEmpty()) {
                 // Пустой или некорректный ответ
                 log.warn("AI invalid response: pageId={}, lessonId={}, action={}",
-                        pageId, page.getLesson().getId(), request.getAction());
+                        pageId, lessonId, request.getAction());
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Не удалось обработать запрос. Попробуйте изменить формулировку");
             }
@@ -71,32 +106,39 @@ public class AiService {
             // Проверка на валидность ответа
             if (response.get().getEnhancedText() == null || response.get().getEnhancedText().isBlank()) {
                 log.warn("AI invalid response: pageId={}, lessonId={}, action={}",
-                        pageId, page.getLesson().getId(), request.getAction());
+                        pageId, lessonId, request.getAction());
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Не удалось обработать запрос. Попробуйте изменить формулировку");
             }
 
             // Логирование успешной генерации (17.6)
-            log.info("AI text enhancement success: lessonId={}, action={}",
-                    page.getLesson().getId(), request.getAction());
+            log.info("AI text enhancement success: lessonId={}, action={}", lessonId, request.getAction());
 
             return response.get();
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            // Обработка ошибок AI-сервиса (таймаут, 5xx и т.д.) (17.7)
-            log.warn("AI service unavailable: pageId={}, lessonId={}, error={}",
-                    pageId, page.getLesson().getId(), e.getMessage());
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                    "AI-ассистент временно недоступен. Пожалуйста, попробуйте позже");
-        }
+        };
+        // в persistent-режиме put - запись в БД: только после успеха, вне прерываемого вызова модели
+        return AiJobTask.withCompletion(model, result ->
+                aiEnhancementCache.put(cacheKey, request.getAction(), modelVersion, result.getEnhancedText()));
     }
 
     /**
      * Сценарий 18: Генерация тестовых вопросов с помощью AI
      */
-    @Transactional(readOnly = true)
     public TestGenerationResponse generateTestQuestions(UUID lessonId, UUID userId, TestGenerationRequest request) {
+        return aiJobRunner.await(startGenerateTestQuestions(lessonId, userId, request), TestGenerationResponse.class);
+    }
+
+    public AiJobDto submitGenerateTestQuestions(UUID lessonId, UUID userId, TestGenerationRequest request) {
+        return startGenerateTestQuestions(lessonId, userId, request).toDto();
+    }
+
+    private AiJob startGenerateTestQuestions(UUID lessonId, UUID userId, TestGenerationRequest request) {
+        return aiJobRunner.submit(AiJobType.GENERATE_TEST, userId, aiAssistantClient.provider(),
+                () -> prepareGenerateTestQuestions(lessonId, userId, request));
+    }
+
+    private Callable<TestGenerationResponse> prepareGenerateTestQuestions(UUID lessonId, UUID userId,
+                                                                          TestGenerationRequest request) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Урок не найден"));
 
@@ -113,8 +155,8 @@ public class AiService {
                     "В уроке должна быть хотя бы одна страница с тестовыми заданиями");
         }
 
-        // Собираем контекст из методических страниц урока
-        String context = buildLessonContext(lessonId);
+        // Собираем контекст из методических страниц урока (в пределах бюджета, приоритет - тема)
+        String context = lessonContextBuilder.build(lessonId, request.getTopic());
 
         if (context.length() < 100) {
             // Логирование недостаточного контекста (18.7)
@@ -124,7 +166,7 @@ public class AiService {
                     "Недостаточно контекста для генерации вопросов. Добавьте больше учебного материала в урок");
         }
 
-        try {
+        return () -> {
             var response = aiAssistantClient.generateTestQuestions(
                     context,
                     request.getTopic(),
@@ -144,20 +186,27 @@ public class AiService {
                     lessonId, response.get().getQuestions().size());
 
             return response.get();
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            log.warn("AI service unavailable: lessonId={}, error={}", lessonId, e.getMessage());
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                    "AI-ассистент временно недоступен. Пожалуйста, попробуйте позже");
-        }
+        };
     }
 
     /**
      * Сценарий 19: Генерация кодового задания с помощью AI
      */
-    @Transactional(readOnly = true)
     public CodeTaskGenerationResponse generateCodeTask(UUID lessonId, UUID userId, CodeTaskGenerationRequest request) {
+        return aiJobRunner.await(startGenerateCodeTask(lessonId, userId, request), CodeTaskGenerationResponse.class);
+    }
+
+    public AiJobDto submitGenerateCodeTask(UUID lessonId, UUID userId, CodeTaskGenerationRequest request) {
+        return startGenerateCodeTask(lessonId, userId, request).toDto();
+    }
+
+    private AiJob startGenerateCodeTask(UUID lessonId, UUID userId, CodeTaskGenerationRequest request) {
+        return aiJobRunner.submit(AiJobType.GENERATE_CODE_TASK, userId, aiAssistantClient.provider(),
+                () -> prepareGenerateCodeTask(lessonId, userId, request));
+    }
+
+    private Callable<CodeTaskGenerationResponse> prepareGenerateCodeTask(UUID lessonId, UUID userId,
+                                                                         CodeTaskGenerationRequest request) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Урок не найден"));
 
@@ -174,7 +223,7 @@ public class AiService {
                     "В уроке должна быть хотя бы одна страница с кодовыми заданиями");
         }
 
-        try {
+        return () -> {
             var response = aiAssistantClient.generateCodeTask(
                     request.getTopic(),
                     request.getLanguage(),
@@ -194,13 +243,26 @@ public class AiService {
                     lessonId, request.getLanguage());
 
             return response.get();
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            log.warn("AI service unavailable: lessonId={}, error={}", lessonId, e.getMessage());
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                    "AI-ассистент временно недоступен. Пожалуйста, попробуйте позже");
+        };
+    }
+
+    /**
+     * Состояние задачи; при waitMs > 0 ответ приходит, как только задача завершится (но не позже waitMs).
+     * Ожидание не занимает ни servlet-поток, ни соединение с БД.
+     */
+    public CompletableFuture<AiJobDto> getJob(UUID jobId, UUID userId, Long waitMs) {
+        AiJob job = aiJobRunner.get(jobId, userId);
+        Duration wait = aiJobRunner.clampWait(waitMs);
+        if (wait.isZero() || job.getStatus().isTerminal()) {
+            return CompletableFuture.completedFuture(job.toDto());
         }
+        return job.completion().copy()
+                .completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> job.toDto());
+    }
+
+    public AiJobDto cancelJob(UUID jobId, UUID userId) {
+        return aiJobRunner.cancel(jobId, userId).toDto();
     }
 
     private void ensureCourseAdmin(UUID courseId, UUID userId) {
@@ -214,23 +276,4 @@ public class AiService {
                     "Недостаточно прав для управления курсом");
         }
     }
-
-    private String buildLessonContext(UUID lessonId) {
-        List<LessonPage> pages = lessonPageRepository.findByLessonIdOrderBySortOrderAsc(lessonId);
-        StringBuilder context = new StringBuilder();
-
-        for (LessonPage page : pages) {
-            if (page.getPageType() == PageType.THEORY) {
-                methodicalPageContentRepository.findById(page.getId())
-                        .ifPresent(content -> {
-                            if (content.getMarkdown() != null) {
-                                context.append(content.getMarkdown()).append("\n\n");
-                            }
-                        });
-            }
-        }
-
-        return context.toString().trim();
-    }
 }
-
@@ -42,6 +42,7 @@ public class CodeTaskService {
     private final QuestionRepository questionRepository;
     private final QuestionTestCaseRepository questionTestCaseRepository;
     private final CourseMemberRepository courseMemberRepository;
+    private final CourseRevisionCounter courseRevisionCounter;
 
     @Transactional
     public CodeTaskDto saveCodeTask(UUID pageId, UUID userId, CodeTaskUpsertRequest req) {
@@ -133,6 +134,7 @@ public class CodeTaskService {
                 testEntities.add(testCase);
             }
             List<QuestionTestCase> savedTests = questionTestCaseRepository.saveAll(testEntities);
+            courseRevisionCounter.bump(courseId);
 
             log.info(
                     "Code page added: courseId={}, lessonId={}, pageId={}, questionId={}, testsCount={}",
@@ -0,0 +1,119 @@
+package ru.offer.hunt.oh_course.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Очередь инвайтов соавторам: запрос только кладёт инвайты (после коммита, чтобы не звать
+ * откатившихся участников), отправляет их один виртуальный поток пачками до batch-size.
+ * Очередь ограничена capacity; при переполнении инвайт теряется с предупреждением в лог и метрикой -
+ * участник уже добавлен, а событие MEMBER_ADDED остаётся в outbox.
+ */
+@Component
+@Slf4j
+public class CollaboratorInviteQueue {
+
+    public record Invite(UUID courseId, UUID inviterId, UUID collaboratorId, String collaboratorEmail) {}
+
+    private final CollaboratorNotificationService notificationService;
+    private final BlockingQueue<Invite> queue;
+    private final int batchSize;
+    private final Counter dropped;
+    private final Thread worker;
+
+    public CollaboratorInviteQueue(
+            CollaboratorNotificationService notificationService,
+            MeterRegistry meterRegistry,
+            @Value("${app.members.invites.capacity:10000}") int capacity,
+            @Value("${app.members.invites.batch-size:100}") int batchSize
+    ) {
+        this.notificationService = notificationService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.dropped = Counter.builder("oh.course.members.invites.dropped")
+                .description("Инвайты, не поместившиеся в очередь")
+                .register(meterRegistry);
+        Gauge.builder("oh.course.members.invites.pending", queue, BlockingQueue::size)
+                .description("Инвайты в очереди на отправку")
+                .register(meterRegistry);
+        this.worker = Thread.ofVirtual().name("collaborator-invites").start(this::drain);
+    }
+
+    /**
+     * Поставить инвайты в очередь; внутри транзакции - после её коммита.
+     */
+    public void enqueue(List<Invite> invites) {
+        if (invites.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offerAll(invites);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offerAll(invites);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.interrupt();
+    }
+
+    private void offerAll(List<Invite> invites) {
+        int lost = 0;
+        for (Invite invite : invites) {
+            if (!queue.offer(invite)) {
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            dropped.increment(lost);
+            log.warn("Collaborator invites dropped - queue is full: dropped={}, courseId={}",
+                    lost, invites.get(0).courseId());
+        }
+    }
+
+    private void drain() {
+        List<Invite> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            for (Invite invite : batch) {
+                try {
+                    notificationService.sendCollaboratorInvite(
+                            invite.courseId(),
+                            invite.inviterId(),
+                            invite.collaboratorId(),
+                            invite.collaboratorEmail());
+                } catch (Exception e) {
+                    log.error("Collaborator invite failed: courseId={}, collaboratorId={}",
+                            invite.courseId(), invite.collaboratorId(), e);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
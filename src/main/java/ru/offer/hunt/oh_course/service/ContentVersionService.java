@@ -37,6 +37,7 @@ public class ContentVersionService {
     private final CourseMemberRepository courseMemberRepository;
     private final ContentVersionRepository contentVersionRepository;
     private final ObjectMapper objectMapper;
+    private final CourseRevisionCounter courseRevisionCounter;
 
     // Course versions
 
@@ -158,6 +159,7 @@ public class ContentVersionService {
             course.setUpdatedAt(OffsetDateTime.now());
 
             courseRepository.save(course);
+            courseRevisionCounter.bump(course);
 
             log.info("Version restored: scope=COURSE, courseId={}, versionId={}, userId={}",
                     course.getId(), version.getId(), userId);
@@ -298,6 +300,7 @@ public class ContentVersionService {
             lesson.setUpdatedAt(OffsetDateTime.now());
 
             lessonRepository.save(lesson);
+            courseRevisionCounter.bump(courseId);
 
             log.info("Version restored: scope=LESSON, courseId={}, lessonId={}, versionId={}, userId={}",
                     courseId, lessonId, version.getId(), userId);
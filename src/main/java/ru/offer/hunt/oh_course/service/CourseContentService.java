@@ -1,11 +1,14 @@
 package ru.offer.hunt.oh_course.service;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,19 +31,50 @@ public class CourseContentService {
             .text("Записаться на курс, чтобы получить полный доступ и выполнять задания")
             .build();
 
+    private static final String STRUCTURE_LITE_SQL = """
+            select c.id as course_id, c.slug, c.status as course_status,
+                   l.id as lesson_id, l.title as lesson_title, l.order_index, l.duration_min, l.is_demo,
+                   p.id as page_id, p.title as page_title, p.page_type, p.sort_order as page_sort_order,
+                   q.id as question_id
+            from course.course_courses c
+            left join course.course_lessons l on l.course_id = c.id
+            left join course.course_lesson_pages p on p.lesson_id = l.id
+            left join course.course_questions q on q.page_id = p.id
+            where c.id = ?
+            order by l.order_index, l.id, p.sort_order, p.id, q.sort_order, q.id
+            """;
+
+    /**
+     * Прошедшая проверки доступа демо-страница: всё, что нужно для ETag и ключа кэша.
+     */
+    public record DemoPage(UUID pageId, UUID courseId, long contentRevision, String title, PageType pageType) {}
+
     private final CourseRepository courseRepository;
     private final LessonRepository lessonRepository;
     private final LessonPageRepository lessonPageRepository;
     private final MethodicalPageContentRepository methodicalRepo;
     private final CourseQuestionRepository questionRepository;
-    private final CourseQuestionOptionRepository optionRepository;
+    private final PublishedCourseCache publishedCourseCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Outline вместе с fingerprint, по которому контроллер строит ETag.
+     */
+    public PublishedCourseCache.CachedOutline getCourseOutline(String slug, String inviteCode) {
+        PublishedCourseCache.CachedOutline cached = publishedCourseCache.getOutline(slug, this::loadOutline);
+
+        // inviteCode проверяется на каждом запросе, в кэше только данные для проверки
+        ensureInviteIfPrivate(cached.accessType(), cached.inviteCode(), inviteCode);
+
+        return cached;
+    }
 
-    public CourseOutlineDto getCourseOutline(String slug, String inviteCode) {
+    private PublishedCourseCache.CachedOutline loadOutline(String slug) {
+        // до сущности, как в CourseService: тег может оказаться старше тела, но не новее
+        String fingerprint = courseRepository.findContentFingerprintBySlug(slug).orElse("");
         Course course = courseRepository.findBySlugAndStatus(slug, CourseStatus.PUBLISHED)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден"));
 
-        ensureInviteIfPrivate(course, inviteCode);
-
         List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(course.getId());
 
         List<LessonOutlineDto> out = lessons.stream()
@@ -54,11 +88,14 @@ public class CourseContentService {
                         .build())
                 .toList();
 
-        return CourseOutlineDto.builder()
+        CourseOutlineDto outline = CourseOutlineDto.builder()
                 .courseId(course.getId())
                 .slug(course.getSlug())
                 .lessons(out)
                 .build();
+
+        return new PublishedCourseCache.CachedOutline(
+                course.getId(), outline, course.getAccessType(), course.getInviteCode(), fingerprint);
     }
 
     public List<LessonPageShortDto> getDemoLessonPages(UUID lessonId, String inviteCode) {
@@ -80,18 +117,37 @@ public class CourseContentService {
                 .toList();
     }
 
-    public PageViewDto getDemoPageView(UUID pageId, String inviteCode) {
-        LessonPage page = lessonPageRepository.findById(pageId)
+    /**
+     * Демо-страница одним запросом (страница + demo урока + доступ и ревизия курса) с проверками доступа.
+     * Содержимое - через getDemoPageView(page), из кэша по (pageId, ревизия).
+     */
+    public DemoPage resolveDemoPage(UUID pageId, String inviteCode) {
+        LessonPageRepository.DemoPageHeader header = lessonPageRepository.findDemoPageHeader(pageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Страница не найдена"));
 
-        Lesson lesson = page.getLesson();
-        Course course = lesson.getCourse();
+        if (header.getCourseStatus() != CourseStatus.PUBLISHED) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден");
+        }
+        ensureInviteIfPrivate(header.getAccessType(), header.getInviteCode(), inviteCode);
+        if (!header.isDemo()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Этот урок доступен только после записи на курс");
+        }
+        return new DemoPage(header.getPageId(), header.getCourseId(), header.getContentRevision(),
+                header.getTitle(), header.getPageType());
+    }
 
-        ensurePublished(course);
-        ensureInviteIfPrivate(course, inviteCode);
-        ensureDemoLesson(lesson);
+    public PageViewDto getDemoPageView(UUID pageId, String inviteCode) {
+        return getDemoPageView(resolveDemoPage(pageId, inviteCode));
+    }
+
+    public PageViewDto getDemoPageView(DemoPage page) {
+        return publishedCourseCache.getDemoPage(page.pageId(), page.contentRevision(),
+                key -> loadDemoPageView(page));
+    }
 
-        PageType type = page.getPageType();
+    private PageViewDto loadDemoPageView(DemoPage page) {
+        UUID pageId = page.pageId();
+        PageType type = page.pageType();
 
         // THEORY
         if (type == PageType.THEORY) {
@@ -99,8 +155,8 @@ public class CourseContentService {
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Контент страницы не найден"));
 
             return PageViewDto.builder()
-                    .pageId(page.getId())
-                    .title(page.getTitle())
+                    .pageId(pageId)
+                    .title(page.title())
                     .pageType(type)
                     .readOnly(true)
                     .methodical(MethodicalContentDto.builder()
@@ -114,30 +170,26 @@ public class CourseContentService {
 
         // TEST / CODE_TASK (read-only + без секретов!)
         if (type == PageType.TEST || type == PageType.CODE_TASK) {
-            List<CourseQuestion> questions = questionRepository.findByPageIdOrderBySortOrderAsc(pageId);
-
-            List<UUID> qIds = questions.stream().map(CourseQuestion::getId).toList();
-            Map<UUID, List<CourseQuestionOption>> optionsByQ = new HashMap<>();
-
-            if (!qIds.isEmpty()) {
-                List<CourseQuestionOption> options = optionRepository.findAllByQuestionIdsOrdered(qIds);
-                for (CourseQuestionOption o : options) {
-                    optionsByQ.computeIfAbsent(o.getQuestion().getId(), k -> new ArrayList<>()).add(o);
-                }
+            Map<UUID, List<CourseQuestionRepository.QuestionViewRow>> rowsByQ = new LinkedHashMap<>();
+            for (CourseQuestionRepository.QuestionViewRow row : questionRepository.findViewRowsByPageId(pageId)) {
+                rowsByQ.computeIfAbsent(row.getQuestionId(), k -> new ArrayList<>()).add(row);
             }
 
-            List<QuestionViewDto> outQuestions = questions.stream()
-                    .map(q -> QuestionViewDto.builder()
-                            .id(q.getId())
-                            .type(q.getType())
-                            .text(q.getText())
-                            .options(mapOptionsForView(q, optionsByQ.getOrDefault(q.getId(), List.of())))
-                            .build())
+            List<QuestionViewDto> outQuestions = rowsByQ.values().stream()
+                    .map(rows -> {
+                        CourseQuestionRepository.QuestionViewRow q = rows.get(0);
+                        return QuestionViewDto.builder()
+                                .id(q.getQuestionId())
+                                .type(q.getType())
+                                .text(q.getText())
+                                .options(mapOptionsForView(q.getType(), rows))
+                                .build();
+                    })
                     .toList();
 
             return PageViewDto.builder()
-                    .pageId(page.getId())
-                    .title(page.getTitle())
+                    .pageId(pageId)
+                    .title(page.title())
                     .pageType(type)
                     .readOnly(true)
                     .methodical(null)
@@ -149,52 +201,18 @@ public class CourseContentService {
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный тип страницы");
     }
 
+    /**
+     * Lite-структура для Learning: на каждую сессию ученика, поэтому из кэша по ревизии контента курса.
+     * Промах - один плоский запрос курс -> уроки -> страницы -> id вопросов, строки сразу складываются в DTO.
+     */
     public CourseOutlineLiteDto getCourseStructureLite(UUID courseId){
         try{
-            Course course = courseRepository.findById(courseId)
+            CourseRepository.RevisionState state = courseRepository.findRevisionStateById(courseId)
+                    .filter(s -> s.getStatus() == CourseStatus.PUBLISHED)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден"));
 
-            ensurePublished(course);
-            List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
-
-            List<LessonOutlineLiteDto> lessonDtos = new ArrayList<>();
-
-            for (Lesson lesson : lessons) {
-
-                List<LessonPage> pages =
-                        lessonPageRepository.findByLessonIdOrderBySortOrderAsc(lesson.getId());
-
-                List<LessonPageOutlineLiteDto> pageDtos = new ArrayList<>();
-
-                for (LessonPage page : pages) {
-
-                    List<UUID> questions =
-                            questionRepository.findByPageIdOrderBySortOrderAsc(page.getId())
-                                    .stream()
-                                    .map(CourseQuestion::getId).collect(Collectors.toList());
-
-                    pageDtos.add(new LessonPageOutlineLiteDto(
-                            page.getId(),
-                            page.getTitle(),
-                            page.getPageType(),
-                            page.getSortOrder(),
-                            questions
-                    ));
-                }
-
-                lessonDtos.add(new LessonOutlineLiteDto(
-                        lesson.getId(),
-                        lesson.getTitle(),
-                        lesson.getOrderIndex(),
-                        lesson.getDurationMin(),
-                        lesson.isDemo(),
-                        false,
-                        pageDtos
-                ));
-            }
-
-            return new CourseOutlineLiteDto(course.getId(), course.getSlug(), lessonDtos);
-
+            return publishedCourseCache.getStructureLite(courseId, state.getContentRevision(),
+                    key -> loadStructureLite(courseId));
 
         }catch (ResponseStatusException e) {
             throw e;
@@ -208,17 +226,87 @@ public class CourseContentService {
 
     }
 
-    private List<QuestionOptionViewDto> mapOptionsForView(CourseQuestion q, List<CourseQuestionOption> options) {
+    private CourseOutlineLiteDto loadStructureLite(UUID courseId) {
+        StructureLiteCollector collector = new StructureLiteCollector();
+        jdbcTemplate.query(STRUCTURE_LITE_SQL, collector, courseId);
+
+        // курс могли снять с публикации между проверкой ревизии и этим запросом
+        if (collector.result == null || !CourseStatus.PUBLISHED.name().equals(collector.status)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден");
+        }
+        return collector.result;
+    }
+
+    /**
+     * Строки отсортированы по урокам/страницам/вопросам: новый урок или страница начинается при смене id.
+     * Уроки без страниц и страницы без вопросов приходят одной строкой с null в дочерних колонках.
+     */
+    private static final class StructureLiteCollector implements RowCallbackHandler {
+
+        private CourseOutlineLiteDto result;
+        private String status;
+        private LessonOutlineLiteDto lesson;
+        private LessonPageOutlineLiteDto page;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (result == null) {
+                status = rs.getString("course_status");
+                result = new CourseOutlineLiteDto(
+                        rs.getObject("course_id", UUID.class), rs.getString("slug"), new ArrayList<>());
+            }
+
+            UUID lessonId = rs.getObject("lesson_id", UUID.class);
+            if (lessonId == null) {
+                return;
+            }
+            if (lesson == null || !lesson.getId().equals(lessonId)) {
+                lesson = new LessonOutlineLiteDto(
+                        lessonId,
+                        rs.getString("lesson_title"),
+                        (Integer) rs.getObject("order_index"),
+                        (Integer) rs.getObject("duration_min"),
+                        rs.getBoolean("is_demo"),
+                        false,
+                        new ArrayList<>());
+                result.getLessons().add(lesson);
+                page = null;
+            }
+
+            UUID pageId = rs.getObject("page_id", UUID.class);
+            if (pageId == null) {
+                return;
+            }
+            if (page == null || !page.getId().equals(pageId)) {
+                page = new LessonPageOutlineLiteDto(
+                        pageId,
+                        rs.getString("page_title"),
+                        PageType.valueOf(rs.getString("page_type")),
+                        (Integer) rs.getObject("page_sort_order"),
+                        new ArrayList<>());
+                lesson.getPages().add(page);
+            }
+
+            UUID questionId = rs.getObject("question_id", UUID.class);
+            if (questionId != null) {
+                page.getQuestions().add(questionId);
+            }
+        }
+    }
+
+    private List<QuestionOptionViewDto> mapOptionsForView(QuestionType type,
+                                                          List<CourseQuestionRepository.QuestionViewRow> rows) {
         // options имеет смысл только для choice-вопросов
-        if (q.getType() != QuestionType.SINGLE_CHOICE && q.getType() != QuestionType.MULTIPLE_CHOICE) {
+        if (type != QuestionType.SINGLE_CHOICE && type != QuestionType.MULTIPLE_CHOICE) {
             return List.of();
         }
 
-        return options.stream()
-                .map(o -> QuestionOptionViewDto.builder()
-                        .id(o.getId())
-                        .label(o.getLabel())
-                        .sortOrder(o.getSortOrder())
+        return rows.stream()
+                .filter(r -> r.getOptionId() != null)
+                .map(r -> QuestionOptionViewDto.builder()
+                        .id(r.getOptionId())
+                        .label(r.getOptionLabel())
+                        .sortOrder(r.getOptionSortOrder())
                         .build())
                 .toList();
     }
@@ -237,8 +325,11 @@ public class CourseContentService {
     }
 
     private void ensureInviteIfPrivate(Course course, String inviteCode) {
-        if (course.getAccessType() == AccessType.PRIVATE_LINK) {
-            String expected = course.getInviteCode();
+        ensureInviteIfPrivate(course.getAccessType(), course.getInviteCode(), inviteCode);
+    }
+
+    private void ensureInviteIfPrivate(AccessType accessType, String expected, String inviteCode) {
+        if (accessType == AccessType.PRIVATE_LINK) {
             if (expected == null || inviteCode == null || !expected.equals(inviteCode)) {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Доступ к этому курсу ограничен");
             }
@@ -0,0 +1,54 @@
+package ru.offer.hunt.oh_course.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import ru.offer.hunt.oh_course.model.repository.CourseRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Сильные ETag для публичных GET по курсу. Для кэшируемых карточки и outline тег строится из fingerprint,
+ * сохранённого вместе со значением в PublishedCourseCache: он описывает именно отдаваемое тело,
+ * а проверки доступа к этому моменту уже пройдены. Структура не кэшируется - её тег считается
+ * одним агрегатным запросом до сборки DTO.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CourseEtagService {
+
+    private final CourseRepository courseRepository;
+
+    public String courseEtag(PublishedCourseCache.CachedCourse cached) {
+        return etag("course", cached.course().getId(), cached.fingerprint());
+    }
+
+    public String outlineEtag(PublishedCourseCache.CachedOutline cached) {
+        return etag("outline", cached.courseId(), cached.fingerprint());
+    }
+
+    /**
+     * Версия страницы = ревизия контента курса (учитывает опции/вопросы и статус) из уже загруженного
+     * заголовка страницы - без отдельного запроса. Доступ проверен в CourseContentService.resolveDemoPage.
+     */
+    public String demoPageEtag(CourseContentService.DemoPage page) {
+        return etag("page:" + page.pageId(), page.courseId(), "rev:" + page.contentRevision());
+    }
+
+    /**
+     * Разные проекции fields - разные представления, у каждой свой ETag.
+     */
+    public Optional<String> structureEtag(UUID courseId, CourseStructureFields fields) {
+        return courseRepository.findContentFingerprintById(courseId)
+                .map(fingerprint -> etag("structure:" + fields.key(), courseId, fingerprint));
+    }
+
+    private String etag(String representation, UUID courseId, String fingerprint) {
+        String source = representation + "|" + courseId + "|" + fingerprint;
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -1,33 +1,62 @@
 package ru.offer.hunt.oh_course.service;
 
+import java.sql.PreparedStatement;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.exception.UserDirectoryException;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportRequest;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportResult;
 import ru.offer.hunt.oh_course.model.dto.CourseMemberDto;
 import ru.offer.hunt.oh_course.model.dto.CourseMemberUpsertRequest;
 import ru.offer.hunt.oh_course.model.entity.Course;
 import ru.offer.hunt.oh_course.model.entity.CourseMember;
+import ru.offer.hunt.oh_course.model.enums.CourseEventType;
 import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
 import ru.offer.hunt.oh_course.model.id.CourseMemberId;
 import ru.offer.hunt.oh_course.model.repository.CourseMemberRepository;
 import ru.offer.hunt.oh_course.model.repository.CourseRepository;
+import ru.offer.hunt.oh_course.outbox.CourseEventPayload;
+import ru.offer.hunt.oh_course.outbox.CourseOutbox;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CourseMemberService {
 
+    // returning отдаёт только реально вставленные строки: конфликт (участника добавил параллельный запрос)
+    // в ответ не попадает, и это не зависит от того, как драйвер считает строки пакета
+    private static final String INSERT_MEMBERS_SQL = """
+            insert into course.course_members (course_id, user_id, role, added_at, added_by)
+            select cast(? as uuid), m.user_id, m.role, cast(? as timestamptz), cast(? as uuid)
+            from unnest(cast(? as uuid[]), cast(? as varchar[])) as m(user_id, role)
+            on conflict (course_id, user_id) do nothing
+            returning user_id
+            """;
+
     private final CourseRepository courseRepository;
     private final CourseMemberRepository courseMemberRepository;
     private final UserDirectoryClient userDirectoryClient;
-    private final CollaboratorNotificationService collaboratorNotificationService;
+    private final CollaboratorInviteQueue collaboratorInviteQueue;
+    private final CourseOutbox courseOutbox;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.members.import-max-size:500}")
+    private int importMaxSize;
 
     /**
      * Добавление соавтора (Автор/Модератор) в курс.
@@ -77,12 +106,18 @@ public class CourseMemberService {
 
             CourseMember saved = courseMemberRepository.save(member);
 
-            collaboratorNotificationService.sendCollaboratorInvite(
+            courseOutbox.append(CourseEventType.MEMBER_ADDED, CourseEventPayload.forCourse(course)
+                    .actorId(currentUserId)
+                    .memberUserId(targetUser.getId())
+                    .memberRole(saved.getRole())
+                    .build());
+
+            collaboratorInviteQueue.enqueue(List.of(new CollaboratorInviteQueue.Invite(
                     course.getId(),
                     currentUserId,
                     targetUser.getId(),
                     targetUser.getEmail()
-            );
+            )));
 
             log.info(
                     "Collaborator added: courseId={}, collaboratorId={}, role={}, addedBy={}",
@@ -103,6 +138,14 @@ public class CourseMemberService {
 
         } catch (ResponseStatusException e) {
             throw e;
+        } catch (UserDirectoryException e) {
+            log.warn("Collaborator add failed - user directory unavailable: courseId={}, byUserId={}, error={}",
+                    courseId, currentUserId, e.getMessage());
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Сервис пользователей временно недоступен. Попробуйте позже.",
+                    e
+            );
         } catch (Exception e) {
             log.error(
                     "Collaborator add failed - server error, courseId={}, byUserId={}, email={}",
@@ -119,6 +162,159 @@ public class CourseMemberService {
         }
     }
 
+    /**
+     * Пакетное добавление соавторов: пользователи ищутся одним пакетом в справочнике,
+     * уже добавленные отсеиваются одним запросом, новые вставляются одним insert ... select from unnest.
+     * Повтор email в запросе - учитывается первое вхождение. Инвайты уходят через очередь после коммита.
+     */
+    @Transactional
+    public CourseMemberBulkImportResult importCollaborators(UUID courseId,
+                                                            UUID currentUserId,
+                                                            CourseMemberBulkImportRequest request) {
+        try {
+            if (request.getMembers().size() > importMaxSize) {
+                log.warn("Collaborator import rejected - too many members: courseId={}, size={}, max={}",
+                        courseId, request.getMembers().size(), importMaxSize);
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Слишком много участников в одном запросе (максимум " + importMaxSize + ")");
+            }
+
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND, "Курс не найден"));
+
+            ensureCanManageMembers(course.getId(), currentUserId);
+
+            Map<String, CourseMemberRole> rolesByEmail = new LinkedHashMap<>();
+            for (CourseMemberUpsertRequest member : request.getMembers()) {
+                rolesByEmail.putIfAbsent(normalizeEmail(member.getEmail()), member.getRole());
+            }
+
+            Map<String, UserDirectoryClient.UserInfo> users =
+                    userDirectoryClient.findAllByEmails(rolesByEmail.keySet());
+
+            CourseMemberBulkImportResult result = new CourseMemberBulkImportResult();
+            Map<String, UserDirectoryClient.UserInfo> candidates = new LinkedHashMap<>();
+            Set<UUID> seenUserIds = new HashSet<>();
+            for (String email : rolesByEmail.keySet()) {
+                UserDirectoryClient.UserInfo user = users.get(email);
+                if (user == null) {
+                    result.getNotFound().add(email);
+                } else if (!seenUserIds.add(user.getId())) {
+                    result.getAlreadyMembers().add(email);
+                } else {
+                    candidates.put(email, user);
+                }
+            }
+
+            Set<UUID> existing = candidates.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(courseMemberRepository.findMemberUserIds(course.getId(), seenUserIds));
+
+            OffsetDateTime now = OffsetDateTime.now();
+            List<String> insertEmails = new ArrayList<>();
+            List<CourseMemberDto> toInsert = new ArrayList<>();
+            candidates.forEach((email, user) -> {
+                if (existing.contains(user.getId())) {
+                    result.getAlreadyMembers().add(email);
+                    return;
+                }
+                CourseMemberDto dto = new CourseMemberDto();
+                dto.setCourseId(course.getId());
+                dto.setUserId(user.getId());
+                dto.setRole(rolesByEmail.get(email));
+                dto.setAddedAt(now);
+                dto.setAddedBy(currentUserId);
+                insertEmails.add(email);
+                toInsert.add(dto);
+            });
+
+            Set<UUID> inserted = toInsert.isEmpty()
+                    ? Set.of()
+                    : insertMembers(course.getId(), currentUserId, now, toInsert);
+
+            List<CollaboratorInviteQueue.Invite> invites = new ArrayList<>();
+            List<CourseEventPayload> events = new ArrayList<>();
+            for (int i = 0; i < toInsert.size(); i++) {
+                CourseMemberDto dto = toInsert.get(i);
+                String email = insertEmails.get(i);
+                // строку между проверкой и вставкой добавил параллельный запрос
+                if (!inserted.contains(dto.getUserId())) {
+                    result.getAlreadyMembers().add(email);
+                    continue;
+                }
+                result.getAdded().add(dto);
+                events.add(CourseEventPayload.forCourse(course)
+                        .actorId(currentUserId)
+                        .memberUserId(dto.getUserId())
+                        .memberRole(dto.getRole())
+                        .build());
+                invites.add(new CollaboratorInviteQueue.Invite(
+                        course.getId(), currentUserId, dto.getUserId(), email));
+            }
+
+            courseOutbox.appendAll(CourseEventType.MEMBER_ADDED, events);
+            collaboratorInviteQueue.enqueue(invites);
+
+            log.info(
+                    "Collaborators imported: courseId={}, requested={}, added={}, alreadyMembers={}, notFound={}, addedBy={}",
+                    course.getId(),
+                    rolesByEmail.size(),
+                    result.getAdded().size(),
+                    result.getAlreadyMembers().size(),
+                    result.getNotFound().size(),
+                    currentUserId
+            );
+
+            return result;
+
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (UserDirectoryException e) {
+            log.warn("Collaborator import failed - user directory unavailable: courseId={}, byUserId={}, error={}",
+                    courseId, currentUserId, e.getMessage());
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Сервис пользователей временно недоступен. Попробуйте позже.",
+                    e
+            );
+        } catch (Exception e) {
+            log.error(
+                    "Collaborator import failed - server error, courseId={}, byUserId={}",
+                    courseId,
+                    currentUserId,
+                    e
+            );
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Не удалось добавить соавторов. Попробуйте позже.",
+                    e
+            );
+        }
+    }
+
+    /**
+     * Одна вставка на весь список; возвращает id пользователей, которые действительно добавлены.
+     */
+    private Set<UUID> insertMembers(UUID courseId, UUID addedBy, OffsetDateTime addedAt,
+                                    List<CourseMemberDto> members) {
+        UUID[] userIds = members.stream().map(CourseMemberDto::getUserId).toArray(UUID[]::new);
+        String[] roles = members.stream().map(dto -> dto.getRole().name()).toArray(String[]::new);
+
+        List<UUID> inserted = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_MEMBERS_SQL);
+            ps.setObject(1, courseId);
+            ps.setObject(2, addedAt);
+            ps.setObject(3, addedBy);
+            ps.setArray(4, con.createArrayOf("uuid", userIds));
+            ps.setArray(5, con.createArrayOf("varchar", roles));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject("user_id", UUID.class));
+
+        return new HashSet<>(inserted);
+    }
+
     private void ensureCanManageMembers(UUID courseId, UUID userId) {
         boolean allowed = courseMemberRepository
                 .existsByIdCourseIdAndIdUserIdAndRoleIn(
@@ -0,0 +1,51 @@
+package ru.offer.hunt.oh_course.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.offer.hunt.oh_course.model.entity.Course;
+
+import java.util.UUID;
+
+/**
+ * Ревизия контента курса: один счётчик на курс, растёт при любом изменении дерева, тегов или статуса.
+ * Инкремент атомарный (update ... + 1) и идёт в транзакции вызывающего сервиса, поэтому
+ * откат изменения откатывает и ревизию. Hibernate колонку не пишет (updatable = false),
+ * так что сохранение загруженного Course не затирает значение.
+ * Каждый инкремент после коммита сбрасывает карточку курса в PublishedCourseCache:
+ * отдельные сервисы записи кэш сами не трогают.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseRevisionCounter {
+
+    private static final String INCREMENT_SQL =
+            "update course.course_courses set content_revision = content_revision + 1 where id = ?";
+    private static final String SELECT_SQL =
+            "select content_revision from course.course_courses where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PublishedCourseCache publishedCourseCache;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(UUID courseId) {
+        jdbcTemplate.update(INCREMENT_SQL, courseId);
+        publishedCourseCache.evict(courseId);
+        // строка уже заблокирована update'ом до конца транзакции - значение не уедет
+        return jdbcTemplate.queryForList(SELECT_SQL, Long.class, courseId).stream()
+                .findFirst()
+                .orElse(0L);
+    }
+
+    /**
+     * То же, плюс обновляет поле загруженной сущности, чтобы DTO в ответе уже видел новую ревизию.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(Course course) {
+        long revision = bump(course.getId());
+        course.setContentRevision(revision);
+        return revision;
+    }
+}
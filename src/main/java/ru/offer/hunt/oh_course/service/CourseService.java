@@ -2,33 +2,31 @@ package ru.offer.hunt.oh_course.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.offer.hunt.oh_course.exception.StatsServiceConnectionException;
+import ru.offer.hunt.oh_course.model.dto.CourseCatalogPageDto;
 import ru.offer.hunt.oh_course.model.dto.CourseDto;
 import ru.offer.hunt.oh_course.model.dto.CoursePreviewDto;
 import ru.offer.hunt.oh_course.model.dto.LessonDto;
 import ru.offer.hunt.oh_course.model.dto.LessonPreviewDto;
 import ru.offer.hunt.oh_course.model.entity.LessonPage;
-import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
-import ru.offer.hunt.oh_course.model.entity.Question;
-import ru.offer.hunt.oh_course.model.entity.QuestionOption;
-import ru.offer.hunt.oh_course.model.entity.QuestionTestCase;
 import ru.offer.hunt.oh_course.model.entity.TagRef;
+import ru.offer.hunt.oh_course.model.enums.CatalogSort;
+import ru.offer.hunt.oh_course.model.enums.CourseEventType;
 import ru.offer.hunt.oh_course.model.enums.CourseStatus;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withAuthorId;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withDurations;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withLanguages;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withLevels;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withQuery;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withStatus;
-import static ru.offer.hunt.oh_course.model.specification.CourseSpecification.withTechnologies;
-
-import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.publishedCatalogPage;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withAuthorId;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withDurations;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withLanguages;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withLevels;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.normalizeQuery;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withQuery;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withTechnologies;
+
 import ru.offer.hunt.oh_course.model.id.CourseTagId;
 import ru.offer.hunt.oh_course.model.mapper.*;
-import ru.offer.hunt.oh_course.model.enums.PageType;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -46,27 +44,28 @@ import org.springframework.web.server.ResponseStatusException;
 import ru.offer.hunt.oh_course.model.dto.CourseStatsDto;
 import ru.offer.hunt.oh_course.model.dto.CourseUpsertRequest;
 import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.CourseCatalogEntry;
 import ru.offer.hunt.oh_course.model.entity.CourseMember;
 import ru.offer.hunt.oh_course.model.entity.CourseStats;
 import ru.offer.hunt.oh_course.model.entity.Lesson;
 import ru.offer.hunt.oh_course.model.enums.AccessType;
 import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
 import ru.offer.hunt.oh_course.model.id.CourseMemberId;
-import ru.offer.hunt.oh_course.model.mapper.CloningMapper;
 import ru.offer.hunt.oh_course.model.mapper.CourseMapper;
 import ru.offer.hunt.oh_course.model.mapper.CourseStatsMapper;
 import ru.offer.hunt.oh_course.model.mapper.LessonMapper;
+import ru.offer.hunt.oh_course.model.repository.CourseCatalogEntryRepository;
 import ru.offer.hunt.oh_course.model.repository.CourseMemberRepository;
 import ru.offer.hunt.oh_course.model.repository.CourseRepository;
+import ru.offer.hunt.oh_course.model.repository.CourseSearchDocumentRepository;
 import ru.offer.hunt.oh_course.model.repository.CourseStatsRepository;
 import ru.offer.hunt.oh_course.model.repository.LessonPageRepository;
 import ru.offer.hunt.oh_course.model.repository.LessonRepository;
-import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
-import ru.offer.hunt.oh_course.model.repository.QuestionOptionRepository;
-import ru.offer.hunt.oh_course.model.repository.QuestionRepository;
-import ru.offer.hunt.oh_course.model.repository.QuestionTestCaseRepository;
 import ru.offer.hunt.oh_course.model.repository.TagRefRepository;
+import ru.offer.hunt.oh_course.model.search.CatalogCursor;
 import ru.offer.hunt.oh_course.model.search.CourseFilter;
+import ru.offer.hunt.oh_course.outbox.CourseEventPayload;
+import ru.offer.hunt.oh_course.outbox.CourseOutbox;
 
 @Service
 @RequiredArgsConstructor
@@ -78,14 +77,13 @@ public class CourseService {
     private final LessonMapper lessonMapper;
     private final LessonPageMapper lessonPageMapper;
 
-    private final MethodicalPageContentRepository contentRepository;
-    private final QuestionRepository questionRepository;
-    private final QuestionOptionRepository questionOptionRepository;
-    private final QuestionTestCaseRepository questionTestCaseRepository;
     private final TagRefRepository tagRefRepository;
+    private final CourseSearchDocumentRepository courseSearchDocumentRepository;
+    private final CourseCatalogEntryRepository courseCatalogEntryRepository;
+    private final CourseCatalogMapper courseCatalogMapper;
 
     private final CourseMapper courseMapper;
-    private final CloningMapper cloningMapper;
+    private final CourseStructureCloner courseStructureCloner;
 
     private static final int TITLE_MIN_LEN = 10;
     private static final int TITLE_MAX_LEN = 100;
@@ -97,36 +95,71 @@ public class CourseService {
     private final CourseStatsRepository courseStatsRepository;
     private final TagService tagService;
     private final CourseStatsMapper courseStatsMapper;
+    private final PublishedCourseCache publishedCourseCache;
+    private final CourseRevisionCounter courseRevisionCounter;
+    private final CourseOutbox courseOutbox;
+
+    @Value("${app.catalog.default-page-size:20}")
+    private int catalogDefaultPageSize;
+
+    @Value("${app.catalog.max-page-size:100}")
+    private int catalogMaxPageSize;
 
     @Transactional(readOnly = true)
-    public List<CourseDto> getPublishedCourses(CourseFilter courseFilter) {
+    public CourseCatalogPageDto getPublishedCourses(CourseFilter courseFilter,
+                                                    CatalogSort sort,
+                                                    Integer size,
+                                                    String pageToken) {
         CourseFilter f = courseFilter == null ? new CourseFilter() : courseFilter;
+        String searchQuery = normalizeQuery(f.getQuery());
+        CatalogSort s = resolveCatalogSort(sort, searchQuery);
+        int pageSize = resolveCatalogPageSize(size);
+        CatalogCursor after = decodePageToken(pageToken, s);
 
-        Specification<Course> spec = Specification.where(withStatus(CourseStatus.PUBLISHED))
-                .and(withAuthorId(f.getAuthorId()))
+        // только проекция course_catalog_view: в ней лишь опубликованные курсы, теги и статистика уже внутри
+        Specification<CourseCatalogEntry> spec = Specification.where(withAuthorId(f.getAuthorId()))
                 .and(withLanguages(f.getLanguage()))
                 .and(withTechnologies(f.getTechnologies()))
                 .and(withLevels(f.getLevel()))
                 .and(withDurations(f.getDuration()))
-                .and(withQuery(f.getQuery()));
+                .and(withQuery(searchQuery))
+                .and(publishedCatalogPage(s, after, searchQuery));
 
-        return courseRepository.findAll((Sort) spec).stream()
-                .map(c -> courseMapper.toDto(c, lessonRepository, lessonMapper, courseStatsRepository))
-                .toList();
+        // +1 строка, чтобы понять, есть ли следующая страница, без отдельного count(*)
+        List<CourseCatalogEntry> entries = courseCatalogEntryRepository.findBy(spec, q -> q.limit(pageSize + 1).all());
+        boolean hasNext = entries.size() > pageSize;
+
+        List<CourseDto> items = courseCatalogMapper.toDtos(entries.stream().limit(pageSize).toList());
+        if (searchQuery != null) {
+            applySearchHits(items, searchQuery);
+        }
+
+        String nextPageToken = hasNext ? CatalogCursor.after(s, items.getLast()).encode() : null;
+        return new CourseCatalogPageDto(items, nextPageToken, pageSize);
     }
 
-    public CourseDto getPublishedCourseBySlug(String slug, String inviteCode) {
-        Course course = courseRepository.findBySlugAndStatus(slug, CourseStatus.PUBLISHED)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден"));
+    /**
+     * Карточка вместе с fingerprint, по которому контроллер строит ETag.
+     */
+    public PublishedCourseCache.CachedCourse getPublishedCourseBySlug(String slug, String inviteCode) {
+        PublishedCourseCache.CachedCourse cached = publishedCourseCache.getBySlug(slug, key -> {
+            // fingerprint до сущности: при гонке с записью тег окажется старше тела, а не новее,
+            // и клиент не получит 304 на устаревшие данные
+            String fingerprint = courseRepository.findContentFingerprintBySlug(key).orElse("");
+            Course course = courseRepository.findBySlugAndStatus(key, CourseStatus.PUBLISHED)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден"));
+            return toCached(course, fingerprint);
+        });
 
-        if (course.getAccessType() == AccessType.PRIVATE_LINK) {
-            String expected = course.getInviteCode();
+        // проверка доступа на каждом запросе, в т.ч. при попадании в кэш
+        if (cached.accessType() == AccessType.PRIVATE_LINK) {
+            String expected = cached.inviteCode();
             if (expected == null || inviteCode == null || !expected.equals(inviteCode)) {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Доступ к этому курсу ограничен");
             }
         }
 
-        return courseMapper.toDto(course, lessonRepository, lessonMapper, courseStatsRepository);
+        return cached;
     }
 
     @Transactional
@@ -223,6 +256,9 @@ public class CourseService {
             course.setUpdatedAt(now);
 
             courseRepository.save(course);
+            courseRevisionCounter.bump(course);
+            courseOutbox.append(CourseEventType.COURSE_PUBLISHED,
+                    CourseEventPayload.forCourse(course).actorId(userId).build());
 
             log.info("Course published: courseId={}, userId={}", courseId, userId);
 
@@ -256,19 +292,14 @@ public class CourseService {
                 .filter(c -> c.getStatus() == CourseStatus.PUBLISHED)
                 .collect(Collectors.toMap(Course::getId, c -> c));
 
-        List<CourseDto> result = new ArrayList<>();
+        List<Course> ordered = new ArrayList<>();
         for (UUID id : ids) {
             Course course = byId.get(id);
             if (course != null) {
-                result.add(courseMapper.toDto(
-                        course,
-                        lessonRepository,
-                        lessonMapper,
-                        courseStatsRepository
-                ));
+                ordered.add(course);
             }
         }
-        return result;
+        return toDtos(ordered);
     }
 
     @Transactional(readOnly = true)
@@ -305,24 +336,25 @@ public class CourseService {
                 })
                 .toList();
 
-        return courses.stream()
-                .map(c -> courseMapper.toDto(c, lessonRepository, lessonMapper, courseStatsRepository))
-                .toList();
+        return toDtos(courses);
     }
 
     @Transactional(readOnly = true)
-    public CourseDto getCourseDetails(UUID courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Курс не найден"
-                ));
+    public PublishedCourseCache.CachedCourse getCourseDetails(UUID courseId) {
+        return publishedCourseCache.getById(courseId, key -> {
+            String fingerprint = courseRepository.findContentFingerprintById(key).orElse("");
+            Course course = courseRepository.findById(key)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND,
+                            "Курс не найден"
+                    ));
 
-        if (course.getStatus() != CourseStatus.PUBLISHED) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден");
-        }
+            if (course.getStatus() != CourseStatus.PUBLISHED) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Курс не найден");
+            }
 
-        return courseMapper.toDto(course, lessonRepository, lessonMapper, courseStatsRepository);
+            return toCached(course, fingerprint);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -358,6 +390,9 @@ public class CourseService {
             course.setArchivedAt(OffsetDateTime.now());
             course.setUpdatedAt(OffsetDateTime.now());
             courseRepository.save(course);
+            courseRevisionCounter.bump(course);
+            courseOutbox.append(CourseEventType.COURSE_ARCHIVED,
+                    CourseEventPayload.forCourse(course).actorId(userId).build());
 
             log.info("Course archived successfully. ID: {}", courseId);
 
@@ -386,6 +421,9 @@ public class CourseService {
             courseStatsRepository.deleteByCourseId(courseId);
 
             courseRepository.delete(course);
+            courseOutbox.append(CourseEventType.COURSE_DELETED,
+                    CourseEventPayload.forCourse(course).actorId(userId).build());
+            publishedCourseCache.evict(courseId);
 
             log.info("Course deleted successfully. ID: {}", courseId);
 
@@ -427,6 +465,7 @@ public class CourseService {
 
             if (changed) {
                 courseRepository.save(course);
+                courseRevisionCounter.bump(course);
                 log.info("Tags added. CourseID: {}", courseId);
             }
 
@@ -451,6 +490,7 @@ public class CourseService {
 
             if (removed) {
                 courseRepository.save(course);
+                courseRevisionCounter.bump(course);
                 log.info("Tags deleted. CourseID: {}, TagID: {}", courseId, tagId);
             } else {
                 throw new IllegalArgumentException("Тег не найден у курса");
@@ -537,9 +577,10 @@ public class CourseService {
         draftCourse.setCreatedAt(OffsetDateTime.now());
         draftCourse.setUpdatedAt(OffsetDateTime.now());
 
-        courseRepository.save(draftCourse);
+        // flush: структура копируется JDBC-пакетами в обход persistence context
+        courseRepository.saveAndFlush(draftCourse);
 
-        copyCourseStructure(sourceCourse.getId(), draftCourse.getId());
+        courseStructureCloner.cloneStructure(sourceCourse.getId(), draftCourse.getId());
 
         log.info("Draft version created. SourceID: {}, DraftID: {}, Version: {}",
                 sourceCourseId, draftCourse.getId(), draftCourse.getVersion());
@@ -568,6 +609,9 @@ public class CourseService {
             draftCourse.setUpdatedAt(OffsetDateTime.now());
 
             courseRepository.save(draftCourse);
+            courseRevisionCounter.bump(draftCourse);
+            courseOutbox.append(CourseEventType.COURSE_VERSION_PUBLISHED,
+                    CourseEventPayload.forCourse(draftCourse).actorId(userId).build());
 
             log.info("Course published successfully. ID: {}", draftCourseId);
 
@@ -596,40 +640,14 @@ public class CourseService {
                 oldVersion.setArchivedAt(OffsetDateTime.now());
                 oldVersion.setUpdatedAt(OffsetDateTime.now());
                 courseRepository.save(oldVersion);
+                courseRevisionCounter.bump(oldVersion);
+                courseOutbox.append(CourseEventType.COURSE_ARCHIVED,
+                        CourseEventPayload.forCourse(oldVersion).build());
                 log.info("Previous version archived. ID: {}", oldVersion.getId());
             }
         }
     }
 
-    private void copyCourseStructure(UUID sourceCourseId, UUID targetCourseId) {
-        List<Lesson> sourceLessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(sourceCourseId);
-        Course targetCourse = courseRepository.findById(targetCourseId)
-                .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + targetCourseId));
-
-        for (Lesson sourceLesson : sourceLessons) {
-            Lesson newLesson = cloningMapper.copyLesson(sourceLesson);
-
-            newLesson.setId(UUID.randomUUID());
-            newLesson.setCourse(targetCourse);
-            newLesson.setCreatedAt(OffsetDateTime.now());
-            newLesson.setUpdatedAt(OffsetDateTime.now());
-            lessonRepository.save(newLesson);
-
-            List<LessonPage> sourcePages = lessonPageRepository.findByLessonIdOrderBySortOrderAsc(sourceLesson.getId());
-            for (LessonPage sourcePage : sourcePages) {
-                LessonPage newPage = cloningMapper.copyPage(sourcePage);
-
-                newPage.setId(UUID.randomUUID());
-                newPage.setLesson(newLesson);
-                newPage.setCreatedAt(OffsetDateTime.now());
-                newPage.setUpdatedAt(OffsetDateTime.now());
-                lessonPageRepository.save(newPage);
-
-                copyPageContent(sourcePage.getId(), newPage.getId(), sourcePage.getPageType());
-            }
-        }
-    }
-
     private void validateCourseReadiness(Course course) {
         if (course.getTitle() == null || course.getDescription() == null || course.getCoverUrl() == null) {
             log.warn("Course publication failed - requirements not met. ID: {}", course.getId());
@@ -643,67 +661,75 @@ public class CourseService {
         }
     }
 
-    private void copyPageContent(UUID sourcePageId, UUID newPageId, PageType pageType) {
-        switch (pageType) {
-            case THEORY -> copyMethodicalContent(sourcePageId, newPageId);
-            case TEST, CODE_TASK -> copyQuestions(sourcePageId, newPageId);
+    private Course getCourseWithAuthCheck(UUID courseId, UUID userId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + courseId));
+
+        if (!course.getAuthorId().equals(userId)) {
+            log.warn("Unauthorized access attempt. User: {}, Course: {}", userId, courseId);
+            throw new SecurityException("У вас нет прав на редактирование этого курса");
         }
+        return course;
     }
 
-    private void copyMethodicalContent(UUID sourcePageId, UUID newPageId) {
-        contentRepository.findById(sourcePageId).ifPresent(source -> {
-            MethodicalPageContent newContent = cloningMapper.copyMethodical(source);
-            newContent.setPageId(newPageId);
-            newContent.setUpdatedAt(OffsetDateTime.now());
-            contentRepository.save(newContent);
-        });
+    private List<CourseDto> toDtos(List<Course> courses) {
+        return courseMapper.toDtos(courses, lessonRepository, lessonMapper, courseStatsRepository, tagRefRepository);
     }
 
-    private void copyQuestions(UUID sourcePageId, UUID newPageId) {
-        List<Question> sourceQuestions = questionRepository.findByPageIdOrderBySortOrderAsc(sourcePageId);
+    private CatalogSort resolveCatalogSort(CatalogSort sort, String searchQuery) {
+        if (sort == null) {
+            return searchQuery != null ? CatalogSort.RELEVANCE : CatalogSort.PUBLISHED_AT;
+        }
+        // без поисковой строки ранжировать нечего
+        return sort == CatalogSort.RELEVANCE && searchQuery == null ? CatalogSort.PUBLISHED_AT : sort;
+    }
+
+    /**
+     * Ранг и подсветка только для курсов текущей страницы - один запрос на страницу.
+     */
+    private void applySearchHits(List<CourseDto> items, String searchQuery) {
+        if (items.isEmpty()) {
+            return;
+        }
 
-        for (Question sourceQ : sourceQuestions) {
-            Question newQ = cloningMapper.copyQuestion(sourceQ);
-            newQ.setId(UUID.randomUUID());
-            newQ.setPageId(newPageId);
-            newQ.setCreatedAt(OffsetDateTime.now());
-            newQ.setUpdatedAt(OffsetDateTime.now());
-            questionRepository.save(newQ);
+        List<UUID> ids = items.stream().map(CourseDto::getId).toList();
+        Map<UUID, CourseSearchDocumentRepository.SearchHit> hits =
+                courseSearchDocumentRepository.findSearchHits(ids, searchQuery).stream()
+                        .collect(Collectors.toMap(CourseSearchDocumentRepository.SearchHit::getCourseId, h -> h));
 
-            copyQuestionOptions(sourceQ.getId(), newQ.getId());
-            if (sourceQ.getType() == QuestionType.CODE) {
-                copyQuestionTestCases(sourceQ.getId(), newQ.getId());
+        for (CourseDto dto : items) {
+            CourseSearchDocumentRepository.SearchHit hit = hits.get(dto.getId());
+            if (hit == null) {
+                continue;
             }
+            dto.setSearchRank(hit.getRank());
+            dto.setTitleHighlight(hit.getTitleHighlight());
+            dto.setSnippet(hit.getSnippet());
         }
     }
 
-    private void copyQuestionOptions(UUID sourceQId, UUID newQId) {
-        questionOptionRepository.findByQuestionIdOrderBySortOrderAsc(sourceQId).forEach(source -> {
-            QuestionOption newOpt = cloningMapper.copyOption(source);
-            newOpt.setId(UUID.randomUUID());
-            newOpt.setQuestionId(newQId);
-            questionOptionRepository.save(newOpt);
-        });
+    private PublishedCourseCache.CachedCourse toCached(Course course, String fingerprint) {
+        CourseDto dto = courseMapper.toDto(course, lessonRepository, lessonMapper, courseStatsRepository);
+        return new PublishedCourseCache.CachedCourse(dto, course.getAccessType(), course.getInviteCode(), fingerprint);
     }
 
-    private void copyQuestionTestCases(UUID sourceQId, UUID newQId) {
-        questionTestCaseRepository.findByQuestionId(sourceQId).forEach(source -> {
-            QuestionTestCase newCase = cloningMapper.copyTestCase(source);
-            newCase.setId(UUID.randomUUID());
-            newCase.setQuestionId(newQId);
-            questionTestCaseRepository.save(newCase);
-        });
+    private int resolveCatalogPageSize(Integer size) {
+        if (size == null) {
+            return catalogDefaultPageSize;
+        }
+        return Math.max(1, Math.min(size, catalogMaxPageSize));
     }
 
-    private Course getCourseWithAuthCheck(UUID courseId, UUID userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + courseId));
-
-        if (!course.getAuthorId().equals(userId)) {
-            log.warn("Unauthorized access attempt. User: {}, Course: {}", userId, courseId);
-            throw new SecurityException("У вас нет прав на редактирование этого курса");
+    private CatalogCursor decodePageToken(String pageToken, CatalogSort sort) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return null;
+        }
+        try {
+            return CatalogCursor.decode(pageToken, sort);
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            log.warn("Catalog request with invalid page token: sort={}, token='{}'", sort, pageToken);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный токен страницы");
         }
-        return course;
     }
 
     private boolean isConnectionError(Exception e) {
@@ -0,0 +1,155 @@
+package ru.offer.hunt.oh_course.service;
+
+import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.entity.QuestionOption;
+import ru.offer.hunt.oh_course.model.entity.QuestionTestCase;
+import ru.offer.hunt.oh_course.service.CourseStructureFields.Section;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Сборка CourseStructureDto из уже загруженных плоских списков (без обращений к БД).
+ * Группировка по родителю делается один раз в конструкторе, дальше assemble() только обходит дерево.
+ * Списки должны быть отсортированы так же, как их возвращают репозитории (sortOrder/orderIndex).
+ * Разделы, не выбранные в fields, в DTO равны null (их списки вызывающий не загружает).
+ */
+public final class CourseStructureAssembler {
+
+    private final Map<UUID, List<LessonPage>> pagesByLesson;
+    private final Map<UUID, MethodicalPageContent> methodicalByPage;
+    private final Map<UUID, List<Question>> questionsByPage;
+    private final Map<UUID, List<QuestionOption>> optionsByQuestion;
+    private final Map<UUID, List<QuestionTestCase>> testCasesByQuestion;
+    private final CourseStructureFields fields;
+
+    public CourseStructureAssembler(
+            List<LessonPage> pages,
+            Collection<MethodicalPageContent> methodical,
+            List<Question> questions,
+            List<QuestionOption> options,
+            List<QuestionTestCase> testCases
+    ) {
+        this(pages, methodical, questions, options, testCases, CourseStructureFields.ALL);
+    }
+
+    public CourseStructureAssembler(
+            List<LessonPage> pages,
+            Collection<MethodicalPageContent> methodical,
+            List<Question> questions,
+            List<QuestionOption> options,
+            List<QuestionTestCase> testCases,
+            CourseStructureFields fields
+    ) {
+        this.fields = fields;
+        this.pagesByLesson = pages.stream().collect(groupingBy(p -> p.getLesson().getId()));
+        this.methodicalByPage = methodical.stream()
+                .collect(toMap(MethodicalPageContent::getPageId, x -> x, (a, b) -> a));
+        this.questionsByPage = questions.stream().collect(groupingBy(Question::getPageId));
+        this.optionsByQuestion = options.stream().collect(groupingBy(QuestionOption::getQuestionId));
+        this.testCasesByQuestion = testCases.stream().collect(groupingBy(QuestionTestCase::getQuestionId));
+    }
+
+    public CourseStructureDto assemble(Course course, List<Lesson> lessons) {
+        List<CourseStructureDto.LessonDto> lessonDtos = !fields.includes(Section.LESSONS)
+                ? null
+                : lessons.stream()
+                        .map(this::toLessonDto)
+                        .toList();
+
+        return new CourseStructureDto(
+                course.getId(),
+                course.getTitle(),
+                course.getVersion(),
+                course.getStatus().name(),
+                course.getUpdatedAt(),
+                course.getContentRevision(),
+                lessonDtos);
+    }
+
+    private CourseStructureDto.LessonDto toLessonDto(Lesson l) {
+        List<CourseStructureDto.PageDto> pageDtos = !fields.includes(Section.PAGES)
+                ? null
+                : pagesByLesson.getOrDefault(l.getId(), Collections.emptyList()).stream()
+                        .map(this::toPageDto)
+                        .toList();
+
+        return new CourseStructureDto.LessonDto(
+                l.getId(),
+                l.getTitle(),
+                l.getDescription(),
+                l.getOrderIndex(),
+                l.getDurationMin(),
+                l.isDemo(),
+                pageDtos);
+    }
+
+    private CourseStructureDto.PageDto toPageDto(LessonPage p) {
+        MethodicalPageContent mc = methodicalByPage.get(p.getId());
+
+        CourseStructureDto.MethodicalContentDto mcDto =
+                mc == null
+                        ? null
+                        : new CourseStructureDto.MethodicalContentDto(
+                        mc.getMarkdown(), mc.getExternalVideoUrl(), mc.getUpdatedAt());
+
+        List<CourseStructureDto.QuestionDto> qDtos = !fields.includes(Section.QUESTIONS)
+                ? null
+                : questionsByPage.getOrDefault(p.getId(), Collections.emptyList()).stream()
+                        .map(this::toQuestionDto)
+                        .toList();
+
+        return new CourseStructureDto.PageDto(
+                p.getId(),
+                p.getTitle(),
+                p.getPageType().name(),
+                p.getSortOrder(),
+                mcDto,
+                qDtos);
+    }
+
+    private CourseStructureDto.QuestionDto toQuestionDto(Question q) {
+        List<CourseStructureDto.QuestionOptionDto> optDtos = !fields.includes(Section.OPTIONS)
+                ? null
+                : optionsByQuestion.getOrDefault(q.getId(), List.of()).stream()
+                        .map(o -> new CourseStructureDto.QuestionOptionDto(
+                                o.getId(),
+                                o.getLabel(),
+                                o.isCorrect(),
+                                o.getSortOrder()))
+                        .toList();
+
+        List<CourseStructureDto.QuestionTestCaseDto> tcDtos = !fields.includes(Section.TEST_CASES)
+                ? null
+                : testCasesByQuestion.getOrDefault(q.getId(), List.of()).stream()
+                        .map(tc -> new CourseStructureDto.QuestionTestCaseDto(
+                                tc.getId(),
+                                tc.getInputData(),
+                                tc.getExpectedOutput(),
+                                tc.getTimeoutMs(),
+                                tc.getMemoryLimitMb()))
+                        .toList();
+
+        return new CourseStructureDto.QuestionDto(
+                q.getId(),
+                q.getType().name(),
+                q.getText(),
+                q.getCorrectAnswer(),
+                q.isUseAiCheck(),
+                q.getPoints(),
+                q.getSortOrder(),
+                optDtos,
+                tcDtos);
+    }
+}
@@ -0,0 +1,170 @@
+package ru.offer.hunt.oh_course.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.entity.QuestionOption;
+import ru.offer.hunt.oh_course.model.entity.QuestionTestCase;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import ru.offer.hunt.oh_course.model.repository.LessonPageRepository;
+import ru.offer.hunt.oh_course.model.repository.LessonRepository;
+import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionOptionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionTestCaseRepository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Копирование структуры курса (уроки -> страницы -> методички/вопросы -> опции/тест-кейсы) в другой курс.
+ * Источник читается фиксированным числом запросов (по одному IN-запросу на уровень), id перевыдаются
+ * в памяти, запись идёт JDBC batch insert'ами - по одному пакету на таблицу, независимо от размера курса.
+ * Целевой курс должен быть уже записан в БД (flush), так как вставки идут мимо persistence context.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseStructureCloner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LessonRepository lessonRepository;
+    private final LessonPageRepository lessonPageRepository;
+    private final MethodicalPageContentRepository methodicalPageContentRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionOptionRepository questionOptionRepository;
+    private final QuestionTestCaseRepository questionTestCaseRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cloneStructure(UUID sourceCourseId, UUID targetCourseId) {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(sourceCourseId);
+        if (lessons.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, UUID> lessonIds = new HashMap<>();
+        List<Object[]> lessonRows = new ArrayList<>(lessons.size());
+        for (Lesson l : lessons) {
+            UUID newId = UUID.randomUUID();
+            lessonIds.put(l.getId(), newId);
+            lessonRows.add(new Object[] {
+                    newId, targetCourseId, l.getTitle(), l.getDescription(), l.getOrderIndex(),
+                    l.getDurationMin(), l.isDemo(), now, now
+            });
+        }
+
+        List<LessonPage> pages = lessonPageRepository.findByLessonIdInOrderBySortOrderAsc(List.copyOf(lessonIds.keySet()));
+
+        Map<UUID, UUID> pageIds = new HashMap<>();
+        List<UUID> theoryPageIds = new ArrayList<>();
+        List<UUID> questionPageIds = new ArrayList<>();
+        List<Object[]> pageRows = new ArrayList<>(pages.size());
+        for (LessonPage p : pages) {
+            UUID newId = UUID.randomUUID();
+            pageIds.put(p.getId(), newId);
+            pageRows.add(new Object[] {
+                    newId, lessonIds.get(p.getLesson().getId()), p.getTitle(), p.getPageType().name(),
+                    p.getSortOrder(), now, now
+            });
+
+            // как и раньше: методичка копируется только у THEORY, вопросы - у TEST/CODE_TASK
+            if (p.getPageType() == PageType.THEORY) {
+                theoryPageIds.add(p.getId());
+            } else {
+                questionPageIds.add(p.getId());
+            }
+        }
+
+        List<Object[]> methodicalRows = new ArrayList<>();
+        if (!theoryPageIds.isEmpty()) {
+            for (MethodicalPageContent mc : methodicalPageContentRepository.findAllById(theoryPageIds)) {
+                methodicalRows.add(new Object[] {
+                        pageIds.get(mc.getPageId()), mc.getMarkdown(), mc.getExternalVideoUrl(), now
+                });
+            }
+        }
+
+        List<Question> questions = questionPageIds.isEmpty()
+                ? List.of()
+                : questionRepository.findByPageIdInOrderBySortOrderAsc(questionPageIds);
+
+        Map<UUID, UUID> questionIds = new HashMap<>();
+        List<UUID> codeQuestionIds = new ArrayList<>();
+        List<Object[]> questionRows = new ArrayList<>(questions.size());
+        for (Question q : questions) {
+            UUID newId = UUID.randomUUID();
+            questionIds.put(q.getId(), newId);
+            questionRows.add(new Object[] {
+                    newId, pageIds.get(q.getPageId()), q.getType().name(), q.getText(), q.getCorrectAnswer(),
+                    q.isUseAiCheck(), q.getPoints(), q.getSortOrder(), now, now
+            });
+            if (q.getType() == QuestionType.CODE) {
+                codeQuestionIds.add(q.getId());
+            }
+        }
+
+        List<Object[]> optionRows = new ArrayList<>();
+        if (!questionIds.isEmpty()) {
+            for (QuestionOption o : questionOptionRepository.findByQuestionIdInOrderBySortOrderAsc(List.copyOf(questionIds.keySet()))) {
+                optionRows.add(new Object[] {
+                        UUID.randomUUID(), questionIds.get(o.getQuestionId()), o.getLabel(), o.isCorrect(), o.getSortOrder()
+                });
+            }
+        }
+
+        List<Object[]> testCaseRows = new ArrayList<>();
+        if (!codeQuestionIds.isEmpty()) {
+            for (QuestionTestCase tc : questionTestCaseRepository.findByQuestionIdIn(codeQuestionIds)) {
+                testCaseRows.add(new Object[] {
+                        UUID.randomUUID(), questionIds.get(tc.getQuestionId()), tc.getInputData(),
+                        tc.getExpectedOutput(), tc.getTimeoutMs(), tc.getMemoryLimitMb()
+                });
+            }
+        }
+
+        // порядок вставки - от родителей к детям (FK)
+        insert("insert into course.course_lessons " +
+                "(id, course_id, title, description, order_index, duration_min, is_demo, created_at, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", lessonRows);
+        insert("insert into course.course_lesson_pages " +
+                "(id, lesson_id, title, page_type, sort_order, created_at, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", pageRows);
+        insert("insert into course.course_methodical_page_content " +
+                "(page_id, markdown, external_video_url, updated_at) " +
+                "values (?, ?, ?, ?)", methodicalRows);
+        insert("insert into course.course_questions " +
+                "(id, page_id, type, text, correct_answer, use_ai_check, points, sort_order, created_at, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", questionRows);
+        insert("insert into course.course_question_options " +
+                "(id, question_id, label, is_correct, sort_order) " +
+                "values (?, ?, ?, ?, ?)", optionRows);
+        insert("insert into course.course_question_test_cases " +
+                "(id, question_id, input_data, expected_output, timeout_ms, memory_limit_mb) " +
+                "values (?, ?, ?, ?, ?, ?)", testCaseRows);
+
+        log.debug("Course structure cloned: sourceId={}, targetId={}, lessons={}, pages={}, questions={}, options={}, testCases={}",
+                sourceCourseId, targetCourseId, lessonRows.size(), pageRows.size(), questionRows.size(),
+                optionRows.size(), testCaseRows.size());
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package ru.offer.hunt.oh_course.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Потоковая выгрузка структуры курса в JSON той же формы, что CourseStructureDto.
+ * Всё дерево читается одним упорядоченным запросом через серверный курсор (fetchSize),
+ * каждая строка сразу пишется в JsonGenerator - в памяти не больше одной пачки строк,
+ * независимо от объёма markdown и тест-кейсов.
+ */
+@Service
+@Slf4j
+public class CourseStructureExportService {
+
+    // Строки всех уровней в одном наборе, порядок = порядок обхода дерева:
+    // урок -> его страницы -> вопросы страницы -> опции (c_rank 0), затем тест-кейсы (c_rank 1).
+    // Родительская строка идёт первой за счёт null в ключах дочерних уровней (nulls first).
+    private static final String TREE_SQL = """
+            select 'L' as kind, l.order_index as l_ord, l.id as l_id,
+                   null::int as p_ord, null::uuid as p_id, null::int as q_ord, null::uuid as q_id,
+                   null::int as c_rank, null::int as c_ord,
+                   l.id as id, l.title::text as title, l.description as body, null::text as extra, null::text as extra2,
+                   l.order_index as n1, l.duration_min as n2, l.is_demo as flag, null::timestamptz as ts
+            from course.course_lessons l
+            where l.course_id = ?
+            union all
+            select 'P', l.order_index, l.id,
+                   p.sort_order, p.id, null, null,
+                   null, null,
+                   p.id, p.title, m.markdown, p.page_type, m.external_video_url,
+                   p.sort_order, null, m.page_id is not null, m.updated_at
+            from course.course_lesson_pages p
+            join course.course_lessons l on l.id = p.lesson_id
+            left join course.course_methodical_page_content m on m.page_id = p.id
+            where l.course_id = ?
+            union all
+            select 'Q', l.order_index, l.id,
+                   p.sort_order, p.id, q.sort_order, q.id,
+                   null, null,
+                   q.id, q.type, q.text, q.correct_answer, null,
+                   q.points, q.sort_order, q.use_ai_check, null
+            from course.course_questions q
+            join course.course_lesson_pages p on p.id = q.page_id
+            join course.course_lessons l on l.id = p.lesson_id
+            where l.course_id = ?
+            union all
+            select 'O', l.order_index, l.id,
+                   p.sort_order, p.id, q.sort_order, q.id,
+                   0, o.sort_order,
+                   o.id, null, o.label, null, null,
+                   o.sort_order, null, o.is_correct, null
+            from course.course_question_options o
+            join course.course_questions q on q.id = o.question_id
+            join course.course_lesson_pages p on p.id = q.page_id
+            join course.course_lessons l on l.id = p.lesson_id
+            where l.course_id = ?
+            union all
+            select 'T', l.order_index, l.id,
+                   p.sort_order, p.id, q.sort_order, q.id,
+                   1, null,
+                   t.id, null, t.input_data, t.expected_output, null,
+                   t.timeout_ms, t.memory_limit_mb, null, null
+            from course.course_question_test_cases t
+            join course.course_questions q on q.id = t.question_id
+            join course.course_lesson_pages p on p.id = q.page_id
+            join course.course_lessons l on l.id = p.lesson_id
+            where l.course_id = ?
+            order by l_ord, l_id,
+                     p_ord nulls first, p_id nulls first,
+                     q_ord nulls first, q_id nulls first,
+                     c_rank nulls first, c_ord, id
+            """;
+
+    private static final String COURSE_SQL = """
+            select id, title, version, status, updated_at, content_revision
+            from course.course_courses
+            where id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public CourseStructureExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:500}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Вызывается до начала стрима, чтобы 404 успел уйти обычным ответом, а не оборванным телом.
+     */
+    public void ensureCourseExists(UUID courseId) {
+        Integer found = jdbcTemplate.queryForObject(
+                "select count(*) from course.course_courses where id = ?", Integer.class, courseId);
+        if (found == null || found == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+    }
+
+    /**
+     * Пишет структуру курса в out. Соединение с БД удерживается на время записи (курсор живёт в транзакции).
+     */
+    public void writeCourseStructure(UUID courseId, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            try {
+                readOnlyTx.executeWithoutResult(status -> writeTree(courseId, gen));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        log.debug("Course structure exported: courseId={}", courseId);
+    }
+
+    private void writeTree(UUID courseId, JsonGenerator gen) {
+        TreeWriter writer = new TreeWriter(gen);
+
+        jdbcTemplate.query(COURSE_SQL, rs -> {
+            writer.writeCourse(rs);
+        }, courseId);
+        if (!writer.started()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+
+        jdbcTemplate.query(TREE_SQL, rs -> {
+            writer.writeRow(rs);
+        }, courseId, courseId, courseId, courseId, courseId);
+
+        writer.finish();
+    }
+
+    /**
+     * Автомат вложенности: открывает/закрывает объекты и массивы по мере смены урока/страницы/вопроса.
+     */
+    private static final class TreeWriter {
+
+        private enum QuestionSection { NONE, OPTIONS, TEST_CASES }
+
+        private final JsonGenerator gen;
+
+        private boolean started;
+        private boolean lessonOpen;
+        private boolean pageOpen;
+        private boolean questionOpen;
+        private QuestionSection section = QuestionSection.NONE;
+
+        TreeWriter(JsonGenerator gen) {
+            this.gen = gen;
+        }
+
+        void writeCourse(ResultSet rs) throws SQLException {
+            io(() -> {
+                gen.writeStartObject();
+                gen.writeStringField("courseId", rs.getObject("id", UUID.class).toString());
+                gen.writeStringField("title", rs.getString("title"));
+                writeNumber("version", (Integer) rs.getObject("version"));
+                gen.writeStringField("status", rs.getString("status"));
+                writeTimestamp("updatedAt", rs.getObject("updated_at", OffsetDateTime.class));
+                gen.writeNumberField("contentRevision", rs.getLong("content_revision"));
+                gen.writeArrayFieldStart("lessons");
+            });
+            started = true;
+        }
+
+        boolean started() {
+            return started;
+        }
+
+        void writeRow(ResultSet rs) throws SQLException {
+            String kind = rs.getString("kind");
+            io(() -> {
+                switch (kind) {
+                    case "L" -> startLesson(rs);
+                    case "P" -> startPage(rs);
+                    case "Q" -> startQuestion(rs);
+                    case "O" -> writeOption(rs);
+                    case "T" -> writeTestCase(rs);
+                    default -> throw new IllegalStateException("Unknown row kind: " + kind);
+                }
+            });
+        }
+
+        void finish() {
+            io(() -> {
+                closeLesson();
+                gen.writeEndArray();
+                gen.writeEndObject();
+            });
+        }
+
+        private void startLesson(ResultSet rs) throws IOException, SQLException {
+            closeLesson();
+            gen.writeStartObject();
+            writeUuid("lessonId", rs);
+            gen.writeStringField("title", rs.getString("title"));
+            gen.writeStringField("description", rs.getString("body"));
+            writeNumber("orderIndex", (Integer) rs.getObject("n1"));
+            writeNumber("durationMin", (Integer) rs.getObject("n2"));
+            gen.writeBooleanField("isDemo", rs.getBoolean("flag"));
+            gen.writeArrayFieldStart("pages");
+            lessonOpen = true;
+        }
+
+        private void startPage(ResultSet rs) throws IOException, SQLException {
+            closePage();
+            gen.writeStartObject();
+            writeUuid("pageId", rs);
+            gen.writeStringField("title", rs.getString("title"));
+            gen.writeStringField("pageType", rs.getString("extra"));
+            writeNumber("sortOrder", (Integer) rs.getObject("n1"));
+            if (rs.getBoolean("flag")) {
+                gen.writeObjectFieldStart("methodicalContent");
+                gen.writeStringField("markdown", rs.getString("body"));
+                gen.writeStringField("externalVideoUrl", rs.getString("extra2"));
+                writeTimestamp("updatedAt", rs.getObject("ts", OffsetDateTime.class));
+                gen.writeEndObject();
+            } else {
+                gen.writeNullField("methodicalContent");
+            }
+            gen.writeArrayFieldStart("questions");
+            pageOpen = true;
+        }
+
+        private void startQuestion(ResultSet rs) throws IOException, SQLException {
+            closeQuestion();
+            gen.writeStartObject();
+            writeUuid("questionId", rs);
+            gen.writeStringField("type", rs.getString("title"));
+            gen.writeStringField("text", rs.getString("body"));
+            gen.writeStringField("correctAnswer", rs.getString("extra"));
+            gen.writeBooleanField("useAiCheck", rs.getBoolean("flag"));
+            writeNumber("points", (Integer) rs.getObject("n1"));
+            writeNumber("sortOrder", (Integer) rs.getObject("n2"));
+            questionOpen = true;
+            section = QuestionSection.NONE;
+        }
+
+        private void writeOption(ResultSet rs) throws IOException, SQLException {
+            if (section == QuestionSection.NONE) {
+                gen.writeArrayFieldStart("options");
+                section = QuestionSection.OPTIONS;
+            }
+            gen.writeStartObject();
+            writeUuid("optionId", rs);
+            gen.writeStringField("label", rs.getString("body"));
+            gen.writeBooleanField("isCorrect", rs.getBoolean("flag"));
+            writeNumber("sortOrder", (Integer) rs.getObject("n1"));
+            gen.writeEndObject();
+        }
+
+        private void writeTestCase(ResultSet rs) throws IOException, SQLException {
+            if (section != QuestionSection.TEST_CASES) {
+                if (section == QuestionSection.OPTIONS) {
+                    gen.writeEndArray();
+                } else {
+                    gen.writeArrayFieldStart("options");
+                    gen.writeEndArray();
+                }
+                gen.writeArrayFieldStart("testCases");
+                section = QuestionSection.TEST_CASES;
+            }
+            gen.writeStartObject();
+            writeUuid("testCaseId", rs);
+            gen.writeStringField("inputData", rs.getString("body"));
+            gen.writeStringField("expectedOutput", rs.getString("extra"));
+            writeNumber("timeoutMs", (Integer) rs.getObject("n1"));
+            writeNumber("memoryLimitMb", (Integer) rs.getObject("n2"));
+            gen.writeEndObject();
+        }
+
+        private void closeQuestion() throws IOException {
+            if (!questionOpen) return;
+            switch (section) {
+                case NONE -> {
+                    gen.writeArrayFieldStart("options");
+                    gen.writeEndArray();
+                    gen.writeArrayFieldStart("testCases");
+                    gen.writeEndArray();
+                }
+                case OPTIONS -> {
+                    gen.writeEndArray();
+                    gen.writeArrayFieldStart("testCases");
+                    gen.writeEndArray();
+                }
+                case TEST_CASES -> gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            questionOpen = false;
+            section = QuestionSection.NONE;
+        }
+
+        private void closePage() throws IOException {
+            closeQuestion();
+            if (!pageOpen) return;
+            gen.writeEndArray();
+            gen.writeEndObject();
+            pageOpen = false;
+        }
+
+        private void closeLesson() throws IOException {
+            closePage();
+            if (!lessonOpen) return;
+            gen.writeEndArray();
+            gen.writeEndObject();
+            lessonOpen = false;
+        }
+
+        private void writeUuid(String field, ResultSet rs) throws IOException, SQLException {
+            gen.writeStringField(field, rs.getObject("id", UUID.class).toString());
+        }
+
+        private void writeNumber(String field, Integer value) throws IOException {
+            if (value == null) {
+                gen.writeNullField(field);
+            } else {
+                gen.writeNumberField(field, value);
+            }
+        }
+
+        private void writeTimestamp(String field, OffsetDateTime value) throws IOException {
+            if (value == null) {
+                gen.writeNullField(field);
+            } else {
+                // через кодек ObjectMapper, чтобы формат дат совпадал с обычным /structure
+                gen.writeObjectField(field, value);
+            }
+        }
+
+        private interface JsonAction {
+            void run() throws IOException, SQLException;
+        }
+
+        private static void io(JsonAction action) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
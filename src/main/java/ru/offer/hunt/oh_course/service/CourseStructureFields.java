@@ -0,0 +1,120 @@
+package ru.offer.hunt.oh_course.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.model.dto.CourseStructureDto;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проекция CourseStructureDto по параметру fields (например fields=lessons.pages.pageId,title).
+ * Обрезаются вложенные разделы, скалярные поля уровня отдаются целиком:
+ * путь до раздела включает его со всеми вложенными разделами, путь до скалярного поля раздела -
+ * только сам раздел без вложенных. Невыбранный раздел не читается из БД и в ответе равен null.
+ * Имя скалярного поля сверяется с компонентами DTO своего уровня.
+ */
+public record CourseStructureFields(Set<Section> sections) {
+
+    public enum Section {
+        LESSONS("lessons", CourseStructureDto.LessonDto.class),
+        PAGES("lessons.pages", CourseStructureDto.PageDto.class),
+        METHODICAL_CONTENT("lessons.pages.methodicalContent", CourseStructureDto.MethodicalContentDto.class),
+        QUESTIONS("lessons.pages.questions", CourseStructureDto.QuestionDto.class),
+        OPTIONS("lessons.pages.questions.options", CourseStructureDto.QuestionOptionDto.class),
+        TEST_CASES("lessons.pages.questions.testCases", CourseStructureDto.QuestionTestCaseDto.class);
+
+        private final String path;
+        private final Class<? extends Record> dto;
+
+        Section(String path, Class<? extends Record> dto) {
+            this.path = path;
+            this.dto = dto;
+        }
+
+        boolean isWithin(Section other) {
+            return this == other || path.startsWith(other.path + ".");
+        }
+    }
+
+    public static final CourseStructureFields ALL = new CourseStructureFields(EnumSet.allOf(Section.class));
+
+    /**
+     * Пустой или отсутствующий fields - вся структура. Неизвестный путь - 400.
+     */
+    public static CourseStructureFields parse(List<String> fields) {
+        if (fields == null || fields.stream().allMatch(f -> f == null || f.isBlank())) {
+            return ALL;
+        }
+
+        EnumSet<Section> sections = EnumSet.noneOf(Section.class);
+        for (String raw : fields) {
+            if (raw == null || raw.isBlank()) {
+                continue;
+            }
+            String path = raw.trim();
+            if (Arrays.stream(path.split("\\.", -1)).anyMatch(String::isEmpty)) {
+                throw unknownField(path);
+            }
+
+            Optional<Section> exact = Arrays.stream(Section.values()).filter(s -> s.path.equals(path)).findFirst();
+            if (exact.isPresent()) {
+                for (Section s : Section.values()) {
+                    if (s.isWithin(exact.get()) || exact.get().isWithin(s)) {
+                        sections.add(s);
+                    }
+                }
+                continue;
+            }
+
+            int dot = path.lastIndexOf('.');
+            if (dot < 0) {
+                // скалярное поле курса - есть всегда
+                if (!hasComponent(CourseStructureDto.class, path)) {
+                    throw unknownField(path);
+                }
+                continue;
+            }
+            String parent = path.substring(0, dot);
+            String name = path.substring(dot + 1);
+            Section owner = Arrays.stream(Section.values())
+                    .filter(s -> s.path.equals(parent))
+                    .filter(s -> hasComponent(s.dto, name))
+                    .findFirst()
+                    .orElseThrow(() -> unknownField(path));
+            for (Section s : Section.values()) {
+                if (owner.isWithin(s)) {
+                    sections.add(s);
+                }
+            }
+        }
+        return new CourseStructureFields(sections);
+    }
+
+    private static boolean hasComponent(Class<? extends Record> dto, String name) {
+        return Arrays.stream(dto.getRecordComponents()).anyMatch(c -> c.getName().equals(name));
+    }
+
+    private static ResponseStatusException unknownField(String path) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестное поле в fields: " + path);
+    }
+
+    public boolean includes(Section section) {
+        return sections.contains(section);
+    }
+
+    /**
+     * Стабильное представление для ETag: одинаковые проекции дают одинаковый ключ.
+     */
+    public String key() {
+        return sections.stream()
+                .sorted(Comparator.naturalOrder())
+                .map(s -> s.path)
+                .collect(Collectors.joining(","));
+    }
+}
@@ -1,6 +1,8 @@
 package ru.offer.hunt.oh_course.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,8 +22,11 @@ import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
 import ru.offer.hunt.oh_course.model.repository.QuestionOptionRepository;
 import ru.offer.hunt.oh_course.model.repository.QuestionRepository;
 import ru.offer.hunt.oh_course.model.repository.QuestionTestCaseRepository;
+import ru.offer.hunt.oh_course.service.CourseStructureFields.Section;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -31,6 +36,7 @@ import static java.util.stream.Collectors.toMap;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional(readOnly = true)
 public class CourseStructureService {
 
@@ -42,144 +48,104 @@ public class CourseStructureService {
     private final QuestionOptionRepository questionOptionRepository;
     private final QuestionTestCaseRepository questionTestCaseRepository;
 
+    @Value("${app.courses.batch-max-size:100}")
+    private int batchMaxSize;
+
     public CourseStructureDto getCourseStructure(UUID courseId) {
-        Course course =
-                courseRepository
-                        .findById(courseId)
-                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        return getCourseStructure(courseId, CourseStructureFields.ALL);
+    }
 
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
-        List<UUID> lessonIds = lessons.stream().map(Lesson::getId).toList();
+    public CourseStructureDto getCourseStructure(UUID courseId, CourseStructureFields fields) {
+        List<CourseStructureDto> result = getCourseStructures(List.of(courseId), fields);
+        if (result.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        return result.getFirst();
+    }
 
+    /**
+     * Структуры нескольких курсов за один проход: каждый уровень дерева (уроки, страницы, методички,
+     * вопросы, опции, тест-кейсы) читается одним IN-запросом на весь батч, поэтому стоимость
+     * запроса на 50 курсов та же по числу обращений к БД, что и на 1 курс.
+     * Несуществующие id пропускаются, порядок ответа соответствует порядку ids (без дублей).
+     * Разделы, не выбранные в fields, не запрашиваются: скелет без методичек и тест-кейсов
+     * не тянет из БД markdown и тексты тестов.
+     */
+    public List<CourseStructureDto> getCourseStructures(List<UUID> courseIds) {
+        return getCourseStructures(courseIds, CourseStructureFields.ALL);
+    }
+
+    public List<CourseStructureDto> getCourseStructures(List<UUID> courseIds, CourseStructureFields fields) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(courseIds));
+        if (ids.size() > batchMaxSize) {
+            log.warn("Course structure batch rejected - too many ids: size={}, max={}", ids.size(), batchMaxSize);
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Слишком много курсов в одном запросе (максимум " + batchMaxSize + ")");
+        }
+
+        Map<UUID, Course> coursesById =
+                courseRepository.findAllById(ids).stream()
+                        .collect(toMap(Course::getId, c -> c));
+
+        List<UUID> foundIds = ids.stream().filter(coursesById::containsKey).toList();
+        if (foundIds.size() < ids.size()) {
+            log.debug("Course structure batch - missing ids skipped: requested={}, found={}",
+                    ids.size(), foundIds.size());
+        }
+        if (foundIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Lesson> lessons = fields.includes(Section.LESSONS)
+                ? lessonRepository.findByCourseIdInOrderByOrderIndexAsc(foundIds)
+                : List.of();
+        Map<UUID, List<Lesson>> lessonsByCourse =
+                lessons.stream().collect(groupingBy(l -> l.getCourse().getId()));
+
+        List<UUID> lessonIds = lessons.stream().map(Lesson::getId).toList();
         List<LessonPage> pages =
-                lessonIds.isEmpty()
+                lessonIds.isEmpty() || !fields.includes(Section.PAGES)
                         ? List.of()
                         : lessonPageRepository.findByLessonIdInOrderBySortOrderAsc(lessonIds);
 
-        Map<UUID, List<LessonPage>> pagesByLesson =
-                pages.stream().collect(groupingBy(p -> p.getLesson().getId()));
-
         List<UUID> pageIds = pages.stream().map(LessonPage::getId).toList();
 
-        Map<UUID, MethodicalPageContent> methodicalByPage =
-                pageIds.isEmpty()
-                        ? Map.of()
-                        : methodicalPageContentRepository.findAllById(pageIds).stream()
-                        .collect(toMap(MethodicalPageContent::getPageId, x -> x, (a, b) -> a));
+        List<MethodicalPageContent> methodical =
+                pageIds.isEmpty() || !fields.includes(Section.METHODICAL_CONTENT)
+                        ? List.of()
+                        : methodicalPageContentRepository.findAllById(pageIds);
 
         List<Question> questions =
-                pageIds.isEmpty() ? List.of() : questionRepository.findByPageIdInOrderBySortOrderAsc(pageIds);
-
-        Map<UUID, List<Question>> questionsByPage =
-                questions.stream().collect(groupingBy(Question::getPageId));
+                pageIds.isEmpty() || !fields.includes(Section.QUESTIONS)
+                        ? List.of()
+                        : questionRepository.findByPageIdInOrderBySortOrderAsc(pageIds);
 
         List<UUID> questionIds = questions.stream().map(Question::getId).toList();
 
-        Map<UUID, List<QuestionOption>> optionsByQuestion =
-                questionIds.isEmpty()
-                        ? Map.of()
-                        : questionOptionRepository.findByQuestionIdInOrderBySortOrderAsc(questionIds).stream()
-                        .collect(groupingBy(QuestionOption::getQuestionId));
-
-        Map<UUID, List<QuestionTestCase>> testCasesByQuestion =
-                questionIds.isEmpty()
-                        ? Map.of()
-                        : questionTestCaseRepository.findByQuestionIdIn(questionIds).stream()
-                        .collect(groupingBy(QuestionTestCase::getQuestionId));
-
-        List<CourseStructureDto.LessonDto> lessonDtos =
-                lessons.stream()
-                        .map(
-                                l -> {
-                                    List<LessonPage> lessonPages =
-                                            pagesByLesson.getOrDefault(l.getId(), Collections.emptyList());
-
-                                    List<CourseStructureDto.PageDto> pageDtos =
-                                            lessonPages.stream()
-                                                    .map(
-                                                            p -> {
-                                                                MethodicalPageContent mc = methodicalByPage.get(p.getId());
-
-                                                                CourseStructureDto.MethodicalContentDto mcDto =
-                                                                        mc == null
-                                                                                ? null
-                                                                                : new CourseStructureDto.MethodicalContentDto(
-                                                                                mc.getMarkdown(), mc.getExternalVideoUrl(), mc.getUpdatedAt());
-
-                                                                List<Question> pageQuestions =
-                                                                        questionsByPage.getOrDefault(p.getId(), Collections.emptyList());
-
-                                                                List<CourseStructureDto.QuestionDto> qDtos =
-                                                                        pageQuestions.stream()
-                                                                                .map(
-                                                                                        q -> {
-                                                                                            List<CourseStructureDto.QuestionOptionDto> optDtos =
-                                                                                                    optionsByQuestion
-                                                                                                            .getOrDefault(q.getId(), List.of())
-                                                                                                            .stream()
-                                                                                                            .map(
-                                                                                                                    o ->
-                                                                                                                            new CourseStructureDto.QuestionOptionDto(
-                                                                                                                                    o.getId(),
-                                                                                                                                    o.getLabel(),
-                                                                                                                                    o.isCorrect(),
-                                                                                                                                    o.getSortOrder()))
-                                                                                                            .toList();
-
-                                                                                            List<CourseStructureDto.QuestionTestCaseDto> tcDtos =
-                                                                                                    testCasesByQuestion
-                                                                                                            .getOrDefault(q.getId(), List.of())
-                                                                                                            .stream()
-                                                                                                            .map(
-                                                                                                                    tc ->
-                                                                                                                            new CourseStructureDto.QuestionTestCaseDto(
-                                                                                                                                    tc.getId(),
-                                                                                                                                    tc.getInputData(),
-                                                                                                                                    tc.getExpectedOutput(),
-                                                                                                                                    tc.getTimeoutMs(),
-                                                                                                                                    tc.getMemoryLimitMb()))
-                                                                                                            .toList();
-
-                                                                                            return new CourseStructureDto.QuestionDto(
-                                                                                                    q.getId(),
-                                                                                                    q.getType().name(),
-                                                                                                    q.getText(),
-                                                                                                    q.getCorrectAnswer(),
-                                                                                                    q.isUseAiCheck(),
-                                                                                                    q.getPoints(),
-                                                                                                    q.getSortOrder(),
-                                                                                                    optDtos,
-                                                                                                    tcDtos);
-                                                                                        })
-                                                                                .toList();
-
-                                                                return new CourseStructureDto.PageDto(
-                                                                        p.getId(),
-                                                                        p.getTitle(),
-                                                                        p.getPageType().name(),
-                                                                        p.getSortOrder(),
-                                                                        mcDto,
-                                                                        qDtos);
-                                                            })
-                                                    .toList();
-
-                                    return new CourseStructureDto.LessonDto(
-                                            l.getId(),
-                                            l.getTitle(),
-                                            l.getDescription(),
-                                            l.getOrderIndex(),
-                                            l.getDurationMin(),
-                                            l.isDemo(),
-                                            pageDtos);
-                                })
-                        .toList();
-
-        return new CourseStructureDto(
-                course.getId(),
-                course.getTitle(),
-                course.getVersion(),
-                course.getStatus().name(),
-                course.getUpdatedAt(),
-                lessonDtos);
+        List<QuestionOption> options =
+                questionIds.isEmpty() || !fields.includes(Section.OPTIONS)
+                        ? List.of()
+                        : questionOptionRepository.findByQuestionIdInOrderBySortOrderAsc(questionIds);
+
+        List<QuestionTestCase> testCases =
+                questionIds.isEmpty() || !fields.includes(Section.TEST_CASES)
+                        ? List.of()
+                        : questionTestCaseRepository.findByQuestionIdIn(questionIds);
+
+        CourseStructureAssembler assembler =
+                new CourseStructureAssembler(pages, methodical, questions, options, testCases, fields);
+
+        List<CourseStructureDto> result = new ArrayList<>(foundIds.size());
+        for (UUID id : foundIds) {
+            result.add(assembler.assemble(
+                    coursesById.get(id),
+                    lessonsByCourse.getOrDefault(id, Collections.emptyList())));
+        }
+        return result;
     }
 }
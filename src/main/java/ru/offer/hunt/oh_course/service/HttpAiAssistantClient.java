@@ -0,0 +1,309 @@
+package ru.offer.hunt.oh_course.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.offer.hunt.oh_course.exception.AiClientException;
+import ru.offer.hunt.oh_course.model.dto.CodeTaskGenerationResponse;
+import ru.offer.hunt.oh_course.model.dto.TestGenerationResponse;
+import ru.offer.hunt.oh_course.model.dto.TextEnhancementRequest;
+import ru.offer.hunt.oh_course.model.dto.TextEnhancementResponse;
+import ru.offer.hunt.oh_course.model.enums.CodeLanguage;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-клиент AI-сервиса (app.ai.client=http).
+ * Один JDK HttpClient на инстанс: HTTP/2 с мультиплексированием и пулом соединений, I/O на виртуальных потоках;
+ * send() прерываем, поэтому таймаут и отмена задачи в AiJobRunner обрывают запрос.
+ * На каждую попытку: circuit breaker -> запрос с таймаутом операции. Своего bulkhead нет: клиент вызывается
+ * только из AiJobRunner, который уже ограничивает одновременные вызовы на провайдера (max-concurrent-per-provider).
+ * Повтор с экспоненциальной паузой и jitter - только для идемпотентных операций: улучшение текста
+ * детерминировано, генерации повторяются лишь при retry-generations (сервис дедуплицирует по Idempotency-Key).
+ * 400/422 - модель не справилась с входными данными (Optional.empty), 429/5xx/сеть - ошибка и повод для повтора.
+ * Метрики: oh.course.ai.client{operation, outcome} с гистограммой + resilience4j_* для breaker/retry.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.ai", name = "client", havingValue = "http")
+@Slf4j
+public class HttpAiAssistantClient implements AiAssistantClient {
+
+    static final String METRIC_NAME = "oh.course.ai.client";
+    private static final String RESILIENCE_NAME = "ai-assistant";
+
+    public record Settings(
+            URI baseUrl,
+            String apiKey,
+            String modelVersion,
+            Duration connectTimeout,
+            Duration enhanceTextTimeout,
+            Duration generateTestTimeout,
+            Duration generateCodeTaskTimeout,
+            int maxAttempts,
+            Duration retryBaseBackoff,
+            boolean retryGenerations,
+            float failureRateThreshold,
+            int slidingWindowSize,
+            int minimumNumberOfCalls,
+            Duration openStateDuration
+    ) {}
+
+    private enum Operation {
+        ENHANCE_TEXT("/v1/enhance-text"),
+        GENERATE_TEST("/v1/generate-test"),
+        GENERATE_CODE_TASK("/v1/generate-code-task");
+
+        private final String path;
+
+        Operation(String path) {
+            this.path = path;
+        }
+    }
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+
+    @Autowired
+    public HttpAiAssistantClient(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.ai.http.base-url}") String baseUrl,
+            @Value("${app.ai.http.api-key:}") String apiKey,
+            @Value("${app.ai.model-version:stub-1}") String modelVersion,
+            @Value("${app.ai.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.ai.http.timeout-ms.enhance-text:9000}") long enhanceTextTimeoutMs,
+            @Value("${app.ai.http.timeout-ms.generate-test:50000}") long generateTestTimeoutMs,
+            @Value("${app.ai.http.timeout-ms.generate-code-task:50000}") long generateCodeTaskTimeoutMs,
+            @Value("${app.ai.http.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.ai.http.retry.base-backoff-ms:200}") long retryBaseBackoffMs,
+            @Value("${app.ai.http.retry.generations:false}") boolean retryGenerations,
+            @Value("${app.ai.http.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${app.ai.http.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${app.ai.http.circuit-breaker.minimum-calls:10}") int minimumNumberOfCalls,
+            @Value("${app.ai.http.circuit-breaker.open-state-ms:30000}") long openStateMs
+    ) {
+        this(new Settings(
+                URI.create(baseUrl),
+                apiKey,
+                modelVersion,
+                Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(enhanceTextTimeoutMs),
+                Duration.ofMillis(generateTestTimeoutMs),
+                Duration.ofMillis(generateCodeTaskTimeoutMs),
+                maxAttempts,
+                Duration.ofMillis(retryBaseBackoffMs),
+                retryGenerations,
+                failureRateThreshold,
+                slidingWindowSize,
+                minimumNumberOfCalls,
+                Duration.ofMillis(openStateMs)
+        ), objectMapper, meterRegistry);
+    }
+
+    public HttpAiAssistantClient(Settings settings, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.connectTimeout())
+                .executor(ioExecutor)
+                .build();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.slidingWindowSize())
+                .minimumNumberOfCalls(settings.minimumNumberOfCalls())
+                .failureRateThreshold(settings.failureRateThreshold())
+                .waitDurationInOpenState(settings.openStateDuration())
+                .permittedNumberOfCallsInHalfOpenState(Math.max(1, settings.minimumNumberOfCalls() / 5))
+                .recordException(e -> e instanceof IOException || e instanceof AiClientException)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(RESILIENCE_NAME);
+
+        RetryRegistry retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(settings.maxAttempts())
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(settings.retryBaseBackoff(), 2.0, 0.5))
+                .retryOnException(HttpAiAssistantClient::isRetryable)
+                .build());
+        this.retry = retries.retry(RESILIENCE_NAME);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedRetryMetrics.ofRetryRegistry(retries).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String provider() {
+        return "http:" + settings.baseUrl().getHost();
+    }
+
+    @Override
+    public String modelVersion() {
+        return settings.modelVersion();
+    }
+
+    @Override
+    public Optional<TextEnhancementResponse> enhanceText(String text, TextEnhancementRequest.TextEnhancementAction action) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", settings.modelVersion());
+        body.put("text", text);
+        body.put("action", action);
+        return call(Operation.ENHANCE_TEXT, body, TextEnhancementResponse.class, true);
+    }
+
+    @Override
+    public Optional<TestGenerationResponse> generateTestQuestions(
+            String context,
+            String topic,
+            QuestionType questionType,
+            Integer questionCount,
+            String difficulty
+    ) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", settings.modelVersion());
+        body.put("context", context);
+        body.put("topic", topic);
+        body.put("questionType", questionType);
+        body.put("questionCount", questionCount);
+        body.put("difficulty", difficulty);
+        return call(Operation.GENERATE_TEST, body, TestGenerationResponse.class, settings.retryGenerations());
+    }
+
+    @Override
+    public Optional<CodeTaskGenerationResponse> generateCodeTask(
+            String topic,
+            CodeLanguage language,
+            String difficulty,
+            String requirements
+    ) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", settings.modelVersion());
+        body.put("topic", topic);
+        body.put("language", language);
+        body.put("difficulty", difficulty);
+        body.put("requirements", requirements);
+        return call(Operation.GENERATE_CODE_TASK, body, CodeTaskGenerationResponse.class, settings.retryGenerations());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    private <T> Optional<T> call(Operation operation, Object body, Class<T> responseType, boolean idempotent) {
+        HttpRequest request = buildRequest(operation, body);
+
+        CheckedSupplier<Optional<T>> attempt = () -> circuitBreaker.executeCheckedSupplier(
+                () -> send(request, responseType));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Optional<T> result = idempotent ? retry.executeCheckedSupplier(attempt) : attempt.get();
+            outcome = result.isPresent() ? "success" : "rejected";
+            return result;
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit_open";
+            throw new AiClientException("AI service circuit is open", e, false);
+        } catch (AiClientException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            outcome = "interrupted";
+            Thread.currentThread().interrupt();
+            throw new AiClientException("AI call interrupted", e, false);
+        } catch (Throwable e) {
+            if (e instanceof Error error) throw error;
+            throw new AiClientException("AI call failed: " + e.getMessage(), e, isRetryable(e));
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Вызовы AI-сервиса, включая повторы")
+                    .tag("operation", operation.name())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private HttpRequest buildRequest(Operation operation, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось сериализовать запрос к AI-сервису", e);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(settings.baseUrl().resolve(operation.path))
+                .timeout(timeout(operation))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                // один ключ на все попытки логического вызова
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        if (settings.apiKey() != null && !settings.apiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.apiKey());
+        }
+        return builder.build();
+    }
+
+    private <T> Optional<T> send(HttpRequest request, Class<T> responseType) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        int status = response.statusCode();
+
+        if (status >= 200 && status < 300) {
+            return Optional.ofNullable(objectMapper.readValue(response.body(), responseType));
+        }
+        if (status == 400 || status == 422) {
+            log.warn("AI service rejected request: uri={}, status={}", request.uri(), status);
+            return Optional.empty();
+        }
+        throw new AiClientException("AI service responded " + status, status == 429 || status >= 500);
+    }
+
+    private Duration timeout(Operation operation) {
+        return switch (operation) {
+            case ENHANCE_TEXT -> settings.enhanceTextTimeout();
+            case GENERATE_TEST -> settings.generateTestTimeout();
+            case GENERATE_CODE_TASK -> settings.generateCodeTaskTimeout();
+        };
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof IOException
+                || (e instanceof AiClientException client && client.isRetryable());
+    }
+}
@@ -0,0 +1,342 @@
+package ru.offer.hunt.oh_course.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.offer.hunt.oh_course.exception.UserDirectoryException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP-клиент сервиса пользователей (app.users.client=http).
+ * Разрешённые email лежат в локальном кэше: найденные - positive-ttl, ненайденные - negative-ttl (короче,
+ * чтобы только что зарегистрированный пользователь не ждал долго). Параллельные поиски одного email
+ * делят один future кэша, промахи за batch-window собираются в один POST /api/internal/users/lookup
+ * (не больше max-batch-size email в запросе). Ошибка запроса не кэшируется - следующий вызов повторит поиск.
+ * Метрики: cache_* {cache=user_directory}, oh.course.users.lookup{outcome} и размер пакета.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.users", name = "client", havingValue = "http")
+@Slf4j
+public class HttpUserDirectoryClient implements UserDirectoryClient {
+
+    static final String METRIC_NAME = "oh.course.users.lookup";
+    private static final String LOOKUP_PATH = "/api/internal/users/lookup";
+
+    public record Settings(
+            URI baseUrl,
+            String apiKey,
+            Duration connectTimeout,
+            Duration requestTimeout,
+            Duration batchWindow,
+            int maxBatchSize,
+            long cacheMaxSize,
+            Duration positiveTtl,
+            Duration negativeTtl
+    ) {
+        public Settings {
+            // при нуле dispatch не продвигается по пакету и зацикливается
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("app.users.batch.max-size must be positive: " + maxBatchSize);
+            }
+        }
+    }
+
+    record LookupRequest(Collection<String> emails) {}
+
+    record LookupResponse(List<UserInfo> users) {}
+
+    private record PendingLookup(String email, CompletableFuture<Optional<UserInfo>> result) {}
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService timer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("user-lookup-batch").factory());
+    private final HttpClient httpClient;
+    private final AsyncCache<String, Optional<UserInfo>> cache;
+    private final DistributionSummary batchSizes;
+
+    private final Object pendingLock = new Object();
+    private List<PendingLookup> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    @Autowired
+    public HttpUserDirectoryClient(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.users.http.base-url}") String baseUrl,
+            @Value("${app.users.http.api-key:}") String apiKey,
+            @Value("${app.users.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.users.http.timeout-ms:3000}") long requestTimeoutMs,
+            @Value("${app.users.batch.window-ms:10}") long batchWindowMs,
+            @Value("${app.users.batch.max-size:100}") int maxBatchSize,
+            @Value("${app.users.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${app.users.cache.positive-ttl-seconds:600}") long positiveTtlSeconds,
+            @Value("${app.users.cache.negative-ttl-seconds:30}") long negativeTtlSeconds
+    ) {
+        this(new Settings(
+                URI.create(baseUrl),
+                apiKey,
+                Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(requestTimeoutMs),
+                Duration.ofMillis(batchWindowMs),
+                maxBatchSize,
+                cacheMaxSize,
+                Duration.ofSeconds(positiveTtlSeconds),
+                Duration.ofSeconds(negativeTtlSeconds)
+        ), objectMapper, meterRegistry);
+    }
+
+    public HttpUserDirectoryClient(Settings settings, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.connectTimeout())
+                .executor(ioExecutor)
+                .build();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.cacheMaxSize())
+                .expireAfter(new Expiry<String, Optional<UserInfo>>() {
+                    @Override
+                    public long expireAfterCreate(String email, Optional<UserInfo> user, long currentTime) {
+                        return (user.isPresent() ? settings.positiveTtl() : settings.negativeTtl()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, Optional<UserInfo> user,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(email, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, Optional<UserInfo> user,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "user_directory");
+        this.batchSizes = DistributionSummary.builder(METRIC_NAME + ".batch_size")
+                .description("Число email в одном запросе к сервису пользователей")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<UserInfo> findByEmail(String email) {
+        String normalized = UserDirectoryClient.normalize(email);
+        if (normalized.isEmpty()) {
+            return Optional.empty();
+        }
+        return await(cache.get(normalized, (key, executor) -> enqueue(List.of(key)).get(key)));
+    }
+
+    @Override
+    public Map<String, UserInfo> findAllByEmails(Collection<String> emails) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String email : emails) {
+            String value = UserDirectoryClient.normalize(email);
+            if (!value.isEmpty()) {
+                normalized.add(value);
+            }
+        }
+        if (normalized.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Optional<UserInfo>> found = await(cache.getAll(normalized, (keys, executor) -> {
+            Map<String, CompletableFuture<Optional<UserInfo>>> futures = enqueue(keys);
+            return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> {
+                        Map<String, Optional<UserInfo>> result = new HashMap<>();
+                        futures.forEach((key, future) -> result.put(key, future.join()));
+                        return result;
+                    });
+        }));
+
+        Map<String, UserInfo> result = new LinkedHashMap<>();
+        for (String email : normalized) {
+            Optional<UserInfo> user = found.get(email);
+            if (user != null && user.isPresent()) {
+                result.put(email, user.get());
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        ioExecutor.shutdownNow();
+    }
+
+    /**
+     * Ставит промахи кэша в текущее окно. Окно закрывается по таймеру или сразу при наборе max-batch-size.
+     */
+    private Map<String, CompletableFuture<Optional<UserInfo>>> enqueue(Collection<? extends String> emails) {
+        Map<String, CompletableFuture<Optional<UserInfo>>> futures = new LinkedHashMap<>();
+        List<PendingLookup> full = null;
+
+        synchronized (pendingLock) {
+            for (String email : emails) {
+                CompletableFuture<Optional<UserInfo>> future = new CompletableFuture<>();
+                futures.put(email, future);
+                pending.add(new PendingLookup(email, future));
+            }
+            if (pending.size() >= settings.maxBatchSize()) {
+                full = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush,
+                        settings.batchWindow().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return futures;
+    }
+
+    private void flush() {
+        List<PendingLookup> batch;
+        synchronized (pendingLock) {
+            batch = drainPending();
+        }
+        dispatch(batch);
+    }
+
+    private List<PendingLookup> drainPending() {
+        List<PendingLookup> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingLookup> batch) {
+        for (int from = 0; from < batch.size(); from += settings.maxBatchSize()) {
+            List<PendingLookup> chunk = batch.subList(from, Math.min(batch.size(), from + settings.maxBatchSize()));
+            ioExecutor.execute(() -> lookup(chunk));
+        }
+    }
+
+    private void lookup(List<PendingLookup> batch) {
+        Set<String> emails = new LinkedHashSet<>();
+        batch.forEach(p -> emails.add(p.email()));
+        batchSizes.record(emails.size());
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Map<String, UserInfo> users = fetch(emails);
+            outcome = "success";
+            for (PendingLookup p : batch) {
+                p.result().complete(Optional.ofNullable(users.get(p.email())));
+            }
+            log.debug("User directory lookup: requested={}, found={}", emails.size(), users.size());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("User directory lookup failed: emails={}, error={}", emails.size(), e.toString());
+            UserDirectoryException failure = e instanceof UserDirectoryException ude
+                    ? ude
+                    : new UserDirectoryException("User directory lookup failed: " + e.getMessage(), e);
+            batch.forEach(p -> p.result().completeExceptionally(failure));
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Пакетные запросы к сервису пользователей")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private Map<String, UserInfo> fetch(Collection<String> emails) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(settings.baseUrl().resolve(LOOKUP_PATH))
+                .timeout(settings.requestTimeout())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(
+                        objectMapper.writeValueAsBytes(new LookupRequest(emails))));
+        if (settings.apiKey() != null && !settings.apiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.apiKey());
+        }
+
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new UserDirectoryException("User directory responded " + response.statusCode());
+        }
+
+        LookupResponse body = objectMapper.readValue(response.body(), LookupResponse.class);
+        Map<String, UserInfo> users = new HashMap<>();
+        if (body != null && body.users() != null) {
+            for (UserInfo user : body.users()) {
+                if (user != null && user.getId() != null && user.getEmail() != null) {
+                    user.setEmail(UserDirectoryClient.normalize(user.getEmail()));
+                    users.put(user.getEmail(), user);
+                }
+            }
+        }
+        return users;
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        // окно пакета + сам запрос + запас на очередь виртуальных потоков
+        long bound = settings.batchWindow().plus(settings.requestTimeout()).plusSeconds(1).toMillis();
+        try {
+            return future.get(bound, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserDirectoryException("User directory lookup interrupted", e);
+        } catch (TimeoutException e) {
+            throw new UserDirectoryException("User directory lookup timed out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UserDirectoryException ude) {
+                throw ude;
+            }
+            throw new UserDirectoryException("User directory lookup failed", e.getCause());
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class LessonPageService {
     private final LessonPageRepository lessonPageRepository;
     private final LessonPageMapper lessonPageMapper;
     private final LessonRepository lessonRepository;
+    private final CourseRevisionCounter courseRevisionCounter;
 
     @Transactional
     public LessonPageDto addLessonToChapter(
@@ -63,6 +64,7 @@ public class LessonPageService {
             lessonPage.setUpdatedAt(now);
 
             lessonPageRepository.save(lessonPage);
+            courseRevisionCounter.bump(courseId);
 
             log.info("Lesson added. CourseID: {}, LessonID: {}", courseId, lessonPage.getId());
 
@@ -98,6 +100,7 @@ public class LessonPageService {
             lessonPage.setSortOrder(oldOrder);
 
             lessonPageRepository.save(lessonPage);
+            courseRevisionCounter.bump(lessonPage.getLesson().getCourse().getId());
 
             log.info("Page updated. ID: {}", pageId);
 
@@ -127,6 +130,7 @@ public class LessonPageService {
             lessonPageRepository.delete(lessonPage);
 
             lessonPageRepository.deleteById(pageId);
+            courseRevisionCounter.bump(lessonPage.getLesson().getCourse().getId());
             log.info("Page deleted. ID: {}", pageId);
         } catch (Exception e) {
             log.error("Page delete failed - server error. ID: {}", pageId, e);
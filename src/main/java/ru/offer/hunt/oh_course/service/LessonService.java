@@ -78,6 +78,8 @@ public class LessonService {
     private final QuestionOptionRepository questionOptionRepository;
     private final QuestionOptionMapper questionOptionMapper;
 
+    private final CourseRevisionCounter courseRevisionCounter;
+
     @Transactional
     public LessonDto createLesson(
             UUID courseId,
@@ -117,6 +119,7 @@ public class LessonService {
                     .build();
 
             lessonRepository.save(lesson);
+            courseRevisionCounter.bump(courseId);
 
             log.info("Chapter added. CourseID: {}, LessonID: {}", courseId, lesson.getId());
 
@@ -153,6 +156,7 @@ public class LessonService {
             lesson.setOrderIndex(oldOrder);
 
             lessonRepository.save(lesson);
+            courseRevisionCounter.bump(lesson.getCourse().getId());
 
             log.info("Lesson updated. ID: {}", lessonId);
 
@@ -180,6 +184,7 @@ public class LessonService {
             lessonPageRepository.deleteAllByLessonId(lessonId);
 
             lessonRepository.deleteById(lessonId);
+            courseRevisionCounter.bump(lesson.getCourse().getId());
 
             log.info("Lesson deleted. ID: {}", lessonId);
 
@@ -234,6 +239,7 @@ public class LessonService {
         page.setUpdatedAt(now);
 
         lessonPageRepository.save(page);
+        courseRevisionCounter.bump(courseId);
 
         log.info("Lesson page created: pageId={}, lessonId={}, courseId={}, userId={}",
                 page.getId(), lessonId, courseId, userId);
@@ -276,6 +282,7 @@ public class LessonService {
         content.setUpdatedAt(now);
 
         MethodicalPageContent saved = methodicalPageContentRepository.save(content);
+        courseRevisionCounter.bump(courseId);
 
         log.info("Methodical upsert: pageId={}, courseId={}, userId={}, created={}",
                 pageId, courseId, userId, created);
@@ -307,6 +314,7 @@ public class LessonService {
         q.setUpdatedAt(now);
 
         Question saved = questionRepository.save(q);
+        courseRevisionCounter.bump(courseId);
 
         log.info("Question created: questionId={}, pageId={}, courseId={}, userId={}",
                 saved.getId(), pageId, courseId, userId);
@@ -337,6 +345,7 @@ public class LessonService {
         opt.setId(UUID.randomUUID());
 
         QuestionOption saved = questionOptionRepository.save(opt);
+        courseRevisionCounter.bump(courseId);
 
         log.info("Option created: optionId={}, questionId={}, courseId={}, userId={}",
                 saved.getId(), questionId, courseId, userId);
@@ -33,6 +33,7 @@ public class MethodicalPageContentService {
 
     private final CourseMemberRepository courseMemberRepository;
     private final LessonRepository lessonRepository;
+    private final CourseRevisionCounter courseRevisionCounter;
 
     @Transactional
     public MethodicalPageContentDto create(UUID pageId, MethodicalPageContentUpsertRequest methodicalPageContentUpsertRequest,  UUID userId) {
@@ -50,7 +51,8 @@ public class MethodicalPageContentService {
                             new ResponseStatusException(HttpStatus.NOT_FOUND, "Страница не найдена"));
 
             /// Проверка прав
-            ensureCanEditCodeTasks(page.getLesson().getCourse().getId(), userId);
+            UUID courseId = page.getLesson().getCourse().getId();
+            ensureCanEditCodeTasks(courseId, userId);
 
             /// Создаем объект из DTO
             var methodicalPage = methodicalPageContentMapper.toEntity(pageId, methodicalPageContentUpsertRequest);
@@ -58,6 +60,7 @@ public class MethodicalPageContentService {
 
             /// Сохраняем и возвращаем
             methodicalPage = methodicalPageContentRepository.save(methodicalPage);
+            courseRevisionCounter.bump(courseId);
             return methodicalPageContentMapper.toDto(methodicalPage);
 
 
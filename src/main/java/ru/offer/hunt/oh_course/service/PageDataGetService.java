@@ -4,12 +4,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.model.dto.LessonDataDto;
+import ru.offer.hunt.oh_course.model.dto.LessonPageDataDto;
 import ru.offer.hunt.oh_course.model.dto.PageDataDto;
 import ru.offer.hunt.oh_course.model.dto.QuestionOptionDto;
 import ru.offer.hunt.oh_course.model.dto.QuestionTestCaseDto;
 import ru.offer.hunt.oh_course.model.dto.QuestionWithAnswersDto;
 import ru.offer.hunt.oh_course.model.entity.*;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
 import ru.offer.hunt.oh_course.model.mapper.MethodicalPageContentMapper;
 import ru.offer.hunt.oh_course.model.mapper.QuestionMapper;
 import ru.offer.hunt.oh_course.model.mapper.QuestionOptionMapper;
@@ -17,14 +21,20 @@ import ru.offer.hunt.oh_course.model.mapper.QuestionTestCaseMapper;
 import ru.offer.hunt.oh_course.model.repository.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class PageDataGetService {
+    private final LessonRepository lessonRepository;
     private final LessonPageRepository lessonPageRepository;
 
     private final MethodicalPageContentRepository methodicalPageContentRepository;
@@ -49,34 +59,8 @@ public class PageDataGetService {
 
             }
 
-            MethodicalPageContent methodicalPageContent = methodicalPageContentRepository.findById(pageId).orElse(null);
-            List<Question> questions = questionRepository.findByPageId(pageId);
-            List<QuestionWithAnswersDto> questionWithAnswersDtoList = new ArrayList<>();
-            List<QuestionOptionDto> questionOptionDtoList;
-            List<QuestionTestCaseDto> questionTestCaseDtoList;
-
-            for(Question que : questions){
-                /// Тут можно оптимизировать и посмотреть на тип вопроса и не делать лишние поиски, я так и сделал
-                questionOptionDtoList = null;
-                questionTestCaseDtoList = null;
-                switch (que.getType()){
-                    case CODE:
-                        questionTestCaseDtoList = questionTestCaseRepository.findByQuestionId(que.getId()).stream().map(questionTestCaseMapper::toDto).collect(Collectors.toList());
-                        break;
-                    case SINGLE_CHOICE:
-                    case MULTIPLE_CHOICE:
-                        questionOptionDtoList = questionOptionRepository.findByQuestionIdOrderBySortOrderAsc(que.getId()).stream().map(questionOptionMapper::toDto).collect(Collectors.toList());
-                        break;
-                    case TEXT_INPUT:
-                        break;
-                }
-
-                questionWithAnswersDtoList.add(new QuestionWithAnswersDto(questionMapper.toDto(que), questionOptionDtoList, questionTestCaseDtoList));
-
-            }
-
-            return new PageDataDto(methodicalPageContentMapper.toDto(methodicalPageContent), questionWithAnswersDtoList);
-
+            // вопросы делятся по типу, варианты и тест-кейсы - двумя IN-запросами на всю страницу
+            return loadPageData(List.of(pageId)).get(pageId);
 
         }catch (ResponseStatusException e) {
             throw e;
@@ -89,6 +73,106 @@ public class PageDataGetService {
         }
     }
 
+    /**
+     * Все страницы урока одним ответом для навигации без запросов на каждую страницу.
+     * Число запросов не зависит от числа страниц и вопросов: урок, страницы, контент, вопросы,
+     * варианты и тест-кейсы - по одному IN-запросу.
+     */
+    public LessonDataDto getLessonDataDto(UUID userId, UUID lessonId) {
+        try {
+            Lesson lesson = lessonRepository.findById(lessonId).orElseThrow(
+                    () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Урок не найден"));
+
+            // id из прокси - без загрузки курса
+            UUID courseId = lesson.getCourse().getId();
+            if (!checkUserPermissions(courseId, userId)) {
+                log.error("User ID = {} opened Lesson ID = {} - access error ", userId, lessonId);
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Курс недоступен");
+            }
+
+            List<LessonPage> pages = lessonPageRepository.findByLessonIdOrderBySortOrderAsc(lessonId);
+            Map<UUID, PageDataDto> dataByPage = loadPageData(pages.stream().map(LessonPage::getId).toList());
+
+            List<LessonPageDataDto> pageDtos = pages.stream()
+                    .map(p -> new LessonPageDataDto(
+                            p.getId(),
+                            p.getTitle(),
+                            p.getPageType(),
+                            p.getSortOrder(),
+                            dataByPage.get(p.getId())))
+                    .toList();
+
+            log.debug("Lesson data loaded: lessonId={}, pages={}", lessonId, pageDtos.size());
+            return new LessonDataDto(lessonId, courseId, pageDtos);
+
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception ex) {
+            log.error("lesson data get failed - server error, lessonId={}", lessonId, ex);
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Не удалось выдать урок. Попробуйте позже."
+            );
+        }
+    }
+
+    /**
+     * Данные страниц пакетом: контент и вопросы по IN на страницы, варианты - только для choice-вопросов,
+     * тест-кейсы - только для CODE. Страницы без контента и вопросов тоже попадают в результат.
+     */
+    private Map<UUID, PageDataDto> loadPageData(List<UUID> pageIds) {
+        Map<UUID, PageDataDto> result = new LinkedHashMap<>();
+        if (pageIds.isEmpty()) {
+            return result;
+        }
+
+        Map<UUID, MethodicalPageContent> contentByPage = methodicalPageContentRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(MethodicalPageContent::getPageId, Function.identity()));
+        List<Question> questions = questionRepository.findByPageIdInOrderBySortOrderAsc(pageIds);
+
+        List<UUID> choiceIds = new ArrayList<>();
+        List<UUID> codeIds = new ArrayList<>();
+        for (Question que : questions) {
+            if (que.getType() == QuestionType.SINGLE_CHOICE || que.getType() == QuestionType.MULTIPLE_CHOICE) {
+                choiceIds.add(que.getId());
+            } else if (que.getType() == QuestionType.CODE) {
+                codeIds.add(que.getId());
+            }
+        }
+
+        Map<UUID, List<QuestionOptionDto>> optionsByQuestion = new HashMap<>();
+        if (!choiceIds.isEmpty()) {
+            for (QuestionOption option : questionOptionRepository.findByQuestionIdInOrderBySortOrderAsc(choiceIds)) {
+                optionsByQuestion.computeIfAbsent(option.getQuestionId(), k -> new ArrayList<>())
+                        .add(questionOptionMapper.toDto(option));
+            }
+        }
+
+        Map<UUID, List<QuestionTestCaseDto>> testCasesByQuestion = new HashMap<>();
+        if (!codeIds.isEmpty()) {
+            for (QuestionTestCase testCase : questionTestCaseRepository.findByQuestionIdIn(codeIds)) {
+                testCasesByQuestion.computeIfAbsent(testCase.getQuestionId(), k -> new ArrayList<>())
+                        .add(questionTestCaseMapper.toDto(testCase));
+            }
+        }
+
+        Map<UUID, List<QuestionWithAnswersDto>> questionsByPage = new HashMap<>();
+        for (Question que : questions) {
+            questionsByPage.computeIfAbsent(que.getPageId(), k -> new ArrayList<>())
+                    .add(new QuestionWithAnswersDto(
+                            questionMapper.toDto(que),
+                            optionsByQuestion.get(que.getId()),
+                            testCasesByQuestion.get(que.getId())));
+        }
+
+        for (UUID pageId : pageIds) {
+            result.put(pageId, new PageDataDto(
+                    methodicalPageContentMapper.toDto(contentByPage.get(pageId)),
+                    questionsByPage.getOrDefault(pageId, new ArrayList<>())));
+        }
+        return result;
+    }
+
     private boolean checkUserPermissions(UUID courseId, UUID userId){
         /// Заглушка пока что.
 
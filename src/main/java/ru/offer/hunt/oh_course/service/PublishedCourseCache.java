@@ -0,0 +1,155 @@
+package ru.offer.hunt.oh_course.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.dto.CourseOutlineDto;
+import ru.offer.hunt.oh_course.model.dto.CourseOutlineLiteDto;
+import ru.offer.hunt.oh_course.model.dto.PageViewDto;
+import ru.offer.hunt.oh_course.model.enums.AccessType;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Кэш карточек опубликованных курсов (CourseDto по slug и id, CourseOutlineDto по slug).
+ * Ограничен по размеру и TTL; инвалидация - после коммита транзакции из CourseRevisionCounter.bump
+ * (любое изменение контента, тегов или статуса) и при удалении курса.
+ * Демо-страницы (PageViewDto) и lite-структура курса ключуются ревизией контента курса и явной инвалидации не требуют:
+ * после изменения курса старый ключ больше не запрашивается и уходит по TTL/размеру.
+ * Значения разделяются между запросами - их нельзя мутировать после получения.
+ * Проверка inviteCode в кэш не входит: accessType/inviteCode лежат рядом со значением,
+ * а сама проверка выполняется вызывающим сервисом на каждом запросе.
+ * fingerprint курса тоже лежит рядом и читается при загрузке: ETag строится из него и всегда
+ * соответствует отдаваемому из кэша телу (статистика и участники кэш не сбрасывают).
+ */
+@Component
+@Slf4j
+public class PublishedCourseCache implements MeterBinder {
+
+    public record CachedCourse(CourseDto course, AccessType accessType, String inviteCode, String fingerprint) {}
+
+    public record CachedOutline(UUID courseId, CourseOutlineDto outline, AccessType accessType, String inviteCode,
+                                String fingerprint) {}
+
+    public record RevisionKey(UUID id, long contentRevision) {}
+
+    private final Cache<String, CachedCourse> coursesBySlug;
+    private final Cache<UUID, CachedCourse> coursesById;
+    private final Cache<String, CachedOutline> outlinesBySlug;
+    private final Cache<RevisionKey, PageViewDto> demoPages;
+    private final Cache<RevisionKey, CourseOutlineLiteDto> structuresLite;
+
+    public PublishedCourseCache(
+            @Value("${app.cache.published-courses.max-size:1000}") long maxSize,
+            @Value("${app.cache.published-courses.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.cache.demo-pages.max-size:5000}") long demoPagesMaxSize,
+            @Value("${app.cache.demo-pages.ttl-seconds:3600}") long demoPagesTtlSeconds,
+            @Value("${app.cache.structures-lite.max-size:1000}") long structuresLiteMaxSize,
+            @Value("${app.cache.structures-lite.ttl-seconds:3600}") long structuresLiteTtlSeconds
+    ) {
+        this.coursesBySlug = build(maxSize, ttlSeconds);
+        this.coursesById = build(maxSize, ttlSeconds);
+        this.outlinesBySlug = build(maxSize, ttlSeconds);
+        this.demoPages = build(demoPagesMaxSize, demoPagesTtlSeconds);
+        this.structuresLite = build(structuresLiteMaxSize, structuresLiteTtlSeconds);
+    }
+
+    private static <K, V> Cache<K, V> build(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Загрузчик вызывается только при промахе; исключение из него (404) не кэшируется.
+     */
+    public CachedCourse getBySlug(String slug, Function<String, CachedCourse> loader) {
+        return coursesBySlug.get(slug, loader);
+    }
+
+    public CachedCourse getById(UUID courseId, Function<UUID, CachedCourse> loader) {
+        return coursesById.get(courseId, loader);
+    }
+
+    public CachedOutline getOutline(String slug, Function<String, CachedOutline> loader) {
+        return outlinesBySlug.get(slug, loader);
+    }
+
+    /**
+     * Просмотр демо-страницы на данной ревизии курса. Проверки доступа - до вызова, у вызывающего.
+     */
+    public PageViewDto getDemoPage(UUID pageId, long contentRevision, Function<RevisionKey, PageViewDto> loader) {
+        return demoPages.get(new RevisionKey(pageId, contentRevision), loader);
+    }
+
+    public CourseOutlineLiteDto getStructureLite(UUID courseId, long contentRevision,
+                                                 Function<RevisionKey, CourseOutlineLiteDto> loader) {
+        return structuresLite.get(new RevisionKey(courseId, contentRevision), loader);
+    }
+
+    /**
+     * Сбросить всё, что относится к курсу. Внутри транзакции - после коммита,
+     * чтобы параллельное чтение не закэшировало данные до фиксации изменений.
+     */
+    public void evict(UUID courseId) {
+        if (courseId == null) {
+            return;
+        }
+        afterCommit(() -> evictNow(courseId));
+    }
+
+    private void evictNow(UUID courseId) {
+        coursesById.invalidate(courseId);
+        // записей по slug не больше max-size, а вызов идёт только из путей записи
+        coursesBySlug.asMap().values().removeIf(c -> courseId.equals(c.course().getId()));
+        outlinesBySlug.asMap().values().removeIf(o -> courseId.equals(o.courseId()));
+        log.debug("Published course cache evicted: courseId={}", courseId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, coursesBySlug, "published_courses_by_slug");
+        CaffeineCacheMetrics.monitor(registry, coursesById, "published_courses_by_id");
+        CaffeineCacheMetrics.monitor(registry, outlinesBySlug, "published_outlines_by_slug");
+        CaffeineCacheMetrics.monitor(registry, demoPages, "demo_pages");
+        CaffeineCacheMetrics.monitor(registry, structuresLite, "course_structures_lite");
+    }
+
+    public CacheStats courseStats() {
+        return coursesBySlug.stats().plus(coursesById.stats());
+    }
+
+    public CacheStats outlineStats() {
+        return outlinesBySlug.stats();
+    }
+
+    public CacheStats demoPageStats() {
+        return demoPages.stats();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
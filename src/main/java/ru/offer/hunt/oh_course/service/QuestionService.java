@@ -35,6 +35,7 @@ public class QuestionService {
 
     private final LessonRepository lessonRepository;
     private final CourseMemberRepository courseMemberRepository;
+    private final CourseRevisionCounter courseRevisionCounter;
 
     private final static Integer MAX_SIZE = 1000000;
 
@@ -67,7 +68,7 @@ public class QuestionService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ни один из вариантов ответа не помечен как правильный");
             }
 
-            checkRightUserAndExistenceCourse(pageId, userId);
+            UUID courseId = checkRightUserAndExistenceCourse(pageId, userId);
 
             if (request.getUseAiCheck() == null) {
                 request.setUseAiCheck(false);
@@ -86,6 +87,7 @@ public class QuestionService {
                 var optional = questionOptionMapper.toEntity(questionId, req);
                     optional = questionOptionRepository.save(optional);
             }
+            courseRevisionCounter.bump(courseId);
 
             log.info("Test page saved: pageId={}, questionId={}", pageId, questionId);
 
@@ -137,7 +139,7 @@ public class QuestionService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Слишком длинный ответ");
             }
 
-            checkRightUserAndExistenceCourse(pageId, userId);
+            UUID courseId = checkRightUserAndExistenceCourse(pageId, userId);
 
             if(request.getUseAiCheck() == null){
                 request.setUseAiCheck(false);
@@ -156,6 +158,7 @@ public class QuestionService {
             question.setUpdatedAt(null);
 
             question = questionRepository.saveAndFlush(question);
+            courseRevisionCounter.bump(courseId);
             return questionMapper.toDto(question);
 
         }catch (ResponseStatusException e) {
@@ -195,12 +198,14 @@ public class QuestionService {
         }
     }
 
-    private void checkRightUserAndExistenceCourse(UUID pageId, UUID userId){
+    private UUID checkRightUserAndExistenceCourse(UUID pageId, UUID userId){
         LessonPage page = lessonPageRepository.findById(pageId)
                 .orElseThrow(() ->
                         new ResponseStatusException(HttpStatus.NOT_FOUND, "Страница не найдена"));
 
-        ensureCanEditCodeTasks(page.getLesson().getCourse().getId(), userId);
+        UUID courseId = page.getLesson().getCourse().getId();
+        ensureCanEditCodeTasks(courseId, userId);
+        return courseId;
     }
 
 
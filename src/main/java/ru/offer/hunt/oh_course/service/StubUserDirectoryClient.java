@@ -0,0 +1,39 @@
+package ru.offer.hunt.oh_course.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stub implementation that generates a UUID based on the email (app.users.client=stub, по умолчанию).
+ * Реальный справочник - HttpUserDirectoryClient (app.users.client=http).
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.users", name = "client", havingValue = "stub", matchIfMissing = true)
+@Slf4j
+public class StubUserDirectoryClient implements UserDirectoryClient {
+
+    @Override
+    public Optional<UserInfo> findByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            log.warn("StubUserDirectoryClient: empty email -> user not found");
+            return Optional.empty();
+        }
+
+        String normalized = UserDirectoryClient.normalize(email);
+
+        UUID userId = UUID.nameUUIDFromBytes(
+                normalized.getBytes(StandardCharsets.UTF_8));
+
+        UserInfo user = new UserInfo(userId, normalized);
+
+        log.info("StubUserDirectoryClient: resolved email {} to userId {}",
+                user.getEmail(), user.getId());
+
+        return Optional.of(user);
+    }
+}
@@ -23,21 +23,13 @@ public class TagService {
     public List<TagRef> resolveTagRefs(List<String> tags) {
         if (tags == null) return null;
 
-        // trim + remove blanks + dedupe ignore-case preserving order
-        Map<String, String> uniq = new LinkedHashMap<>();
-        for (String t : tags) {
-            if (t == null) continue;
-            String v = t.trim();
-            if (v.isEmpty()) continue;
-            uniq.putIfAbsent(v.toLowerCase(Locale.ROOT), v);
-        }
-
-        if (uniq.isEmpty()) return List.of();
+        List<String> names = normalizeTagNames(tags);
+        if (names.isEmpty()) return List.of();
 
         OffsetDateTime now = OffsetDateTime.now();
-        List<TagRef> result = new ArrayList<>(uniq.size());
+        List<TagRef> result = new ArrayList<>(names.size());
 
-        for (String original : uniq.values()) {
+        for (String original : names) {
             TagRef ref = tagRefRepository.findByNameIgnoreCase(original)
                     .orElseGet(() -> {
                         TagRef created = TagRef.builder()
@@ -52,4 +44,18 @@ public class TagService {
 
         return result;
     }
+
+    /**
+     * trim + remove blanks + dedupe ignore-case preserving order (первое написание побеждает)
+     */
+    public static List<String> normalizeTagNames(Collection<String> tags) {
+        Map<String, String> uniq = new LinkedHashMap<>();
+        for (String t : tags) {
+            if (t == null) continue;
+            String v = t.trim();
+            if (v.isEmpty()) continue;
+            uniq.putIfAbsent(v.toLowerCase(Locale.ROOT), v);
+        }
+        return new ArrayList<>(uniq.values());
+    }
 }
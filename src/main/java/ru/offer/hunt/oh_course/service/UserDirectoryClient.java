@@ -4,45 +4,47 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
-@Service
-@Slf4j
-public class UserDirectoryClient {
+/**
+ * Справочник пользователей: поиск id по email. Реализация выбирается app.users.client:
+ * stub (по умолчанию) или http (пакетные запросы к сервису пользователей с локальным кэшем).
+ * Email сравниваются в нормализованном виде (trim + lower case).
+ */
+public interface UserDirectoryClient {
+
     /**
-     * Stub implementation that generates a UUID based on the email.
+     * Пользователь по email; Optional.empty() - такого пользователя нет.
+     * Недоступность справочника - UserDirectoryException.
      */
+    Optional<UserInfo> findByEmail(String email);
 
-    public Optional<UserInfo> findByEmail(String email) {
-        if (email == null || email.isBlank()) {
-            log.warn("StubUserDirectoryClient: empty email -> user not found");
-            return Optional.empty();
+    /**
+     * Пакетный поиск: ключ - нормализованный email, ненайденных в результате нет.
+     */
+    default Map<String, UserInfo> findAllByEmails(Collection<String> emails) {
+        Map<String, UserInfo> result = new LinkedHashMap<>();
+        for (String email : emails) {
+            findByEmail(email).ifPresent(user -> result.put(normalize(email), user));
         }
+        return result;
+    }
 
-        String normalized = email.trim().toLowerCase(Locale.ROOT);
-
-        UUID userId = UUID.nameUUIDFromBytes(
-                normalized.getBytes(StandardCharsets.UTF_8));
-
-        UserInfo user = new UserInfo(userId, normalized);
-
-        log.info("StubUserDirectoryClient: resolved email {} to userId {}",
-                user.getEmail(), user.getId());
-
-        return Optional.of(user);
+    static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
     }
 
     @Getter
     @Setter
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class UserInfo {
+    class UserInfo {
         private UUID id;
         private String email;
     }
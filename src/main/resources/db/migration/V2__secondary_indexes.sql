@@ -0,0 +1,46 @@
+-- Вторичные индексы под access patterns репозиториев.
+-- Порядок колонок совпадает с where + order by соответствующих запросов,
+-- чтобы сортировка бралась из индекса, а не отдельным шагом Sort.
+
+-- каталог: status = 'PUBLISHED' order by published_at desc, id desc (keyset)
+create index if not exists course_courses_published_idx
+    on course.course_courses (published_at desc, id desc)
+    where status = 'PUBLISHED';
+
+-- "мои курсы", поиск существующего черновика (author_id + title + status)
+create index if not exists course_courses_author_status_idx
+    on course.course_courses (author_id, status);
+
+-- PK (course_id, user_id) не покрывает выборку по пользователю
+create index if not exists course_members_user_idx
+    on course.course_members (user_id);
+
+create index if not exists course_lessons_course_order_idx
+    on course.course_lessons (course_id, order_index);
+
+create index if not exists course_lesson_pages_lesson_sort_idx
+    on course.course_lesson_pages (lesson_id, sort_order);
+
+create index if not exists course_questions_page_sort_idx
+    on course.course_questions (page_id, sort_order);
+
+create index if not exists course_question_options_question_sort_idx
+    on course.course_question_options (question_id, sort_order);
+
+create index if not exists course_question_test_cases_question_idx
+    on course.course_question_test_cases (question_id);
+
+-- PK (course_id, tag_id): обратный поиск курсов по тегу (фильтр technologies)
+create index if not exists course_tags_tag_idx
+    on course.course_tags (tag_id);
+
+-- PK (user_id, course_id) не покрывает выборку по курсу
+create index if not exists course_ratings_course_idx
+    on course.course_ratings (course_id);
+
+create index if not exists course_content_versions_course_scope_idx
+    on course.course_content_versions (course_id, scope, created_at desc);
+
+create index if not exists course_content_versions_lesson_scope_idx
+    on course.course_content_versions (lesson_id, scope, created_at desc)
+    where lesson_id is not null;
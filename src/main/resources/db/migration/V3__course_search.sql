@@ -0,0 +1,97 @@
+-- Полнотекстовый поиск по каталогу.
+-- Документ хранится отдельной таблицей и поддерживается триггерами: вес A - название,
+-- B - теги, C - описание. pg_trgm даёт нечёткое и префиксное совпадение по названию.
+
+create extension if not exists pg_trgm with schema public;
+
+create table if not exists course.course_search_documents
+(
+    course_id   uuid primary key references course.course_courses (id) on delete cascade,
+    title       varchar(255) not null,
+    document    tsvector not null,
+    updated_at  timestamptz not null default now()
+);
+
+create index if not exists course_search_documents_document_idx
+    on course.course_search_documents using gin (document);
+
+create index if not exists course_search_documents_title_trgm_idx
+    on course.course_search_documents using gin (title public.gin_trgm_ops);
+
+create or replace function course.course_search_refresh(p_course_id uuid) returns void
+    language sql as
+$$
+insert into course.course_search_documents (course_id, title, document, updated_at)
+select c.id,
+       c.title,
+       setweight(to_tsvector('russian', coalesce(c.title, '')), 'A') ||
+       setweight(to_tsvector('russian', coalesce((select string_agg(t.name::text, ' ')
+                                                  from course.course_tags ct
+                                                           join course.course_tags_ref t on t.id = ct.tag_id
+                                                  where ct.course_id = c.id), '')), 'B') ||
+       setweight(to_tsvector('russian', coalesce(c.description, '')), 'C'),
+       now()
+from course.course_courses c
+where c.id = p_course_id
+on conflict (course_id) do update
+    set title      = excluded.title,
+        document   = excluded.document,
+        updated_at = excluded.updated_at;
+$$;
+
+create or replace function course.course_search_on_course() returns trigger
+    language plpgsql as
+$$
+begin
+    perform course.course_search_refresh(new.id);
+    return null;
+end;
+$$;
+
+create or replace function course.course_search_on_course_tags() returns trigger
+    language plpgsql as
+$$
+begin
+    if tg_op = 'DELETE' then
+        perform course.course_search_refresh(old.course_id);
+    else
+        perform course.course_search_refresh(new.course_id);
+    end if;
+    return null;
+end;
+$$;
+
+create or replace function course.course_search_on_tag_rename() returns trigger
+    language plpgsql as
+$$
+begin
+    perform course.course_search_refresh(ct.course_id)
+    from course.course_tags ct
+    where ct.tag_id = new.id;
+    return null;
+end;
+$$;
+
+drop trigger if exists course_search_courses_trg on course.course_courses;
+create trigger course_search_courses_trg
+    after insert or update of title, description
+    on course.course_courses
+    for each row
+execute function course.course_search_on_course();
+
+drop trigger if exists course_search_course_tags_trg on course.course_tags;
+create trigger course_search_course_tags_trg
+    after insert or delete
+    on course.course_tags
+    for each row
+execute function course.course_search_on_course_tags();
+
+drop trigger if exists course_search_tags_ref_trg on course.course_tags_ref;
+create trigger course_search_tags_ref_trg
+    after update of name
+    on course.course_tags_ref
+    for each row
+execute function course.course_search_on_tag_rename();
+
+select course.course_search_refresh(id)
+from course.course_courses;
@@ -0,0 +1,4 @@
+-- Монотонный счётчик изменений контента курса (уроки/страницы/вопросы/методички/теги/статус).
+-- Увеличивается в той же транзакции, что и само изменение (CourseRevisionCounter).
+alter table course.course_courses
+    add column if not exists content_revision bigint not null default 0;
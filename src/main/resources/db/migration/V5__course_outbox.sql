@@ -0,0 +1,29 @@
+-- Transactional outbox: события жизненного цикла курса пишутся в той же транзакции, что и изменение,
+-- фоновый relay (OutboxRelay) доставляет их во внешний sink с ретраями и сохранением порядка по course_id.
+create table if not exists course.course_outbox_events
+(
+    id               bigserial    primary key,
+    course_id        uuid         not null,            -- без FK: событие об удалении курса переживает сам курс
+    event_type       varchar(64)  not null,
+    payload          text         not null,
+    created_at       timestamptz  not null default now(),
+    attempts         int          not null default 0,
+    next_attempt_at  timestamptz  not null default now(),
+    published_at     timestamptz  null,
+    last_error       text         null
+);
+
+-- очередь relay: только недоставленные, в порядке готовности
+create index if not exists course_outbox_events_pending_idx
+    on course.course_outbox_events (next_attempt_at, id)
+    where published_at is null;
+
+-- проверка "есть ли более раннее недоставленное событие этого курса"
+create index if not exists course_outbox_events_course_pending_idx
+    on course.course_outbox_events (course_id, id)
+    where published_at is null;
+
+-- очистка доставленных
+create index if not exists course_outbox_events_published_idx
+    on course.course_outbox_events (published_at)
+    where published_at is not null;
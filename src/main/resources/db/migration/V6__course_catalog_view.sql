@@ -0,0 +1,191 @@
+-- Денормализованная проекция каталога: одна плоская строка на опубликованный курс.
+-- Поля курса + теги массивами + число/длительность уроков + статистика, чтобы листинг
+-- читал одну таблицу по одному индексу. Поддерживается триггерами, как и course_search_documents.
+
+create table if not exists course.course_catalog_view
+(
+    course_id               uuid          primary key references course.course_courses (id) on delete cascade,
+    author_id               uuid          not null,
+    title                   varchar(255)  not null,
+    slug                    varchar(255)  not null,
+    description             text          null,
+    cover_url               varchar(512)  null,
+    language                varchar(16)   null,
+    level                   varchar(32)   null,
+    estimated_duration_min  int           null,
+    status                  varchar       not null,
+    access_type             varchar       not null,
+    invite_code             varchar(64)   null,
+    requires_entitlement    boolean       not null,
+    max_free_enrollments    int           null,
+    version                 int           not null,
+    published_at            timestamptz   null,
+    created_at              timestamptz   not null,
+    updated_at              timestamptz   null,
+    content_revision        bigint        not null,
+    tag_ids                 uuid[]        not null default '{}',
+    tag_names               text[]        not null default '{}',
+    tag_keys                text[]        not null default '{}',   -- lower(name): теги citext, фильтр регистронезависимый
+    lessons_count           int           not null default 0,
+    lessons_duration_min    int           not null default 0,
+    members_count           int           not null default 0,
+    avg_completion          numeric(5, 2) null,
+    avg_rating              numeric(3, 2) not null default 0,
+    refreshed_at            timestamptz   not null default now()
+);
+
+-- сортировки каталога (keyset: ключ DESC, id DESC)
+create index if not exists course_catalog_view_published_idx
+    on course.course_catalog_view (published_at desc, course_id desc);
+
+create index if not exists course_catalog_view_rating_idx
+    on course.course_catalog_view (avg_rating desc, course_id desc);
+
+create index if not exists course_catalog_view_author_idx
+    on course.course_catalog_view (author_id);
+
+-- фильтр technologies: tag_keys && array[...]
+create index if not exists course_catalog_view_tag_keys_idx
+    on course.course_catalog_view using gin (tag_keys);
+
+create or replace function course.course_catalog_refresh(p_course_id uuid) returns void
+    language sql as
+$$
+delete from course.course_catalog_view v
+where v.course_id = p_course_id
+  and not exists (select 1
+                  from course.course_courses c
+                  where c.id = p_course_id
+                    and c.status = 'PUBLISHED');
+
+insert into course.course_catalog_view (course_id, author_id, title, slug, description, cover_url, language, level,
+                                        estimated_duration_min, status, access_type, invite_code,
+                                        requires_entitlement, max_free_enrollments, version, published_at,
+                                        created_at, updated_at, content_revision,
+                                        tag_ids, tag_names, tag_keys,
+                                        lessons_count, lessons_duration_min,
+                                        members_count, avg_completion, avg_rating, refreshed_at)
+select c.id, c.author_id, c.title, c.slug, c.description, c.cover_url, c.language, c.level,
+       c.estimated_duration_min, c.status, c.access_type, c.invite_code,
+       c.requires_entitlement, c.max_free_enrollments, c.version, c.published_at,
+       c.created_at, c.updated_at, c.content_revision,
+       coalesce(t.ids, '{}'), coalesce(t.names, '{}'), coalesce(t.keys, '{}'),
+       l.cnt, l.duration,
+       coalesce(s.enrollments, 0), s.avg_completion, coalesce(s.avg_rating, 0), now()
+from course.course_courses c
+         left join lateral (select array_agg(tr.id order by tr.name)                 as ids,
+                                   array_agg(tr.name::text order by tr.name)         as names,
+                                   array_agg(lower(tr.name::text) order by tr.name)  as keys
+                            from course.course_tags ct
+                                     join course.course_tags_ref tr on tr.id = ct.tag_id
+                            where ct.course_id = c.id) t on true
+         left join lateral (select count(*)::int                        as cnt,
+                                   coalesce(sum(ls.duration_min), 0)::int as duration
+                            from course.course_lessons ls
+                            where ls.course_id = c.id) l on true
+         left join course.course_stats s on s.course_id = c.id
+where c.id = p_course_id
+  and c.status = 'PUBLISHED'
+on conflict (course_id) do update
+    set author_id              = excluded.author_id,
+        title                  = excluded.title,
+        slug                   = excluded.slug,
+        description            = excluded.description,
+        cover_url              = excluded.cover_url,
+        language               = excluded.language,
+        level                  = excluded.level,
+        estimated_duration_min = excluded.estimated_duration_min,
+        status                 = excluded.status,
+        access_type            = excluded.access_type,
+        invite_code            = excluded.invite_code,
+        requires_entitlement   = excluded.requires_entitlement,
+        max_free_enrollments   = excluded.max_free_enrollments,
+        version                = excluded.version,
+        published_at           = excluded.published_at,
+        created_at             = excluded.created_at,
+        updated_at             = excluded.updated_at,
+        content_revision       = excluded.content_revision,
+        tag_ids                = excluded.tag_ids,
+        tag_names              = excluded.tag_names,
+        tag_keys               = excluded.tag_keys,
+        lessons_count          = excluded.lessons_count,
+        lessons_duration_min   = excluded.lessons_duration_min,
+        members_count          = excluded.members_count,
+        avg_completion         = excluded.avg_completion,
+        avg_rating             = excluded.avg_rating,
+        refreshed_at           = excluded.refreshed_at;
+$$;
+
+create or replace function course.course_catalog_on_course() returns trigger
+    language plpgsql as
+$$
+begin
+    perform course.course_catalog_refresh(new.id);
+    return null;
+end;
+$$;
+
+-- общий триггер для дочерних таблиц с колонкой course_id (теги, уроки, статистика)
+create or replace function course.course_catalog_on_child() returns trigger
+    language plpgsql as
+$$
+begin
+    if tg_op in ('UPDATE', 'DELETE') then
+        perform course.course_catalog_refresh(old.course_id);
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') and (tg_op = 'INSERT' or new.course_id is distinct from old.course_id) then
+        perform course.course_catalog_refresh(new.course_id);
+    end if;
+    return null;
+end;
+$$;
+
+create or replace function course.course_catalog_on_tag_rename() returns trigger
+    language plpgsql as
+$$
+begin
+    perform course.course_catalog_refresh(ct.course_id)
+    from course.course_tags ct
+    where ct.tag_id = new.id;
+    return null;
+end;
+$$;
+
+drop trigger if exists course_catalog_courses_trg on course.course_courses;
+create trigger course_catalog_courses_trg
+    after insert or update
+    on course.course_courses
+    for each row
+execute function course.course_catalog_on_course();
+
+drop trigger if exists course_catalog_course_tags_trg on course.course_tags;
+create trigger course_catalog_course_tags_trg
+    after insert or delete
+    on course.course_tags
+    for each row
+execute function course.course_catalog_on_child();
+
+drop trigger if exists course_catalog_lessons_trg on course.course_lessons;
+create trigger course_catalog_lessons_trg
+    after insert or delete or update of duration_min, course_id
+    on course.course_lessons
+    for each row
+execute function course.course_catalog_on_child();
+
+drop trigger if exists course_catalog_stats_trg on course.course_stats;
+create trigger course_catalog_stats_trg
+    after insert or update or delete
+    on course.course_stats
+    for each row
+execute function course.course_catalog_on_child();
+
+drop trigger if exists course_catalog_tags_ref_trg on course.course_tags_ref;
+create trigger course_catalog_tags_ref_trg
+    after update of name
+    on course.course_tags_ref
+    for each row
+execute function course.course_catalog_on_tag_rename();
+
+select course.course_catalog_refresh(id)
+from course.course_courses
+where status = 'PUBLISHED';
@@ -0,0 +1,15 @@
+-- Кэш результатов улучшения текста (AiEnhancementCache): ключ - sha256 нормализованного текста + действие + версия модели.
+-- Второй уровень за локальным Caffeine, общий для инстансов; используется при app.ai.enhancement-cache.persistent=true.
+create table if not exists course.ai_enhancement_cache
+(
+    cache_key      varchar(160)  primary key,
+    action         varchar(32)   not null,
+    model_version  varchar(64)   not null,
+    enhanced_text  text          not null,
+    created_at     timestamptz   not null default now(),
+    expires_at     timestamptz   not null
+);
+
+-- очистка просроченных
+create index if not exists ai_enhancement_cache_expires_idx
+    on course.ai_enhancement_cache (expires_at);
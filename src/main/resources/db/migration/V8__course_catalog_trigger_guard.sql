@@ -0,0 +1,94 @@
+-- Строка каталога переписывалась на каждый update course_courses, в том числе на каждый инкремент
+-- content_revision при правке контента. content_revision в каталоге не нужен (карточки каталога
+-- ревизию не отдают): колонка удаляется, а update-триггер срабатывает только при изменении колонок,
+-- которые попадают в проекцию.
+
+alter table course.course_catalog_view drop column if exists content_revision;
+
+create or replace function course.course_catalog_refresh(p_course_id uuid) returns void
+    language sql as
+$$
+delete from course.course_catalog_view v
+where v.course_id = p_course_id
+  and not exists (select 1
+                  from course.course_courses c
+                  where c.id = p_course_id
+                    and c.status = 'PUBLISHED');
+
+insert into course.course_catalog_view (course_id, author_id, title, slug, description, cover_url, language, level,
+                                        estimated_duration_min, status, access_type, invite_code,
+                                        requires_entitlement, max_free_enrollments, version, published_at,
+                                        created_at, updated_at,
+                                        tag_ids, tag_names, tag_keys,
+                                        lessons_count, lessons_duration_min,
+                                        members_count, avg_completion, avg_rating, refreshed_at)
+select c.id, c.author_id, c.title, c.slug, c.description, c.cover_url, c.language, c.level,
+       c.estimated_duration_min, c.status, c.access_type, c.invite_code,
+       c.requires_entitlement, c.max_free_enrollments, c.version, c.published_at,
+       c.created_at, c.updated_at,
+       coalesce(t.ids, '{}'), coalesce(t.names, '{}'), coalesce(t.keys, '{}'),
+       l.cnt, l.duration,
+       coalesce(s.enrollments, 0), s.avg_completion, coalesce(s.avg_rating, 0), now()
+from course.course_courses c
+         left join lateral (select array_agg(tr.id order by tr.name)                 as ids,
+                                   array_agg(tr.name::text order by tr.name)         as names,
+                                   array_agg(lower(tr.name::text) order by tr.name)  as keys
+                            from course.course_tags ct
+                                     join course.course_tags_ref tr on tr.id = ct.tag_id
+                            where ct.course_id = c.id) t on true
+         left join lateral (select count(*)::int                        as cnt,
+                                   coalesce(sum(ls.duration_min), 0)::int as duration
+                            from course.course_lessons ls
+                            where ls.course_id = c.id) l on true
+         left join course.course_stats s on s.course_id = c.id
+where c.id = p_course_id
+  and c.status = 'PUBLISHED'
+on conflict (course_id) do update
+    set author_id              = excluded.author_id,
+        title                  = excluded.title,
+        slug                   = excluded.slug,
+        description            = excluded.description,
+        cover_url              = excluded.cover_url,
+        language               = excluded.language,
+        level                  = excluded.level,
+        estimated_duration_min = excluded.estimated_duration_min,
+        status                 = excluded.status,
+        access_type            = excluded.access_type,
+        invite_code            = excluded.invite_code,
+        requires_entitlement   = excluded.requires_entitlement,
+        max_free_enrollments   = excluded.max_free_enrollments,
+        version                = excluded.version,
+        published_at           = excluded.published_at,
+        created_at             = excluded.created_at,
+        updated_at             = excluded.updated_at,
+        tag_ids                = excluded.tag_ids,
+        tag_names              = excluded.tag_names,
+        tag_keys               = excluded.tag_keys,
+        lessons_count          = excluded.lessons_count,
+        lessons_duration_min   = excluded.lessons_duration_min,
+        members_count          = excluded.members_count,
+        avg_completion         = excluded.avg_completion,
+        avg_rating             = excluded.avg_rating,
+        refreshed_at           = excluded.refreshed_at;
+$$;
+
+drop trigger if exists course_catalog_courses_trg on course.course_courses;
+
+create trigger course_catalog_courses_insert_trg
+    after insert
+    on course.course_courses
+    for each row
+execute function course.course_catalog_on_course();
+
+create trigger course_catalog_courses_trg
+    after update
+    on course.course_courses
+    for each row
+    when ((old.author_id, old.title, old.slug, old.description, old.cover_url, old.language, old.level,
+           old.estimated_duration_min, old.status, old.access_type, old.invite_code, old.requires_entitlement,
+           old.max_free_enrollments, old.version, old.published_at, old.created_at, old.updated_at)
+          is distinct from
+          (new.author_id, new.title, new.slug, new.description, new.cover_url, new.language, new.level,
+           new.estimated_duration_min, new.status, new.access_type, new.invite_code, new.requires_entitlement,
+           new.max_free_enrollments, new.version, new.published_at, new.created_at, new.updated_at))
+execute function course.course_catalog_on_course();
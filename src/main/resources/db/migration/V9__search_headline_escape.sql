@@ -0,0 +1,15 @@
+-- Экранирование HTML перед ts_headline: название и описание пишут авторы, а подсветка отдаётся клиенту
+-- как разметка с <b>...</b>. Парсер tsvector распознаёт &lt; и подобные как сущности и не включает их в слова,
+-- поэтому совпадения подсвечиваются так же, как в исходном тексте.
+create or replace function course.html_escape(p_text text) returns text
+    language sql
+    immutable
+    strict as
+$$
+select replace(replace(replace(replace(replace(p_text,
+       '&', '&amp;'),
+       '<', '&lt;'),
+       '>', '&gt;'),
+       '"', '&quot;'),
+       '''', '&#39;');
+$$;
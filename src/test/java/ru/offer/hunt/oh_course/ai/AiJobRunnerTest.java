@@ -0,0 +1,200 @@
+package ru.offer.hunt.oh_course.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.model.enums.AiJobStatus;
+import ru.offer.hunt.oh_course.model.enums.AiJobType;
+
+/**
+ * AiJobRunner без Spring: лимит активных задач, watchdog, отмена, permit'ы провайдера и шаг после успеха.
+ */
+class AiJobRunnerTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AiJobRunner runner;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWith429AtActiveLimitAndFreesSlotOnCompletion() throws Exception {
+        runner = runner(4, 2, 10_000);
+        AiJob first = runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", blockingTask());
+        runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", blockingTask());
+
+        assertThatThrownBy(() -> runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", blockingTask()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        runner.cancel(first.getId(), OWNER);
+
+        assertThat(runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", blockingTask())).isNotNull();
+    }
+
+    @Test
+    void concurrentSubmitsNeverExceedActiveLimit() throws Exception {
+        runner = runner(4, 5, 10_000);
+        ExecutorService submitters = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            attempts.add(submitters.submit(() -> {
+                start.await();
+                try {
+                    runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", blockingTask());
+                    return true;
+                } catch (ResponseStatusException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get(5, TimeUnit.SECONDS)) {
+                accepted++;
+            }
+        }
+        submitters.shutdown();
+
+        assertThat(accepted).isEqualTo(5);
+    }
+
+    @Test
+    void watchdogTimesOutAndInterruptsModelCall() throws Exception {
+        runner = runner(4, 10, 100);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AiJob job = runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", () -> () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "late";
+        });
+
+        assertThatThrownBy(() -> runner.await(job, String.class))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(job.getStatus()).isEqualTo(AiJobStatus.TIMED_OUT);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cancelInterruptsRunningJob() throws Exception {
+        runner = runner(4, 10, 10_000);
+        CountDownLatch calling = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AiJob job = runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", () -> () -> {
+            calling.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "done";
+        });
+        assertThat(calling.await(1, TimeUnit.SECONDS)).isTrue();
+
+        runner.cancel(job.getId(), OWNER);
+
+        assertThat(job.getStatus()).isEqualTo(AiJobStatus.CANCELLED);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> runner.cancel(job.getId(), UUID.randomUUID()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void modelCallsPerProviderAreBounded() throws Exception {
+        runner = runner(2, 20, 10_000);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AiJobTask<String> task = () -> () -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return "ok";
+        };
+
+        List<AiJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            jobs.add(runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "slow-provider", task));
+        }
+        for (AiJob job : jobs) {
+            assertThat(runner.await(job, String.class)).isEqualTo("ok");
+        }
+
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void completionStepRunsOnlyAfterSuccessAndIsNotInterrupted() throws Exception {
+        runner = runner(4, 10, 100);
+        List<String> completed = new CopyOnWriteArrayList<>();
+        AtomicInteger interruptedCompletions = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        AiJob ok = runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", () -> AiJobTask.withCompletion(
+                () -> "fast",
+                result -> {
+                    if (Thread.currentThread().isInterrupted()) {
+                        interruptedCompletions.incrementAndGet();
+                    }
+                    completed.add(result);
+                    done.countDown();
+                }));
+        AiJob late = runner.submit(AiJobType.ENHANCE_TEXT, OWNER, "p", () -> AiJobTask.withCompletion(
+                () -> {
+                    release.await();
+                    return "late";
+                },
+                completed::add));
+
+        assertThat(runner.await(ok, String.class)).isEqualTo("fast");
+        assertThatThrownBy(() -> runner.await(late, String.class)).isInstanceOf(ResponseStatusException.class);
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(completed).containsExactly("fast");
+        assertThat(interruptedCompletions.get()).isZero();
+    }
+
+    private AiJobTask<String> blockingTask() {
+        return () -> () -> {
+            release.await();
+            return "done";
+        };
+    }
+
+    private static AiJobRunner runner(int perProvider, int maxActive, long timeoutMs) {
+        return new AiJobRunner(mock(PlatformTransactionManager.class),
+                perProvider, maxActive, timeoutMs, timeoutMs, timeoutMs, 1_000, 30);
+    }
+}
@@ -0,0 +1,123 @@
+package ru.offer.hunt.oh_course.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.offer.hunt.oh_course.model.dto.CourseCatalogPageDto;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.enums.CatalogSort;
+import ru.offer.hunt.oh_course.model.search.CourseFilter;
+import ru.offer.hunt.oh_course.service.CourseService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Поиск по каталогу на реальной схеме: курсы с одинаковым рангом не теряются между страницами,
+ * подсветка не пропускает разметку из текста автора.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.baseline-on-migrate=true"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CatalogSearchPagingTest {
+
+    static final PostgreSQLContainer<?> PG =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("course_db")
+                    .withUsername("course_user")
+                    .withPassword("course_password");
+
+    static {
+        PG.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PG::getJdbcUrl);
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+        r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+
+        r.add("spring.flyway.enabled", () -> true);
+        r.add("spring.flyway.schemas", () -> "course");
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CourseService courseService;
+
+    @Test
+    void tiedRanksAreNotSkippedAcrossPages() {
+        UUID author = UUID.randomUUID();
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            // одинаковые название и описание - одинаковый ранг
+            expected.add(insertCourse(author, "Корутины Kotlin", "Асинхронность на корутинах"));
+        }
+        expected.add(insertCourse(author, "Kotlin", "Основы языка"));
+        expected.add(insertCourse(author, "Kotlin для Android", "Корутины и Compose"));
+        insertCourse(author, "Go", "Горутины и каналы");
+
+        CourseFilter filter = new CourseFilter();
+        filter.setAuthorId(author);
+        filter.setQuery("kotlin");
+
+        List<CourseDto> seen = new ArrayList<>();
+        String token = null;
+        do {
+            CourseCatalogPageDto page = courseService.getPublishedCourses(filter, CatalogSort.RELEVANCE, 2, token);
+            seen.addAll(page.getItems());
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        assertThat(seen).extracting(CourseDto::getId)
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(expected);
+        // ранг не возрастает от страницы к странице
+        for (int i = 1; i < seen.size(); i++) {
+            assertThat(seen.get(i).getSearchRank()).isLessThanOrEqualTo(seen.get(i - 1).getSearchRank());
+        }
+        assertThat(seen).extracting(CourseDto::getSearchRank).doesNotContainNull();
+    }
+
+    @Test
+    void highlightEscapesAuthorMarkup() {
+        UUID author = UUID.randomUUID();
+        insertCourse(author, "Kotlin <script>alert(1)</script>", "Kotlin <img src=x onerror=alert(1)> & \"co\"");
+
+        CourseFilter filter = new CourseFilter();
+        filter.setAuthorId(author);
+        filter.setQuery("kotlin");
+
+        CourseDto hit = courseService.getPublishedCourses(filter, CatalogSort.RELEVANCE, 10, null).getItems().getFirst();
+
+        assertThat(hit.getTitleHighlight())
+                .contains("<b>Kotlin</b>", "&lt;script&gt;")
+                .doesNotContain("<script");
+        assertThat(hit.getSnippet())
+                .contains("<b>Kotlin</b>", "&lt;img", "&amp;", "&quot;co&quot;")
+                .doesNotContain("<img", "<script");
+    }
+
+    private UUID insertCourse(UUID authorId, String title, String description) {
+        UUID courseId = UUID.randomUUID();
+        jdbc.update("insert into course.course_courses "
+                        + "(id, author_id, title, description, slug, status, access_type, version, published_at) "
+                        + "values (?, ?, ?, ?, ?, 'PUBLISHED', 'PUBLIC', 1, now())",
+                courseId, authorId, title, description, "search-" + courseId);
+        return courseId;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.offer.hunt.oh_course.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withAuthorId;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withDurations;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withLanguages;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withLevels;
+import static ru.offer.hunt.oh_course.model.specification.CourseCatalogSpecification.withTechnologies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.offer.hunt.oh_course.model.entity.CourseCatalogEntry;
+import ru.offer.hunt.oh_course.model.repository.CourseCatalogEntryRepository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Триггеры course_catalog_view (V6, V8) и фильтры CourseCatalogSpecification на реальной схеме Flyway.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.baseline-on-migrate=true"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CourseCatalogViewTest {
+
+    static final PostgreSQLContainer<?> PG =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("course_db")
+                    .withUsername("course_user")
+                    .withPassword("course_password");
+
+    static {
+        PG.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PG::getJdbcUrl);
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+        r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+
+        r.add("spring.flyway.enabled", () -> true);
+        r.add("spring.flyway.schemas", () -> "course");
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CourseCatalogEntryRepository catalogRepository;
+
+    @Test
+    void rowFollowsCourseStatus() {
+        UUID courseId = insertCourse("DRAFT", UUID.randomUUID(), "ru", "junior", 60);
+        assertThat(catalogRow(courseId)).isNull();
+
+        jdbc.update("update course.course_courses set status = 'PUBLISHED', published_at = now() where id = ?",
+                courseId);
+        assertThat(catalogRow(courseId)).containsEntry("title", "Catalog course");
+
+        jdbc.update("update course.course_courses set title = 'Renamed' where id = ?", courseId);
+        assertThat(catalogRow(courseId)).containsEntry("title", "Renamed");
+
+        jdbc.update("update course.course_courses set status = 'ARCHIVED' where id = ?", courseId);
+        assertThat(catalogRow(courseId)).isNull();
+    }
+
+    @Test
+    void contentRevisionBumpDoesNotRewriteRow() {
+        UUID courseId = insertCourse("PUBLISHED", UUID.randomUUID(), "ru", "junior", 60);
+        Timestamp refreshedAt = refreshedAt(courseId);
+
+        jdbc.update("update course.course_courses set content_revision = content_revision + 1 where id = ?",
+                courseId);
+
+        assertThat(refreshedAt(courseId)).isEqualTo(refreshedAt);
+    }
+
+    @Test
+    void statsLessonsAndTagsAreCopiedIntoRow() {
+        UUID courseId = insertCourse("PUBLISHED", UUID.randomUUID(), "ru", "junior", 60);
+
+        jdbc.update("insert into course.course_stats (course_id, enrollments, avg_rating) values (?, 3, 4.5)", courseId);
+        assertThat(catalogRow(courseId)).containsEntry("members_count", 3);
+
+        jdbc.update("update course.course_stats set enrollments = 9 where course_id = ?", courseId);
+        assertThat(catalogRow(courseId)).containsEntry("members_count", 9);
+
+        jdbc.update("insert into course.course_lessons (id, course_id, title, order_index, duration_min) "
+                + "values (?, ?, 'Lesson', 1, 25)", UUID.randomUUID(), courseId);
+        assertThat(catalogRow(courseId))
+                .containsEntry("lessons_count", 1)
+                .containsEntry("lessons_duration_min", 25);
+
+        UUID tagId = UUID.randomUUID();
+        jdbc.update("insert into course.course_tags_ref (id, name) values (?, ?)", tagId, "Kotlin-" + tagId);
+        jdbc.update("insert into course.course_tags (course_id, tag_id) values (?, ?)", courseId, tagId);
+        assertThat(tagKeys(courseId)).containsExactly("kotlin-" + tagId);
+
+        jdbc.update("delete from course.course_tags where course_id = ?", courseId);
+        assertThat(tagKeys(courseId)).isEmpty();
+
+        jdbc.update("delete from course.course_stats where course_id = ?", courseId);
+        assertThat(catalogRow(courseId)).containsEntry("members_count", 0);
+    }
+
+    @Test
+    void specificationsFilterCatalogRows() {
+        UUID author = UUID.randomUUID();
+        UUID ruShort = insertCourse("PUBLISHED", author, "ru", "junior", 60);
+        UUID enLong = insertCourse("PUBLISHED", author, "en", "senior", 600);
+        UUID draft = insertCourse("DRAFT", author, "ru", "junior", 60);
+
+        UUID tagId = UUID.randomUUID();
+        jdbc.update("insert into course.course_tags_ref (id, name) values (?, ?)", tagId, "Java-" + tagId);
+        jdbc.update("insert into course.course_tags (course_id, tag_id) values (?, ?)", enLong, tagId);
+
+        Specification<CourseCatalogEntry> byAuthor = withAuthorId(author);
+
+        assertThat(ids(byAuthor)).containsExactlyInAnyOrder(ruShort, enLong).doesNotContain(draft);
+        assertThat(ids(byAuthor.and(withLanguages(List.of("ru"))))).containsExactly(ruShort);
+        assertThat(ids(byAuthor.and(withLevels(List.of("senior"))))).containsExactly(enLong);
+        assertThat(ids(byAuthor.and(withDurations(List.of(10))))).containsExactly(enLong);
+        assertThat(ids(byAuthor.and(withTechnologies(List.of("JAVA-" + tagId))))).containsExactly(enLong);
+    }
+
+    private UUID insertCourse(String status, UUID authorId, String language, String level, int durationMin) {
+        UUID courseId = UUID.randomUUID();
+        jdbc.update("insert into course.course_courses "
+                        + "(id, author_id, title, slug, status, access_type, version, language, level, "
+                        + " estimated_duration_min, published_at) "
+                        + "values (?, ?, 'Catalog course', ?, ?, 'PUBLIC', 1, ?, ?, ?, now())",
+                courseId, authorId, "catalog-" + courseId, status, language, level, durationMin);
+        return courseId;
+    }
+
+    private Map<String, Object> catalogRow(UUID courseId) {
+        List<Map<String, Object>> rows =
+                jdbc.queryForList("select * from course.course_catalog_view where course_id = ?", courseId);
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    private Timestamp refreshedAt(UUID courseId) {
+        return jdbc.queryForObject(
+                "select refreshed_at from course.course_catalog_view where course_id = ?", Timestamp.class, courseId);
+    }
+
+    private List<String> tagKeys(UUID courseId) {
+        return jdbc.queryForList(
+                "select unnest(tag_keys) from course.course_catalog_view where course_id = ?", String.class, courseId);
+    }
+
+    private List<UUID> ids(Specification<CourseCatalogEntry> spec) {
+        return catalogRepository.findAll(spec).stream().map(CourseCatalogEntry::getId).toList();
+    }
+}
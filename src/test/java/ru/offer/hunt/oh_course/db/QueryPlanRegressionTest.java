@@ -0,0 +1,411 @@
+package ru.offer.hunt.oh_course.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+import ru.offer.hunt.oh_course.model.enums.VersionScope;
+import ru.offer.hunt.oh_course.model.repository.ContentVersionRepository;
+import ru.offer.hunt.oh_course.model.repository.CourseMemberRepository;
+import ru.offer.hunt.oh_course.model.repository.CourseRepository;
+import ru.offer.hunt.oh_course.model.repository.LessonPageRepository;
+import ru.offer.hunt.oh_course.model.repository.LessonRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionOptionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionTestCaseRepository;
+import ru.offer.hunt.oh_course.model.repository.RatingRepository;
+import ru.offer.hunt.oh_course.model.repository.TagRefRepository;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * EXPLAIN запросов репозиториев на засеянной схеме (все миграции Flyway). SQL методов репозиториев
+ * берётся у Hibernate (CapturingStatementInspector), а не переписывается вручную.
+ * enable_seqscan = off, и для каждого запроса проверяется имя ожидаемого индекса в плане: Index Scan
+ * по PK с условием на неведущую колонку тоже не Seq Scan, но пропажу вторичного индекса не должен скрывать.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.baseline-on-migrate=true",
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + "ru.offer.hunt.oh_course.db.CapturingStatementInspector"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    static final PostgreSQLContainer<?> PG =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("course_db")
+                    .withUsername("course_user")
+                    .withPassword("course_password");
+
+    static {
+        PG.start();
+    }
+
+    private static final int COURSES = 300;
+    private static final int LESSONS_PER_COURSE = 4;
+    private static final int PAGES_PER_LESSON = 3;
+    private static final int QUESTIONS_PER_PAGE = 2;
+    private static final int OPTIONS_PER_QUESTION = 3;
+    private static final int TAGS = 20;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PG::getJdbcUrl);
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+        r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+
+        r.add("spring.flyway.enabled", () -> true);
+        r.add("spring.flyway.schemas", () -> "course");
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private LessonRepository lessonRepository;
+    @Autowired private LessonPageRepository lessonPageRepository;
+    @Autowired private QuestionRepository questionRepository;
+    @Autowired private QuestionOptionRepository questionOptionRepository;
+    @Autowired private QuestionTestCaseRepository questionTestCaseRepository;
+    @Autowired private CourseMemberRepository courseMemberRepository;
+    @Autowired private RatingRepository ratingRepository;
+    @Autowired private ContentVersionRepository contentVersionRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private TagRefRepository tagRefRepository;
+
+    private final List<UUID> courseIds = new ArrayList<>();
+    private final List<UUID> authorIds = new ArrayList<>();
+    private final List<UUID> lessonIds = new ArrayList<>();
+    private final List<UUID> pageIds = new ArrayList<>();
+    private final List<UUID> questionIds = new ArrayList<>();
+    private final List<UUID> tagIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> courses = new ArrayList<>();
+        List<Object[]> members = new ArrayList<>();
+        List<Object[]> ratings = new ArrayList<>();
+        List<Object[]> versions = new ArrayList<>();
+        List<Object[]> lessons = new ArrayList<>();
+        List<Object[]> pages = new ArrayList<>();
+        List<Object[]> questions = new ArrayList<>();
+        List<Object[]> options = new ArrayList<>();
+        List<Object[]> testCases = new ArrayList<>();
+        List<Object[]> tagRefs = new ArrayList<>();
+        List<Object[]> courseTags = new ArrayList<>();
+
+        for (int t = 0; t < TAGS; t++) {
+            UUID tagId = UUID.randomUUID();
+            tagIds.add(tagId);
+            tagRefs.add(new Object[] {tagId, "tag-" + t});
+        }
+
+        for (int c = 0; c < COURSES; c++) {
+            UUID courseId = UUID.randomUUID();
+            UUID authorId = UUID.randomUUID();
+            courseIds.add(courseId);
+            authorIds.add(authorId);
+
+            String status = switch (c % 3) {
+                case 0 -> "PUBLISHED";
+                case 1 -> "DRAFT";
+                default -> "ARCHIVED";
+            };
+            courses.add(new Object[] {courseId, authorId, "Course " + c, "course-" + courseId, status, c});
+            members.add(new Object[] {courseId, authorId, "OWNER"});
+            ratings.add(new Object[] {UUID.randomUUID(), courseId, 1 + c % 5});
+            courseTags.add(new Object[] {courseId, tagIds.get(c % TAGS)});
+            courseTags.add(new Object[] {courseId, tagIds.get((c + 1) % TAGS)});
+
+            for (int l = 0; l < LESSONS_PER_COURSE; l++) {
+                UUID lessonId = UUID.randomUUID();
+                lessonIds.add(lessonId);
+                lessons.add(new Object[] {lessonId, courseId, "Lesson " + l, l});
+                versions.add(new Object[] {UUID.randomUUID(), courseId, lessonId, "LESSON", authorId});
+
+                for (int p = 0; p < PAGES_PER_LESSON; p++) {
+                    UUID pageId = UUID.randomUUID();
+                    pageIds.add(pageId);
+                    pages.add(new Object[] {pageId, lessonId, "Page " + p, p});
+
+                    for (int q = 0; q < QUESTIONS_PER_PAGE; q++) {
+                        UUID questionId = UUID.randomUUID();
+                        questionIds.add(questionId);
+                        questions.add(new Object[] {questionId, pageId, "Question " + q, q});
+                        testCases.add(new Object[] {UUID.randomUUID(), questionId});
+
+                        for (int o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                            options.add(new Object[] {UUID.randomUUID(), questionId, "Option " + o, o == 0, o});
+                        }
+                    }
+                }
+            }
+            versions.add(new Object[] {UUID.randomUUID(), courseId, null, "COURSE", authorId});
+        }
+
+        jdbc.batchUpdate("insert into course.course_tags_ref (id, name) values (?, ?)", tagRefs);
+        jdbc.batchUpdate(
+                "insert into course.course_courses " +
+                        "(id, author_id, title, slug, status, access_type, version, published_at) " +
+                        "values (?, ?, ?, ?, ?, 'PUBLIC', 1, now() - make_interval(hours => ?))",
+                courses);
+        jdbc.batchUpdate("insert into course.course_members (course_id, user_id, role) values (?, ?, ?)", members);
+        jdbc.batchUpdate("insert into course.course_ratings (user_id, course_id, value) values (?, ?, ?)", ratings);
+        jdbc.batchUpdate("insert into course.course_tags (course_id, tag_id) values (?, ?)", courseTags);
+        jdbc.batchUpdate(
+                "insert into course.course_lessons (id, course_id, title, order_index) values (?, ?, ?, ?)",
+                lessons);
+        jdbc.batchUpdate(
+                "insert into course.course_content_versions " +
+                        "(id, course_id, lesson_id, scope, created_by, payload_json) values (?, ?, ?, ?, ?, '{}')",
+                versions);
+        jdbc.batchUpdate(
+                "insert into course.course_lesson_pages (id, lesson_id, title, page_type, sort_order) " +
+                        "values (?, ?, ?, 'TEST', ?)",
+                pages);
+        jdbc.batchUpdate(
+                "insert into course.course_questions (id, page_id, type, text, sort_order) " +
+                        "values (?, ?, 'SINGLE_CHOICE', ?, ?)",
+                questions);
+        jdbc.batchUpdate(
+                "insert into course.course_question_options (id, question_id, label, is_correct, sort_order) " +
+                        "values (?, ?, ?, ?, ?)",
+                options);
+        jdbc.batchUpdate(
+                "insert into course.course_question_test_cases (id, question_id, input_data, expected_output) " +
+                        "values (?, ?, '1', '1')",
+                testCases);
+
+        jdbc.execute("analyze");
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        UUID courseId = courseIds.get(7);
+        UUID lessonId = lessonIds.get(11);
+        UUID pageId = pageIds.get(13);
+        List<UUID> someCourses = courseIds.subList(0, 10);
+        List<UUID> someLessons = lessonIds.subList(0, 10);
+        List<UUID> somePages = pageIds.subList(0, 10);
+        List<UUID> someQuestions = questionIds.subList(0, 10);
+
+        return Stream.of(
+                repository("LessonRepository.findByCourseIdOrderByOrderIndexAsc",
+                        "course_lessons_course_order_idx",
+                        () -> lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId), courseId),
+                repository("LessonRepository.findByCourseIdInOrderByOrderIndexAsc",
+                        "course_lessons_course_order_idx",
+                        () -> lessonRepository.findByCourseIdInOrderByOrderIndexAsc(someCourses), someCourses),
+                repository("LessonPageRepository.findByLessonIdOrderBySortOrderAsc",
+                        "course_lesson_pages_lesson_sort_idx",
+                        () -> lessonPageRepository.findByLessonIdOrderBySortOrderAsc(lessonId), lessonId),
+                repository("LessonPageRepository.findByLessonIdInOrderBySortOrderAsc",
+                        "course_lesson_pages_lesson_sort_idx",
+                        () -> lessonPageRepository.findByLessonIdInOrderBySortOrderAsc(someLessons), someLessons),
+                repository("QuestionRepository.findByPageIdOrderBySortOrderAsc",
+                        "course_questions_page_sort_idx",
+                        () -> questionRepository.findByPageIdOrderBySortOrderAsc(pageId), pageId),
+                repository("QuestionRepository.findByPageIdInOrderBySortOrderAsc",
+                        "course_questions_page_sort_idx",
+                        () -> questionRepository.findByPageIdInOrderBySortOrderAsc(somePages), somePages),
+                repository("QuestionOptionRepository.findByQuestionIdInOrderBySortOrderAsc",
+                        "course_question_options_question_sort_idx",
+                        () -> questionOptionRepository.findByQuestionIdInOrderBySortOrderAsc(someQuestions),
+                        someQuestions),
+                repository("QuestionTestCaseRepository.findByQuestionIdIn",
+                        "course_question_test_cases_question_idx",
+                        () -> questionTestCaseRepository.findByQuestionIdIn(someQuestions), someQuestions),
+                // PK (course_id, user_id) тоже даёт Index Scan, поэтому проверяется имя индекса
+                repository("CourseMemberRepository.findByIdUserId",
+                        "course_members_user_idx",
+                        () -> courseMemberRepository.findByIdUserId(authorIds.get(3)), authorIds.get(3)),
+                repository("CourseMemberRepository.findByIdCourseId",
+                        "course_members_pk",
+                        () -> courseMemberRepository.findByIdCourseId(courseId), courseId),
+                repository("RatingRepository.findByIdCourseId",
+                        "course_ratings_course_idx",
+                        () -> ratingRepository.findByIdCourseId(courseId), courseId),
+                repository("ContentVersionRepository.findByCourseIdAndScopeOrderByCreatedAtDesc",
+                        "course_content_versions_course_scope_idx",
+                        () -> contentVersionRepository.findByCourseIdAndScopeOrderByCreatedAtDesc(
+                                courseId, VersionScope.COURSE),
+                        courseId, VersionScope.COURSE),
+                repository("ContentVersionRepository.findByLessonIdAndScopeOrderByCreatedAtDesc",
+                        "course_content_versions_lesson_scope_idx",
+                        () -> contentVersionRepository.findByLessonIdAndScopeOrderByCreatedAtDesc(
+                                lessonId, VersionScope.LESSON),
+                        lessonId, VersionScope.LESSON),
+                repository("CourseRepository.findByAuthorId",
+                        "course_courses_author_status_idx",
+                        () -> courseRepository.findByAuthorId(authorIds.get(5)), authorIds.get(5)),
+                repository("CourseRepository.findAllByAuthorIdAndTitleAndStatus",
+                        "course_courses_author_status_idx",
+                        () -> courseRepository.findAllByAuthorIdAndTitleAndStatus(
+                                authorIds.get(5), "Course 5", CourseStatus.PUBLISHED),
+                        authorIds.get(5), "Course 5", CourseStatus.PUBLISHED),
+                repository("CourseRepository.findBySlugAndStatus",
+                        "course_courses_slug_key",
+                        () -> courseRepository.findBySlugAndStatus("course-" + courseId, CourseStatus.PUBLISHED),
+                        "course-" + courseId, CourseStatus.PUBLISHED),
+                repository("CourseRepository.findByStatus(PUBLISHED)",
+                        "course_courses_published_idx",
+                        () -> courseRepository.findByStatus(CourseStatus.PUBLISHED), CourseStatus.PUBLISHED),
+                repository("TagRefRepository.findCourseTags",
+                        "course_tags_pk",
+                        () -> tagRefRepository.findCourseTags(someCourses), someCourses),
+                // criteria каталога рендерятся шаблонами SearchFunctionContributor, их SQL собран вручную
+                handWritten("CourseCatalogSpecification.publishedCatalogPage(PUBLISHED_AT), first page",
+                        List.of("course_catalog_view_published_idx"),
+                        "select * from course.course_catalog_view" +
+                                " order by published_at desc, course_id desc limit 21"),
+                handWritten("CourseCatalogSpecification.publishedCatalogPage(PUBLISHED_AT), after cursor",
+                        List.of("course_catalog_view_published_idx"),
+                        "select * from course.course_catalog_view" +
+                                " where published_at < now() - interval '50 hours'" +
+                                " or (published_at = now() - interval '50 hours' and course_id < " + lit(courseId) + ")" +
+                                " order by published_at desc, course_id desc limit 21"),
+                handWritten("CourseCatalogSpecification.publishedCatalogPage(RATING), after cursor",
+                        List.of("course_catalog_view_rating_idx"),
+                        "select * from course.course_catalog_view" +
+                                " where avg_rating < 3.5 or (avg_rating = 3.5 and course_id < " + lit(courseId) + ")" +
+                                " order by avg_rating desc, course_id desc limit 21"),
+                // GIN доступен только bitmap-сканом: без enable_indexscan обход по другому btree-индексу с фильтром
+                // не маскирует пропажу GIN-индекса
+                handWritten("CourseCatalogSpecification.withTechnologies",
+                        List.of("course_catalog_view_tag_keys_idx"),
+                        "select * from course.course_catalog_view" +
+                                " where (tag_keys && string_to_array('tag-1' || chr(31) || 'tag-2', chr(31)))",
+                        "enable_indexscan"),
+                handWritten("CourseCatalogSpecification.withQuery",
+                        List.of("course_search_documents_document_idx", "course_search_documents_title_trgm_idx"),
+                        "select v.* from course.course_catalog_view v where exists (" +
+                                "select 1 from course.course_search_documents d where d.course_id = v.course_id and (" +
+                                "d.document @@ websearch_to_tsquery('russian', 'course 42')" +
+                                " or 'course 42' <% d.title or d.title ilike 'course 42%'))",
+                        "enable_indexscan"),
+                handWritten("course_tags by tag_id",
+                        List.of("course_tags_tag_idx"),
+                        "select ct.course_id from course.course_tags ct where ct.tag_id = " + lit(tagIds.get(4)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void usesExpectedIndex(String name, List<String> indexes, PlanQuery query, List<String> disabled) {
+        List<String> plan = explain(query, disabled);
+        String message = String.format("%s%nSQL: %s%nValues: %s%nPlan:%n%s",
+                name, query.sql(), query.values(), String.join(System.lineSeparator(), plan));
+
+        assertThat(plan).as(message).noneMatch(line -> line.contains("Seq Scan"));
+        for (String index : indexes) {
+            // "Index Scan using <idx>", "Index Only Scan using <idx>", "Bitmap Index Scan on <idx>"
+            Pattern usage = Pattern.compile("\\b(using|on) " + Pattern.quote(index) + "\\b");
+            assertThat(plan).as(message).anyMatch(line -> usage.matcher(line).find());
+        }
+    }
+
+    /**
+     * SQL, который Hibernate реально генерирует для метода репозитория (через StatementInspector),
+     * с параметрами в порядке привязки. План строится по prepared-запросу с этими значениями.
+     */
+    private Arguments repository(String name, String index, Runnable call, Object... binds) {
+        List<String> statements = CapturingStatementInspector.capture(call);
+        assertThat(statements).as(name).isNotEmpty();
+        String sql = statements.getFirst();
+
+        List<String> values = new ArrayList<>();
+        for (Object bind : binds) {
+            if (bind instanceof Collection<?> many) {
+                many.forEach(v -> values.add(quote(v)));
+            } else {
+                values.add(quote(bind));
+            }
+        }
+
+        // prepare принимает только $n
+        StringBuilder numbered = new StringBuilder();
+        int param = 0;
+        for (char ch : sql.toCharArray()) {
+            if (ch == '?') {
+                numbered.append('$').append(++param);
+            } else {
+                numbered.append(ch);
+            }
+        }
+        assertThat(param).as("%s: параметров в SQL%n%s", name, sql).isEqualTo(values.size());
+
+        return Arguments.of(name, List.of(index), new PlanQuery(numbered.toString(), values), List.of());
+    }
+
+    private static Arguments handWritten(String name, List<String> indexes, String sql, String... disabled) {
+        return Arguments.of(name, indexes, new PlanQuery(sql, List.of()), List.of(disabled));
+    }
+
+    /**
+     * values - литералы параметров $1..$n; без них sql выполняется как есть.
+     */
+    record PlanQuery(String sql, List<String> values) {}
+
+    private List<String> explain(PlanQuery query, List<String> disabled) {
+        return jdbc.execute((ConnectionCallback<List<String>>) con -> {
+            try (Statement st = con.createStatement()) {
+                st.execute("set enable_seqscan = off");
+                for (String setting : disabled) {
+                    st.execute("set " + setting + " = off");
+                }
+                boolean prepared = !query.values().isEmpty();
+                String explained = query.sql();
+                if (prepared) {
+                    // первые выполнения prepared-запроса планируются под конкретные значения (custom plan)
+                    st.execute("prepare plan_case as " + query.sql());
+                    explained = "execute plan_case(" + String.join(", ", query.values()) + ")";
+                }
+                try (ResultSet rs = st.executeQuery("explain " + explained)) {
+                    List<String> lines = new ArrayList<>();
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                    return lines;
+                } finally {
+                    if (prepared) {
+                        st.execute("deallocate plan_case");
+                    }
+                    st.execute("reset enable_seqscan");
+                    for (String setting : disabled) {
+                        st.execute("reset " + setting);
+                    }
+                }
+            }
+        });
+    }
+
+    private static String quote(Object value) {
+        String text = value instanceof Enum<?> e ? e.name() : String.valueOf(value);
+        return "'" + text.replace("'", "''") + "'";
+    }
+
+    private static String lit(UUID id) {
+        return "'" + id + "'::uuid";
+    }
+}
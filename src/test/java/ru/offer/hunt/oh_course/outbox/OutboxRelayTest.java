@@ -0,0 +1,235 @@
+package ru.offer.hunt.oh_course.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.offer.hunt.oh_course.model.enums.CourseEventType.COURSE_ARCHIVED;
+import static ru.offer.hunt.oh_course.model.enums.CourseEventType.COURSE_PUBLISHED;
+import static ru.offer.hunt.oh_course.model.enums.CourseEventType.COURSE_VERSION_PUBLISHED;
+import static ru.offer.hunt.oh_course.model.enums.CourseEventType.MEMBER_ADDED;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.offer.hunt.oh_course.model.enums.CourseEventType;
+import ru.offer.hunt.oh_course.model.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CourseOutbox + OutboxRelay на реальной схеме: порядок внутри курса, backoff упавшей группы,
+ * истечение lease и сериализация вставок одного курса. Плановый relay выключен, итерации вызываются явно.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.baseline-on-migrate=true",
+                "app.outbox.relay.enabled=false"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OutboxRelayTest {
+
+    static final PostgreSQLContainer<?> PG =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("course_db")
+                    .withUsername("course_user")
+                    .withPassword("course_password");
+
+    static {
+        PG.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PG::getJdbcUrl);
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+        r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+
+        r.add("spring.flyway.enabled", () -> true);
+        r.add("spring.flyway.schemas", () -> "course");
+    }
+
+    // backoff первой попытки - от 500 до 1000 мс
+    private static final long BASE_BACKOFF_MS = 1_000;
+
+    @Autowired private CourseOutbox courseOutbox;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbc;
+
+    private final InMemoryOutboxSink memory = new InMemoryOutboxSink(1_000);
+    private final Set<UUID> failing = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void reset() {
+        tx = new TransactionTemplate(transactionManager);
+        jdbc.update("delete from course.course_outbox_events");
+    }
+
+    @Test
+    void deliversEventsOfEachCourseInAppendOrder() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        append(first, COURSE_PUBLISHED);
+        append(second, COURSE_PUBLISHED);
+        append(first, MEMBER_ADDED);
+        append(second, COURSE_ARCHIVED);
+        append(first, COURSE_VERSION_PUBLISHED);
+
+        OutboxRelay relay = relay(60_000);
+
+        assertThat(relay.relayBatch()).isEqualTo(5);
+        assertThat(delivered(first)).containsExactly(COURSE_PUBLISHED, MEMBER_ADDED, COURSE_VERSION_PUBLISHED);
+        assertThat(delivered(second)).containsExactly(COURSE_PUBLISHED, COURSE_ARCHIVED);
+        assertThat(pending()).isZero();
+        assertThat(relay.relayBatch()).isZero();
+    }
+
+    @Test
+    void failingCourseBacksOffWithoutBlockingOtherCourses() throws Exception {
+        UUID broken = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        append(broken, COURSE_PUBLISHED);
+        append(healthy, COURSE_PUBLISHED);
+        append(broken, MEMBER_ADDED);
+        failing.add(broken);
+
+        OutboxRelay relay = relay(60_000);
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(delivered(healthy)).containsExactly(COURSE_PUBLISHED);
+        assertThat(delivered(broken)).isEmpty();
+        Map<String, Object> head = jdbc.queryForMap(
+                "select attempts, last_error from course.course_outbox_events where course_id = ? order by id limit 1",
+                broken);
+        assertThat(head.get("attempts")).isEqualTo(1);
+        assertThat((String) head.get("last_error")).contains("sink down");
+
+        // новое событие курса в backoff ждёт голову группы, другие курсы идут дальше
+        failing.clear();
+        append(broken, COURSE_ARCHIVED);
+        append(healthy, MEMBER_ADDED);
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(delivered(healthy)).containsExactly(COURSE_PUBLISHED, MEMBER_ADDED);
+        assertThat(delivered(broken)).isEmpty();
+
+        Thread.sleep(BASE_BACKOFF_MS + 200);
+
+        assertThat(relay.relayBatch()).isEqualTo(3);
+        assertThat(delivered(broken)).containsExactly(COURSE_PUBLISHED, MEMBER_ADDED, COURSE_ARCHIVED);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void claimedEventsBecomeDueAfterLeaseExpires() throws Exception {
+        UUID course = UUID.randomUUID();
+        append(course, COURSE_PUBLISHED);
+        append(course, MEMBER_ADDED);
+
+        // другой relay захватил пачку и упал, не зафиксировав результат
+        List<Long> ids = jdbc.queryForList(
+                "select id from course.course_outbox_events where course_id = ? order by id", Long.class, course);
+        tx.executeWithoutResult(status ->
+                outboxEventRepository.claim(ids, OffsetDateTime.now().plus(Duration.ofMillis(300))));
+        append(course, COURSE_ARCHIVED);
+
+        OutboxRelay relay = relay(60_000);
+
+        assertThat(relay.relayBatch()).isZero();
+
+        Thread.sleep(500);
+
+        assertThat(relay.relayBatch()).isEqualTo(3);
+        assertThat(delivered(course)).containsExactly(COURSE_PUBLISHED, MEMBER_ADDED, COURSE_ARCHIVED);
+    }
+
+    @Test
+    void appendsOfOneCourseAreSerializedUntilCommit() throws Exception {
+        UUID course = UUID.randomUUID();
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+
+        // долгая транзакция (например, публикация) успела вставить событие, но ещё не закоммитилась
+        Future<?> slow = writers.submit(() -> tx.executeWithoutResult(status -> {
+            courseOutbox.append(COURSE_PUBLISHED, CourseEventPayload.builder().courseId(course).build());
+            appended.countDown();
+            awaitQuietly(commit);
+        }));
+        assertThat(appended.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> fast = writers.submit(() -> append(course, MEMBER_ADDED));
+        Thread.sleep(300);
+        assertThat(fast.isDone()).isFalse();
+
+        // другой курс блокировка не задерживает
+        append(UUID.randomUUID(), COURSE_PUBLISHED);
+
+        commit.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        fast.get(5, TimeUnit.SECONDS);
+        writers.shutdown();
+
+        assertThat(jdbc.queryForList(
+                "select event_type from course.course_outbox_events where course_id = ? order by id",
+                String.class, course))
+                .containsExactly(COURSE_PUBLISHED.name(), MEMBER_ADDED.name());
+    }
+
+    private OutboxRelay relay(long leaseMs) {
+        OutboxSink sink = batch -> {
+            if (failing.contains(batch.getFirst().courseId())) {
+                throw new IllegalStateException("sink down");
+            }
+            memory.publish(batch);
+        };
+        return new OutboxRelay(outboxEventRepository, sink, transactionManager,
+                100, leaseMs, BASE_BACKOFF_MS, BASE_BACKOFF_MS, 72);
+    }
+
+    private void append(UUID courseId, CourseEventType type) {
+        tx.executeWithoutResult(status ->
+                courseOutbox.append(type, CourseEventPayload.builder().courseId(courseId).build()));
+    }
+
+    private List<CourseEventType> delivered(UUID courseId) {
+        return memory.snapshot().stream()
+                .filter(event -> event.courseId().equals(courseId))
+                .map(CourseEventMessage::type)
+                .toList();
+    }
+
+    private int pending() {
+        return jdbc.queryForObject(
+                "select count(*) from course.course_outbox_events where published_at is null", Integer.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -79,4 +79,22 @@ class SecurityTest {
         mvc.perform(get("/api/secure/ping").header("Authorization", "Bearer " + token))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void prometheusRequiresToken() throws Exception {
+        mvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheusRequiresMetricsScope() throws Exception {
+        String userToken =
+                JwtTestUtil.rs256Token(rsaKey, issuer, audience, List.of("USER"), List.of("course.read"));
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        String scraperToken =
+                JwtTestUtil.rs256Token(rsaKey, issuer, audience, List.of(), List.of("metrics.read"));
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + scraperToken))
+                .andExpect(status().isOk());
+    }
 }
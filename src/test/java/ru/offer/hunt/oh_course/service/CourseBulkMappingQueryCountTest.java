@@ -0,0 +1,70 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.offer.hunt.oh_course.model.dto.CourseDto;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.TagRef;
+import ru.offer.hunt.oh_course.support.CourseTestData;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CourseTestData.class)
+class CourseBulkMappingQueryCountTest {
+
+    @Autowired private CourseService courseService;
+    @Autowired private CourseTestData data;
+
+    @Test
+    void statementCountStaysFlatAsCourseListGrows() {
+        List<UUID> few = seedPublishedCourses(2);
+        List<UUID> many = seedPublishedCourses(25);
+
+        long fewStatements = data.countStatements(() -> courseService.getCoursesByIds(few));
+        long manyStatements = data.countStatements(() -> courseService.getCoursesByIds(many));
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void bulkMappingKeepsOrderAndEnrichment() {
+        List<UUID> ids = seedPublishedCourses(3);
+
+        List<CourseDto> dtos = courseService.getCoursesByIds(ids.reversed());
+
+        assertThat(dtos).extracting(CourseDto::getId).containsExactlyElementsOf(ids.reversed());
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getLessons()).hasSize(2);
+            assertThat(dto.getLessons().get(0).getOrderIndex()).isEqualTo(1);
+            assertThat(dto.getTags()).hasSize(1);
+            assertThat(dto.getMembersCount()).isEqualTo(7);
+            assertThat(dto.getEstimatedDurationHours()).isEqualTo(2);
+        });
+    }
+
+    private List<UUID> seedPublishedCourses(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TagRef tag = data.tag();
+            Course course = data.publishedCourse("Bulk mapping course " + i, b -> b
+                    .estimatedDurationMin(90)
+                    .tagRefs(new ArrayList<>(List.of(tag))));
+
+            for (int order = 2; order >= 1; order--) {
+                data.lesson(course, order);
+            }
+            data.stats(course.getId(), 7);
+
+            ids.add(course.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,241 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportRequest;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberBulkImportResult;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberDto;
+import ru.offer.hunt.oh_course.model.dto.CourseMemberUpsertRequest;
+import ru.offer.hunt.oh_course.model.enums.CourseMemberRole;
+import ru.offer.hunt.oh_course.model.repository.CourseMemberRepository;
+import ru.offer.hunt.oh_course.service.UserDirectoryClient.UserInfo;
+
+/**
+ * Пакетный импорт соавторов на реальной схеме: повторы, уже добавленные, ненайденные,
+ * вставка параллельным запросом между проверкой и insert и отправка инвайтов только после коммита.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.baseline-on-migrate=true",
+                "app.outbox.relay.enabled=false"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CourseMemberImportTest {
+
+    static final PostgreSQLContainer<?> PG =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("course_db")
+                    .withUsername("course_user")
+                    .withPassword("course_password");
+
+    static {
+        PG.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PG::getJdbcUrl);
+        r.add("spring.datasource.username", PG::getUsername);
+        r.add("spring.datasource.password", PG::getPassword);
+        r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+
+        r.add("spring.flyway.enabled", () -> true);
+        r.add("spring.flyway.schemas", () -> "course");
+    }
+
+    @Autowired private CourseMemberService courseMemberService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbc;
+
+    @MockBean private UserDirectoryClient userDirectoryClient;
+    @MockBean private CollaboratorNotificationService notificationService;
+    @SpyBean private CourseMemberRepository courseMemberRepository;
+
+    private final Map<String, UserInfo> directory = new LinkedHashMap<>();
+    private UUID courseId;
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        when(userDirectoryClient.findAllByEmails(anyCollection())).thenAnswer(invocation -> {
+            Map<String, UserInfo> found = new LinkedHashMap<>();
+            for (String email : invocation.<Collection<String>>getArgument(0)) {
+                UserInfo user = directory.get(email);
+                if (user != null) {
+                    found.put(email, user);
+                }
+            }
+            return found;
+        });
+
+        courseId = UUID.randomUUID();
+        ownerId = UUID.randomUUID();
+        jdbc.update("insert into course.course_courses "
+                        + "(id, author_id, title, slug, status, access_type, version) "
+                        + "values (?, ?, 'Import course', ?, 'DRAFT', 'PUBLIC', 1)",
+                courseId, ownerId, "import-" + courseId);
+        insertMember(ownerId, CourseMemberRole.OWNER);
+    }
+
+    @Test
+    void importSortsDuplicatesExistingAndUnknownEmails() {
+        UUID alice = user("alice@example.com");
+        UUID bob = user("bob@example.com");
+        UUID carol = user("carol@example.com");
+        insertMember(bob, CourseMemberRole.ADMIN);
+
+        CourseMemberBulkImportResult result = courseMemberService.importCollaborators(courseId, ownerId, request(
+                member("alice@example.com", CourseMemberRole.ADMIN),
+                // повтор после нормализации: учитывается первое вхождение
+                member(" ALICE@Example.com ", CourseMemberRole.OWNER),
+                member("bob@example.com", CourseMemberRole.OWNER),
+                member("ghost@example.com", CourseMemberRole.ADMIN),
+                member("carol@example.com", CourseMemberRole.OWNER)));
+
+        assertThat(result.getAdded()).extracting(CourseMemberDto::getUserId).containsExactly(alice, carol);
+        assertThat(result.getAlreadyMembers()).containsExactly("bob@example.com");
+        assertThat(result.getNotFound()).containsExactly("ghost@example.com");
+
+        assertThat(roleOf(alice)).isEqualTo("ADMIN");
+        assertThat(roleOf(carol)).isEqualTo("OWNER");
+        assertThat(roleOf(bob)).isEqualTo("ADMIN");
+        assertThat(memberAddedEvents()).isEqualTo(2);
+
+        verify(notificationService, timeout(2_000))
+                .sendCollaboratorInvite(courseId, ownerId, alice, "alice@example.com");
+        verify(notificationService, timeout(2_000))
+                .sendCollaboratorInvite(courseId, ownerId, carol, "carol@example.com");
+        verify(notificationService, after(300).never())
+                .sendCollaboratorInvite(eq(courseId), any(), eq(bob), anyString());
+    }
+
+    @Test
+    void memberAddedConcurrentlyAfterCheckIsReportedAsAlreadyMember() {
+        UUID dave = user("dave@example.com");
+        UUID erin = user("erin@example.com");
+
+        // параллельный запрос успевает закоммитить dave между проверкой существующих и вставкой
+        doAnswer(invocation -> {
+            Object existing = invocation.callRealMethod();
+            TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+            concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            concurrent.executeWithoutResult(status -> insertMember(dave, CourseMemberRole.ADMIN));
+            return existing;
+        }).when(courseMemberRepository).findMemberUserIds(eq(courseId), anyCollection());
+
+        CourseMemberBulkImportResult result = courseMemberService.importCollaborators(courseId, ownerId, request(
+                member("dave@example.com", CourseMemberRole.OWNER),
+                member("erin@example.com", CourseMemberRole.ADMIN)));
+
+        assertThat(result.getAdded()).extracting(CourseMemberDto::getUserId).containsExactly(erin);
+        assertThat(result.getAlreadyMembers()).containsExactly("dave@example.com");
+        // строка параллельного запроса не перезаписана
+        assertThat(roleOf(dave)).isEqualTo("ADMIN");
+        assertThat(memberAddedEvents()).isEqualTo(1);
+
+        verify(notificationService, timeout(2_000))
+                .sendCollaboratorInvite(courseId, ownerId, erin, "erin@example.com");
+        verify(notificationService, after(300).never())
+                .sendCollaboratorInvite(eq(courseId), any(), eq(dave), anyString());
+    }
+
+    @Test
+    void invitesAreEnqueuedOnlyAfterCommit() {
+        UUID frank = user("frank@example.com");
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            courseMemberService.importCollaborators(courseId, ownerId,
+                    request(member("frank@example.com", CourseMemberRole.ADMIN)));
+
+            verify(notificationService, after(300).never())
+                    .sendCollaboratorInvite(any(), any(), any(), anyString());
+        });
+
+        verify(notificationService, timeout(2_000))
+                .sendCollaboratorInvite(courseId, ownerId, frank, "frank@example.com");
+    }
+
+    @Test
+    void rolledBackImportSendsNoInvites() {
+        UUID grace = user("grace@example.com");
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            courseMemberService.importCollaborators(courseId, ownerId,
+                    request(member("grace@example.com", CourseMemberRole.ADMIN)));
+            status.setRollbackOnly();
+        });
+
+        verify(notificationService, after(500).never())
+                .sendCollaboratorInvite(any(), any(), eq(grace), anyString());
+        assertThat(roleOf(grace)).isNull();
+        assertThat(memberAddedEvents()).isZero();
+    }
+
+    private UUID user(String email) {
+        UUID id = UUID.randomUUID();
+        directory.put(email, new UserInfo(id, email));
+        return id;
+    }
+
+    private void insertMember(UUID userId, CourseMemberRole role) {
+        jdbc.update("insert into course.course_members (course_id, user_id, role, added_at) values (?, ?, ?, ?)",
+                courseId, userId, role.name(), OffsetDateTime.now());
+    }
+
+    private String roleOf(UUID userId) {
+        return jdbc.queryForList("select role from course.course_members where course_id = ? and user_id = ?",
+                String.class, courseId, userId).stream().findFirst().orElse(null);
+    }
+
+    private int memberAddedEvents() {
+        return jdbc.queryForObject("select count(*) from course.course_outbox_events "
+                + "where course_id = ? and event_type = 'MEMBER_ADDED'", Integer.class, courseId);
+    }
+
+    private static CourseMemberBulkImportRequest request(CourseMemberUpsertRequest... members) {
+        CourseMemberBulkImportRequest request = new CourseMemberBulkImportRequest();
+        request.setMembers(List.of(members));
+        return request;
+    }
+
+    private static CourseMemberUpsertRequest member(String email, CourseMemberRole role) {
+        CourseMemberUpsertRequest member = new CourseMemberUpsertRequest();
+        member.setEmail(email);
+        member.setRole(role);
+        return member;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import ru.offer.hunt.oh_course.support.CourseTestData;
+
+/**
+ * Копирование структуры в черновик: что копируется у страниц каждого типа, id новые, связи с родителями целы.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CourseTestData.class)
+class CourseStructureClonerTest {
+
+    @Autowired private CourseService courseService;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CourseTestData data;
+
+    @Test
+    void draftGetsCopyOfMixedStructure() {
+        Course source = data.publishedCourse("Clone course");
+
+        Lesson basics = data.lesson(source, 1);
+        LessonPage theory = data.page(basics, PageType.THEORY, 1);
+        data.methodicalContent(theory.getId(), "# Теория");
+        // вопрос у THEORY-страницы в копию не попадает
+        data.question(theory.getId(), QuestionType.TEXT_INPUT, 1);
+
+        LessonPage test = data.page(basics, PageType.TEST, 2);
+        // методичка у TEST-страницы в копию не попадает
+        data.methodicalContent(test.getId(), "# Не копируется");
+        Question single = data.question(test.getId(), QuestionType.SINGLE_CHOICE, 1);
+        data.options(single.getId(), 3);
+        data.question(test.getId(), QuestionType.TEXT_INPUT, 2);
+
+        Lesson practice = data.lesson(source, 2);
+        LessonPage codeTask = data.page(practice, PageType.CODE_TASK, 1);
+        Question code = data.question(codeTask.getId(), QuestionType.CODE, 1);
+        data.testCases(code.getId(), 2);
+        Question multiple = data.question(codeTask.getId(), QuestionType.MULTIPLE_CHOICE, 2);
+        data.options(multiple.getId(), 2);
+        // тест-кейсы копируются только у CODE
+        data.testCases(multiple.getId(), 1);
+
+        UUID draftId = courseService.createDraftFromPublished(source.getId(), source.getAuthorId()).getId();
+
+        assertThat(structure(draftId)).containsExactly(
+                "lesson 1",
+                "lesson 1 / page 1 THEORY md=# Теория",
+                "lesson 1 / page 2 TEST md=null",
+                "lesson 1 / page 2 / question 1 SINGLE_CHOICE options=3 testCases=0",
+                "lesson 1 / page 2 / question 2 TEXT_INPUT options=0 testCases=0",
+                "lesson 2",
+                "lesson 2 / page 1 CODE_TASK md=null",
+                "lesson 2 / page 1 / question 1 CODE options=0 testCases=2",
+                "lesson 2 / page 1 / question 2 MULTIPLE_CHOICE options=2 testCases=0");
+
+        for (String level : List.of("lessons", "pages", "questions", "options", "testCases")) {
+            List<UUID> draftIds = ids(level, draftId);
+            assertThat(draftIds).as(level).isNotEmpty().doesNotHaveDuplicates();
+            assertThat(draftIds).as(level).doesNotContainAnyElementsOf(ids(level, source.getId()));
+        }
+    }
+
+    @Test
+    void courseWithoutLessonsIsClonedEmpty() {
+        Course source = data.publishedCourse("Empty clone course");
+
+        UUID draftId = courseService.createDraftFromPublished(source.getId(), source.getAuthorId()).getId();
+
+        assertThat(structure(draftId)).isEmpty();
+    }
+
+    /**
+     * Дерево курса строками. Связи проходят по внешним ключам: строка, потерявшая родителя, в выборку не попадёт.
+     */
+    private List<String> structure(UUID courseId) {
+        List<String> rows = new ArrayList<>();
+        List<Map<String, Object>> lessons = jdbc.queryForList(
+                "select id, order_index from course.course_lessons where course_id = ? order by order_index", courseId);
+        for (Map<String, Object> lesson : lessons) {
+            String lessonPath = "lesson " + lesson.get("order_index");
+            rows.add(lessonPath);
+            List<Map<String, Object>> pages = jdbc.queryForList(
+                    "select p.id, p.sort_order, p.page_type, m.markdown from course.course_lesson_pages p "
+                            + "left join course.course_methodical_page_content m on m.page_id = p.id "
+                            + "where p.lesson_id = ? order by p.sort_order",
+                    lesson.get("id"));
+            for (Map<String, Object> page : pages) {
+                String pagePath = lessonPath + " / page " + page.get("sort_order");
+                rows.add(pagePath + " " + page.get("page_type") + " md=" + page.get("markdown"));
+                List<Map<String, Object>> questions = jdbc.queryForList(
+                        "select q.sort_order, q.type, "
+                                + "(select count(*) from course.course_question_options o where o.question_id = q.id) options, "
+                                + "(select count(*) from course.course_question_test_cases t where t.question_id = q.id) test_cases "
+                                + "from course.course_questions q where q.page_id = ? order by q.sort_order",
+                        page.get("id"));
+                for (Map<String, Object> question : questions) {
+                    rows.add(pagePath + " / question " + question.get("sort_order") + " " + question.get("type")
+                            + " options=" + question.get("options") + " testCases=" + question.get("test_cases"));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<UUID> ids(String level, UUID courseId) {
+        String lessons = "select id from course.course_lessons where course_id = ?";
+        String pages = "select id from course.course_lesson_pages where lesson_id in (" + lessons + ")";
+        String questions = "select id from course.course_questions where page_id in (" + pages + ")";
+        String sql = switch (level) {
+            case "lessons" -> lessons;
+            case "pages" -> pages;
+            case "questions" -> questions;
+            case "options" -> "select id from course.course_question_options where question_id in (" + questions + ")";
+            case "testCases" -> "select id from course.course_question_test_cases where question_id in (" + questions + ")";
+            default -> throw new IllegalArgumentException(level);
+        };
+        return jdbc.queryForList(sql, UUID.class, courseId);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.offer.hunt.oh_course.service.CourseStructureFields.Section;
+
+/**
+ * Разбор параметра fields: какие разделы читаются и какие пути отклоняются с 400.
+ */
+class CourseStructureFieldsTest {
+
+    @Test
+    void missingOrBlankFieldsSelectWholeStructure() {
+        assertThat(CourseStructureFields.parse(null)).isSameAs(CourseStructureFields.ALL);
+        assertThat(CourseStructureFields.parse(List.of())).isSameAs(CourseStructureFields.ALL);
+        assertThat(CourseStructureFields.parse(Arrays.asList(" ", null))).isSameAs(CourseStructureFields.ALL);
+    }
+
+    @Test
+    void courseScalarsSelectNoSections() {
+        CourseStructureFields fields = CourseStructureFields.parse(List.of("title", " version ", "contentRevision"));
+
+        assertThat(fields.sections()).isEmpty();
+    }
+
+    @Test
+    void sectionPathIncludesItsParentsAndNestedSections() {
+        CourseStructureFields fields = CourseStructureFields.parse(List.of("lessons.pages.questions"));
+
+        assertThat(fields.sections()).containsExactlyInAnyOrder(
+                Section.LESSONS, Section.PAGES, Section.QUESTIONS, Section.OPTIONS, Section.TEST_CASES);
+    }
+
+    @Test
+    void sectionScalarIncludesOnlyTheSectionAndItsParents() {
+        CourseStructureFields fields = CourseStructureFields.parse(List.of("lessons.pages.pageId",
+                "lessons.pages.methodicalContent.markdown", "lessons.pages.questions.options.label"));
+
+        assertThat(fields.sections()).containsExactlyInAnyOrder(
+                Section.LESSONS, Section.PAGES, Section.METHODICAL_CONTENT, Section.QUESTIONS, Section.OPTIONS);
+        assertThat(fields.includes(Section.TEST_CASES)).isFalse();
+    }
+
+    @Test
+    void keyDoesNotDependOnOrderOfFields() {
+        String key = CourseStructureFields.parse(List.of("lessons.title", "lessons.pages.questions.testCases")).key();
+
+        assertThat(CourseStructureFields.parse(List.of("lessons.pages.questions.testCases", "lessons.title")).key())
+                .isEqualTo(key);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bogus", "lessonId", "lessons.pages.bogus", "lessons.courseId", "lessons.bogus.title"})
+    void unknownNamesAreRejected(String path) {
+        assertBadRequest(path);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"lessons..title", ".title", "lessons.", "lessons.pages.questions."})
+    void emptySegmentsAreRejected(String path) {
+        assertBadRequest(path);
+    }
+
+    private static void assertBadRequest(String path) {
+        assertThatThrownBy(() -> CourseStructureFields.parse(List.of("title", path)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,169 @@
+package ru.offer.hunt.oh_course.service;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.offer.hunt.oh_course.exception.AiClientException;
+import ru.offer.hunt.oh_course.model.dto.TestGenerationResponse;
+import ru.offer.hunt.oh_course.model.dto.TextEnhancementRequest.TextEnhancementAction;
+import ru.offer.hunt.oh_course.model.dto.TextEnhancementResponse;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+
+/**
+ * HttpAiAssistantClient против локального WireMock: медленный, падающий и "мигающий" бэкенд.
+ */
+class HttpAiAssistantClientTest {
+
+    private static final String ENHANCE = "/v1/enhance-text";
+    private static final String GENERATE_TEST = "/v1/generate-test";
+
+    private WireMockServer backend;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void startBackend() {
+        backend = new WireMockServer(options().dynamicPort());
+        backend.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopBackend() {
+        backend.stop();
+    }
+
+    @Test
+    void returnsEnhancedTextAndSendsIdempotencyKey() {
+        backend.stubFor(post(urlEqualTo(ENHANCE)).willReturn(okJson("{\"enhancedText\":\"better\"}")));
+
+        Optional<TextEnhancementResponse> response = client(3, 4, 10).enhanceText("text", TextEnhancementAction.GRAMMAR);
+
+        assertThat(response).map(TextEnhancementResponse::getEnhancedText).contains("better");
+        backend.verify(1, postRequestedFor(urlEqualTo(ENHANCE))
+                .withHeader("Idempotency-Key", matching(".+"))
+                .withHeader("Content-Type", equalTo("application/json")));
+    }
+
+    @Test
+    void rejectedInputIsEmptyAndNotRetried() {
+        backend.stubFor(post(urlEqualTo(ENHANCE)).willReturn(aResponse().withStatus(422)));
+
+        Optional<TextEnhancementResponse> response = client(3, 4, 10).enhanceText("text", TextEnhancementAction.GRAMMAR);
+
+        assertThat(response).isEmpty();
+        backend.verify(1, postRequestedFor(urlEqualTo(ENHANCE)));
+    }
+
+    @Test
+    void slowBackendTimesOutOnEveryAttempt() {
+        backend.stubFor(post(urlEqualTo(ENHANCE))
+                .willReturn(okJson("{\"enhancedText\":\"late\"}").withFixedDelay(2000)));
+
+        HttpAiAssistantClient client = client(2, 4, 10);
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> client.enhanceText("text", TextEnhancementAction.GRAMMAR))
+                .isInstanceOf(AiClientException.class);
+        // две попытки по 300 мс + пауза, а не ожидание медленного ответа
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void flappingBackendRecoversOnRetry() {
+        backend.stubFor(post(urlEqualTo(ENHANCE)).inScenario("flapping")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("up"));
+        backend.stubFor(post(urlEqualTo(ENHANCE)).inScenario("flapping")
+                .whenScenarioStateIs("up")
+                .willReturn(okJson("{\"enhancedText\":\"second try\"}")));
+
+        Optional<TextEnhancementResponse> response = client(3, 4, 10).enhanceText("text", TextEnhancementAction.GRAMMAR);
+
+        assertThat(response).map(TextEnhancementResponse::getEnhancedText).contains("second try");
+        backend.verify(2, postRequestedFor(urlEqualTo(ENHANCE)));
+    }
+
+    @Test
+    void generationsAreNotRetriedByDefault() {
+        backend.stubFor(post(urlEqualTo(GENERATE_TEST)).willReturn(aResponse().withStatus(503)));
+
+        HttpAiAssistantClient client = client(3, 4, 10);
+
+        assertThatThrownBy(() -> client.generateTestQuestions("context", "topic", QuestionType.SINGLE_CHOICE, 3, null))
+                .isInstanceOf(AiClientException.class);
+        backend.verify(1, postRequestedFor(urlEqualTo(GENERATE_TEST)));
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailuresAndStopsCallingBackend() {
+        backend.stubFor(post(urlEqualTo(GENERATE_TEST)).willReturn(aResponse().withStatus(500)));
+
+        HttpAiAssistantClient client = client(1, 4, 4);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.generateTestQuestions("context", "topic", QuestionType.SINGLE_CHOICE, 3, null))
+                    .isInstanceOf(AiClientException.class);
+        }
+
+        assertThatThrownBy(() -> client.generateTestQuestions("context", "topic", QuestionType.SINGLE_CHOICE, 3, null))
+                .isInstanceOf(AiClientException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        backend.verify(4, postRequestedFor(urlEqualTo(GENERATE_TEST)));
+    }
+
+    @Test
+    void recordsLatencyPerOperationAndOutcome() {
+        backend.stubFor(post(urlEqualTo(GENERATE_TEST))
+                .willReturn(okJson("{\"questions\":[{\"text\":\"q\",\"options\":[\"a\",\"b\"],\"correctIndices\":[0]}]}")));
+
+        Optional<TestGenerationResponse> response =
+                client(3, 4, 10).generateTestQuestions("context", "topic", QuestionType.SINGLE_CHOICE, 1, null);
+
+        assertThat(response).isPresent();
+        Timer timer = meterRegistry.find(HttpAiAssistantClient.METRIC_NAME)
+                .tag("operation", "GENERATE_TEST")
+                .tag("outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    private HttpAiAssistantClient client(int maxAttempts, int slidingWindowSize, int minimumCalls) {
+        HttpAiAssistantClient.Settings settings = new HttpAiAssistantClient.Settings(
+                URI.create(backend.baseUrl()),
+                null,
+                "test-model",
+                Duration.ofSeconds(1),
+                Duration.ofMillis(300),
+                Duration.ofMillis(300),
+                Duration.ofMillis(300),
+                maxAttempts,
+                Duration.ofMillis(10),
+                false,
+                50f,
+                slidingWindowSize,
+                minimumCalls,
+                Duration.ofMinutes(1));
+        return new HttpAiAssistantClient(settings, new ObjectMapper(), meterRegistry);
+    }
+}
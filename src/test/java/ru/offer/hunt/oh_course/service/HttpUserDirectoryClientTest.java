@@ -0,0 +1,193 @@
+package ru.offer.hunt.oh_course.service;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.offer.hunt.oh_course.exception.UserDirectoryException;
+import ru.offer.hunt.oh_course.service.UserDirectoryClient.UserInfo;
+
+/**
+ * HttpUserDirectoryClient против локального WireMock: окно пакета, дробление по max-size и TTL кэша.
+ */
+class HttpUserDirectoryClientTest {
+
+    private static final String LOOKUP = "/api/internal/users/lookup";
+    private static final UUID ALICE_ID = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WireMockServer backend;
+    private HttpUserDirectoryClient client;
+
+    @BeforeEach
+    void startBackend() {
+        backend = new WireMockServer(options().dynamicPort());
+        backend.start();
+    }
+
+    @AfterEach
+    void stopBackend() {
+        if (client != null) {
+            client.shutdown();
+        }
+        backend.stop();
+    }
+
+    @Test
+    void concurrentLookupsInOneWindowShareOneRequest() throws Exception {
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(okJson(usersJson("alice@example.com"))));
+        client = client(200, 100, Duration.ofSeconds(30));
+
+        List<String> emails = List.of(
+                "alice@example.com", "bob@example.com", "carol@example.com", "Alice@Example.com ", "bob@example.com");
+        ExecutorService callers = Executors.newFixedThreadPool(emails.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<UserInfo>>> results = new ArrayList<>();
+        for (String email : emails) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return client.findByEmail(email);
+            }));
+        }
+        start.countDown();
+
+        List<Optional<UUID>> ids = new ArrayList<>();
+        for (Future<Optional<UserInfo>> result : results) {
+            ids.add(result.get(5, TimeUnit.SECONDS).map(UserInfo::getId));
+        }
+        callers.shutdown();
+
+        assertThat(ids).containsExactly(
+                Optional.of(ALICE_ID), Optional.empty(), Optional.empty(), Optional.of(ALICE_ID), Optional.empty());
+        backend.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        // одинаковые email после нормализации ждут один future и в запрос попадают один раз
+        assertThat(requestedBatches()).containsExactly(3);
+    }
+
+    @Test
+    void batchIsSplitIntoChunksOfMaxSize() throws Exception {
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(okJson(usersJson("alice@example.com"))));
+        client = client(50, 2, Duration.ofSeconds(30));
+
+        Map<String, UserInfo> found = client.findAllByEmails(List.of(
+                "alice@example.com", "b@example.com", "c@example.com", "d@example.com", "e@example.com"));
+
+        assertThat(found).containsOnlyKeys("alice@example.com");
+        backend.verify(3, postRequestedFor(urlEqualTo(LOOKUP)));
+        assertThat(requestedBatches()).containsExactlyInAnyOrder(2, 2, 1);
+    }
+
+    @Test
+    void missingUserIsCachedForNegativeTtl() throws Exception {
+        // справочник сообщает "не найден" отсутствием email в ответе
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(okJson(usersJson())));
+        client = client(10, 100, Duration.ofMillis(300));
+
+        assertThat(client.findByEmail("ghost@example.com")).isEmpty();
+        assertThat(client.findByEmail("ghost@example.com")).isEmpty();
+        backend.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+
+        Thread.sleep(500);
+
+        assertThat(client.findByEmail("ghost@example.com")).isEmpty();
+        backend.verify(2, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    void foundUserIsCachedForPositiveTtl() {
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(okJson(usersJson("alice@example.com"))));
+        client = client(10, 100, Duration.ofMillis(1));
+
+        assertThat(client.findByEmail("alice@example.com")).map(UserInfo::getId).contains(ALICE_ID);
+        assertThat(client.findByEmail("ALICE@example.com")).map(UserInfo::getId).contains(ALICE_ID);
+        backend.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    void serverErrorIsNotCached() {
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(503)));
+        client = client(10, 100, Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> client.findByEmail("alice@example.com"))
+                .isInstanceOf(UserDirectoryException.class);
+        assertThatThrownBy(() -> client.findByEmail("alice@example.com"))
+                .isInstanceOf(UserDirectoryException.class);
+        backend.verify(2, postRequestedFor(urlEqualTo(LOOKUP)));
+
+        backend.stubFor(post(urlEqualTo(LOOKUP)).willReturn(okJson(usersJson("alice@example.com"))));
+
+        assertThat(client.findByEmail("alice@example.com")).map(UserInfo::getId).contains(ALICE_ID);
+        backend.verify(3, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    void nonPositiveMaxBatchSizeIsRejected() {
+        assertThatThrownBy(() -> settings(10, 0, Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> settings(10, -1, Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Integer> requestedBatches() throws Exception {
+        List<Integer> sizes = new ArrayList<>();
+        for (ServeEvent event : backend.getAllServeEvents()) {
+            JsonNode body = objectMapper.readTree(event.getRequest().getBodyAsString());
+            sizes.add(body.get("emails").size());
+        }
+        return sizes;
+    }
+
+    private static String usersJson(String... emails) {
+        StringBuilder json = new StringBuilder("{\"users\":[");
+        for (int i = 0; i < emails.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(ALICE_ID).append("\",\"email\":\"").append(emails[i]).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private HttpUserDirectoryClient client(long windowMs, int maxBatchSize, Duration negativeTtl) {
+        return new HttpUserDirectoryClient(settings(windowMs, maxBatchSize, negativeTtl),
+                objectMapper, new SimpleMeterRegistry());
+    }
+
+    private HttpUserDirectoryClient.Settings settings(long windowMs, int maxBatchSize, Duration negativeTtl) {
+        return new HttpUserDirectoryClient.Settings(
+                URI.create(backend.baseUrl()),
+                "",
+                Duration.ofMillis(500),
+                Duration.ofSeconds(2),
+                Duration.ofMillis(windowMs),
+                maxBatchSize,
+                1_000,
+                Duration.ofMinutes(10),
+                negativeTtl);
+    }
+}
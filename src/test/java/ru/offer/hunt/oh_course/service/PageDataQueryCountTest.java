@@ -0,0 +1,82 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.offer.hunt.oh_course.model.dto.PageDataDto;
+import ru.offer.hunt.oh_course.model.dto.QuestionWithAnswersDto;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import ru.offer.hunt.oh_course.support.CourseTestData;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CourseTestData.class)
+class PageDataQueryCountTest {
+
+    private static final QuestionType[] TYPES = {
+            QuestionType.SINGLE_CHOICE, QuestionType.MULTIPLE_CHOICE, QuestionType.CODE, QuestionType.TEXT_INPUT
+    };
+
+    @Autowired private PageDataGetService pageDataGetService;
+    @Autowired private CourseTestData data;
+
+    @Test
+    void statementCountDoesNotDependOnQuestionCount() {
+        UUID small = seedTestPage(4);
+        UUID large = seedTestPage(40);
+
+        long smallStatements = data.countStatements(() -> pageDataGetService.getPageDataDto(UUID.randomUUID(), small));
+        long largeStatements = data.countStatements(() -> pageDataGetService.getPageDataDto(UUID.randomUUID(), large));
+
+        assertThat(largeStatements).isEqualTo(smallStatements);
+    }
+
+    @Test
+    void answersAreGroupedByQuestionType() {
+        UUID pageId = seedTestPage(8);
+
+        PageDataDto dto = pageDataGetService.getPageDataDto(UUID.randomUUID(), pageId);
+
+        assertThat(dto.getQuestions()).hasSize(8);
+        for (QuestionWithAnswersDto q : dto.getQuestions()) {
+            switch (q.getQuestionDto().getType()) {
+                case SINGLE_CHOICE, MULTIPLE_CHOICE -> {
+                    assertThat(q.getQuestionOptionDtoList()).hasSize(3);
+                    assertThat(q.getQuestionTestCaseDtoList()).isEmpty();
+                }
+                case CODE -> {
+                    assertThat(q.getQuestionOptionDtoList()).isEmpty();
+                    assertThat(q.getQuestionTestCaseDtoList()).hasSize(2);
+                }
+                case TEXT_INPUT -> {
+                    assertThat(q.getQuestionOptionDtoList()).isEmpty();
+                    assertThat(q.getQuestionTestCaseDtoList()).isEmpty();
+                }
+            }
+        }
+    }
+
+    private UUID seedTestPage(int questionCount) {
+        LessonPage page = data.page(data.lesson(data.publishedCourse("Page data course"), 1), PageType.TEST, 1);
+
+        for (int i = 0; i < questionCount; i++) {
+            QuestionType type = TYPES[i % TYPES.length];
+            Question question = data.question(page.getId(), type, i);
+
+            if (type == QuestionType.SINGLE_CHOICE || type == QuestionType.MULTIPLE_CHOICE) {
+                data.options(question.getId(), 3);
+            } else if (type == QuestionType.CODE) {
+                data.testCases(question.getId(), 2);
+            }
+        }
+        return page.getId();
+    }
+}
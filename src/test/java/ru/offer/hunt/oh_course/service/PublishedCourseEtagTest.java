@@ -0,0 +1,75 @@
+package ru.offer.hunt.oh_course.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.offer.hunt.oh_course.model.entity.CourseStats;
+import ru.offer.hunt.oh_course.model.repository.CourseStatsRepository;
+import ru.offer.hunt.oh_course.support.CourseTestData;
+
+/**
+ * ETag карточки курса описывает тело из PublishedCourseCache, а не текущее состояние БД;
+ * рост ревизии контента сбрасывает карточку после коммита.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CourseTestData.class)
+class PublishedCourseEtagTest {
+
+    @Autowired private CourseService courseService;
+    @Autowired private CourseEtagService courseEtagService;
+    @Autowired private PublishedCourseCache publishedCourseCache;
+    @Autowired private CourseStatsRepository courseStatsRepository;
+    @Autowired private CourseTestData data;
+    @Autowired private CourseRevisionCounter courseRevisionCounter;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void statsChangeWhileCachedKeepsEtagOfServedBody() {
+        UUID courseId = data.publishedCourse("Etag course").getId();
+        CourseStats stats = data.stats(courseId, 5);
+
+        PublishedCourseCache.CachedCourse first = courseService.getCourseDetails(courseId);
+        String firstEtag = courseEtagService.courseEtag(first);
+
+        stats.setEnrollments(50);
+        stats.setUpdatedAt(OffsetDateTime.now().plusMinutes(1));
+        courseStatsRepository.save(stats);
+
+        // запись в статистику кэш не сбрасывает: тело и тег остаются согласованными
+        PublishedCourseCache.CachedCourse cached = courseService.getCourseDetails(courseId);
+        assertThat(cached.course().getMembersCount()).isEqualTo(5);
+        assertThat(courseEtagService.courseEtag(cached)).isEqualTo(firstEtag);
+
+        publishedCourseCache.evict(courseId);
+
+        PublishedCourseCache.CachedCourse reloaded = courseService.getCourseDetails(courseId);
+        assertThat(reloaded.course().getMembersCount()).isEqualTo(50);
+        assertThat(courseEtagService.courseEtag(reloaded)).isNotEqualTo(firstEtag);
+    }
+
+    @Test
+    void revisionBumpEvictsCardAfterCommit() {
+        UUID courseId = data.publishedCourse("Bump course").getId();
+        PublishedCourseCache.CachedCourse first = courseService.getCourseDetails(courseId);
+        long revision = first.course().getContentRevision();
+
+        // так же ревизию двигают страницы, вопросы и задачи - без своих evict
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            courseRevisionCounter.bump(courseId);
+            assertThat(courseService.getCourseDetails(courseId)).isSameAs(first);
+        });
+
+        PublishedCourseCache.CachedCourse reloaded = courseService.getCourseDetails(courseId);
+        assertThat(reloaded).isNotSameAs(first);
+        assertThat(reloaded.course().getContentRevision()).isEqualTo(revision + 1);
+    }
+}
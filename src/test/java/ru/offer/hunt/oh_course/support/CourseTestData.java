@@ -0,0 +1,188 @@
+package ru.offer.hunt.oh_course.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.context.TestComponent;
+import ru.offer.hunt.oh_course.model.entity.Course;
+import ru.offer.hunt.oh_course.model.entity.CourseStats;
+import ru.offer.hunt.oh_course.model.entity.Lesson;
+import ru.offer.hunt.oh_course.model.entity.LessonPage;
+import ru.offer.hunt.oh_course.model.entity.MethodicalPageContent;
+import ru.offer.hunt.oh_course.model.entity.Question;
+import ru.offer.hunt.oh_course.model.entity.QuestionOption;
+import ru.offer.hunt.oh_course.model.entity.QuestionTestCase;
+import ru.offer.hunt.oh_course.model.entity.TagRef;
+import ru.offer.hunt.oh_course.model.enums.AccessType;
+import ru.offer.hunt.oh_course.model.enums.CourseStatus;
+import ru.offer.hunt.oh_course.model.enums.PageType;
+import ru.offer.hunt.oh_course.model.enums.QuestionType;
+import ru.offer.hunt.oh_course.model.repository.CourseRepository;
+import ru.offer.hunt.oh_course.model.repository.CourseStatsRepository;
+import ru.offer.hunt.oh_course.model.repository.LessonPageRepository;
+import ru.offer.hunt.oh_course.model.repository.LessonRepository;
+import ru.offer.hunt.oh_course.model.repository.MethodicalPageContentRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionOptionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionRepository;
+import ru.offer.hunt.oh_course.model.repository.QuestionTestCaseRepository;
+import ru.offer.hunt.oh_course.model.repository.TagRefRepository;
+
+/**
+ * Засев курсов для интеграционных тестов на test-профиле и подсчёт SQL-запросов Hibernate
+ * (generate_statistics включён в application-test.properties). Подключается через @Import.
+ */
+@TestComponent
+public class CourseTestData {
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonPageRepository lessonPageRepository;
+    private final MethodicalPageContentRepository methodicalPageContentRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionOptionRepository questionOptionRepository;
+    private final QuestionTestCaseRepository questionTestCaseRepository;
+    private final CourseStatsRepository courseStatsRepository;
+    private final TagRefRepository tagRefRepository;
+    private final Statistics statistics;
+
+    public CourseTestData(
+            CourseRepository courseRepository,
+            LessonRepository lessonRepository,
+            LessonPageRepository lessonPageRepository,
+            MethodicalPageContentRepository methodicalPageContentRepository,
+            QuestionRepository questionRepository,
+            QuestionOptionRepository questionOptionRepository,
+            QuestionTestCaseRepository questionTestCaseRepository,
+            CourseStatsRepository courseStatsRepository,
+            TagRefRepository tagRefRepository,
+            EntityManagerFactory entityManagerFactory
+    ) {
+        this.courseRepository = courseRepository;
+        this.lessonRepository = lessonRepository;
+        this.lessonPageRepository = lessonPageRepository;
+        this.methodicalPageContentRepository = methodicalPageContentRepository;
+        this.questionRepository = questionRepository;
+        this.questionOptionRepository = questionOptionRepository;
+        this.questionTestCaseRepository = questionTestCaseRepository;
+        this.courseStatsRepository = courseStatsRepository;
+        this.tagRefRepository = tagRefRepository;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Число JDBC-запросов, подготовленных Hibernate внутри блока.
+     */
+    public long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    public Course publishedCourse(String title) {
+        return publishedCourse(title, b -> b);
+    }
+
+    public Course publishedCourse(String title, UnaryOperator<Course.CourseBuilder> customizer) {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID courseId = UUID.randomUUID();
+        Course.CourseBuilder builder = Course.builder()
+                .id(courseId)
+                .authorId(UUID.randomUUID())
+                .title(title)
+                .slug("test-" + courseId)
+                .status(CourseStatus.PUBLISHED)
+                .accessType(AccessType.PUBLIC)
+                .version(1)
+                .publishedAt(now)
+                .createdAt(now);
+        return courseRepository.save(customizer.apply(builder).build());
+    }
+
+    public TagRef tag() {
+        return tagRefRepository.save(TagRef.builder()
+                .id(UUID.randomUUID())
+                .name("tag-" + UUID.randomUUID())
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    public Lesson lesson(Course course, int orderIndex) {
+        return lessonRepository.save(Lesson.builder()
+                .id(UUID.randomUUID())
+                .course(course)
+                .title("Lesson " + orderIndex)
+                .orderIndex(orderIndex)
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    public LessonPage page(Lesson lesson, PageType pageType, int sortOrder) {
+        LessonPage page = new LessonPage();
+        page.setId(UUID.randomUUID());
+        page.setLesson(lesson);
+        page.setTitle("Page " + sortOrder);
+        page.setPageType(pageType);
+        page.setSortOrder(sortOrder);
+        page.setCreatedAt(OffsetDateTime.now());
+        return lessonPageRepository.save(page);
+    }
+
+    public MethodicalPageContent methodicalContent(UUID pageId, String markdown) {
+        MethodicalPageContent content = new MethodicalPageContent();
+        content.setPageId(pageId);
+        content.setMarkdown(markdown);
+        content.setUpdatedAt(OffsetDateTime.now());
+        return methodicalPageContentRepository.save(content);
+    }
+
+    public Question question(UUID pageId, QuestionType type, int sortOrder) {
+        return questionRepository.save(Question.builder()
+                .id(UUID.randomUUID())
+                .pageId(pageId)
+                .type(type)
+                .text("Question " + sortOrder)
+                .sortOrder(sortOrder)
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    /**
+     * count вариантов ответа, первый - правильный.
+     */
+    public void options(UUID questionId, int count) {
+        for (int i = 0; i < count; i++) {
+            questionOptionRepository.save(QuestionOption.builder()
+                    .id(UUID.randomUUID())
+                    .questionId(questionId)
+                    .label("Option " + i)
+                    .correct(i == 0)
+                    .sortOrder(i)
+                    .build());
+        }
+    }
+
+    public void testCases(UUID questionId, int count) {
+        for (int i = 0; i < count; i++) {
+            questionTestCaseRepository.save(QuestionTestCase.builder()
+                    .id(UUID.randomUUID())
+                    .questionId(questionId)
+                    .inputData("in " + i)
+                    .expectedOutput("out " + i)
+                    .build());
+        }
+    }
+
+    public CourseStats stats(UUID courseId, int enrollments) {
+        return courseStatsRepository.save(CourseStats.builder()
+                .courseId(courseId)
+                .enrollments(enrollments)
+                .avgCompletion(BigDecimal.ZERO)
+                .avgRating(BigDecimal.ONE)
+                .updatedAt(OffsetDateTime.now())
+                .build());
+    }
+}